@@ -0,0 +1,80 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import services.TransportService;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read-side dispatch paths: vehicle selection, availability listing and statistics
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DispatchBenchmark {
+    
+    private static final int LOOKUPS = 1024;
+    
+    @Param({"100", "1000", "10000", "100000"})
+    public int vehicles;
+    
+    @Param({"10", "1000", "10000"})
+    public int routes;
+    
+    private TransportService service;
+    private String[] routeIds;
+    private int[] passengerCounts;
+    private int cursor;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        Fleets.silenceConsole();
+        service = Fleets.build(vehicles, routes, 42);
+        Random random = new Random(7);
+        routeIds = new String[LOOKUPS];
+        passengerCounts = new int[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            routeIds[i] = Fleets.routeId(random.nextInt(routes));
+            // Mostly small parties, with the occasional class-sized group
+            passengerCounts[i] = random.nextInt(10) == 0 ? 20 + random.nextInt(50) : 1 + random.nextInt(6);
+        }
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Fleets.restoreConsole();
+    }
+    
+    @Benchmark
+    public String findBestVehicle() {
+        int i = cursor++ & (LOOKUPS - 1);
+        return service.findBestVehicle(routeIds[i], passengerCounts[i]);
+    }
+    
+    @Benchmark
+    public List<String> getAvailableVehicles() {
+        return service.getAvailableVehicles();
+    }
+    
+    @Benchmark
+    public String getServiceStatistics() {
+        return service.getServiceStatistics();
+    }
+}
@@ -0,0 +1,118 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import services.TransportService;
+import tracking.GeoDistance;
+import vehicle.FleetStore;
+import vehicle.Vehicle;
+import vehicle.VehicleStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fleet-wide scans walking the vehicle objects against the same scans over the fleet store columns
+ * The *Objects methods go through each vehicle's getters, as the service did before the store;
+ * the *Columns methods run the FleetStore scans
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FleetScanBenchmark {
+    
+    @Param({"1000", "100000"})
+    public int vehicles;
+    
+    private FleetStore store;
+    private List<Vehicle> fleet;
+    private long dueCheckTime;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        Fleets.silenceConsole();
+        TransportService service = Fleets.build(vehicles, 10, 42);
+        store = service.getFleetStore();
+        fleet = new ArrayList<>();
+        fleet.addAll(service.getBuses());
+        fleet.addAll(service.getVans());
+        // Far enough ahead that the vans are due and the buses are not
+        dueCheckTime = System.currentTimeMillis() + TimeUnit.DAYS.toMillis(28);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Fleets.restoreConsole();
+    }
+    
+    @Benchmark
+    public int availableObjects() {
+        int count = 0;
+        for (Vehicle vehicle : fleet) {
+            if (vehicle.getStatus() == VehicleStatus.AVAILABLE) {
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    @Benchmark
+    public int availableColumns() {
+        return store.countWithStatus(VehicleStatus.AVAILABLE);
+    }
+    
+    @Benchmark
+    public int serviceDueObjects() {
+        int count = 0;
+        for (Vehicle vehicle : fleet) {
+            if (vehicle.getServiceDueTime() <= dueCheckTime) {
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    @Benchmark
+    public int serviceDueColumns() {
+        int[] count = new int[1];
+        store.forEachServiceDue(dueCheckTime, vehicle -> count[0]++);
+        return count[0];
+    }
+    
+    @Benchmark
+    public Vehicle nearestObjects() {
+        Vehicle best = null;
+        double bestDistance = Double.MAX_VALUE;
+        for (Vehicle vehicle : fleet) {
+            if (vehicle.getStatus() == VehicleStatus.AVAILABLE) {
+                double distance = GeoDistance.distanceKm(Fleets.CAMPUS_LATITUDE, Fleets.CAMPUS_LONGITUDE,
+                                                         vehicle.getLatitude(), vehicle.getLongitude());
+                if (distance < bestDistance) {
+                    bestDistance = distance;
+                    best = vehicle;
+                }
+            }
+        }
+        return best;
+    }
+    
+    @Benchmark
+    public Vehicle nearestColumns() {
+        return store.findNearest(Fleets.CAMPUS_LATITUDE, Fleets.CAMPUS_LONGITUDE, VehicleStatus.AVAILABLE);
+    }
+}
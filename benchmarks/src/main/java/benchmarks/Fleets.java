@@ -0,0 +1,115 @@
+package benchmarks;
+
+import services.Route;
+import services.TransportService;
+import user.Lecturer;
+import user.Student;
+import vehicle.Bus;
+import vehicle.Van;
+import vehicle.VehicleStatus;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Random;
+
+/**
+ * Fleets class building realistic, seeded TransportService fixtures for the benchmarks
+ * Roughly a third of the fleet are buses (40-70 seats) and the rest vans (8-15 seats),
+ * spread around the main campus; one vehicle in ten is already busy
+ */
+final class Fleets {
+    
+    static final double CAMPUS_LATITUDE = 0.3476;
+    static final double CAMPUS_LONGITUDE = 32.5825;
+    static final int STOPS_PER_ROUTE = 5;
+    
+    private static final PrintStream CONSOLE = System.out;
+    
+    private Fleets() {
+    }
+    
+    // The service logs every mutation to the console; benchmarks measure the logic, not the terminal
+    static void silenceConsole() {
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+    
+    static void restoreConsole() {
+        System.setOut(CONSOLE);
+    }
+    
+    static String vehicleId(int index) {
+        return (index % 3 == 0 ? "B" : "V") + index;
+    }
+    
+    static String routeId(int index) {
+        return "R" + index;
+    }
+    
+    static String stopName(int route, int stop) {
+        return "Stop-" + route + "-" + stop;
+    }
+    
+    static String userId(int index) {
+        return "U" + index;
+    }
+    
+    // One user in ten is a lecturer, the rest students spread over a handful of programmes
+    static void registerUsers(TransportService service, int users, long seed) {
+        Random random = new Random(seed);
+        String[] programs = {"Computer Science", "Engineering", "Business", "Law", "Medicine"};
+        for (int u = 0; u < users; u++) {
+            String program = programs[random.nextInt(programs.length)];
+            if (u % 10 == 0) {
+                service.registerUser(new Lecturer(userId(u), "Lecturer " + u, "l" + u + "@vu.edu", "0756" + u,
+                                                  "pass" + u, "L" + u, program, "Lecturer"));
+            } else {
+                Student student = new Student(userId(u), "Student " + u, "s" + u + "@vu.edu", "0756" + u,
+                                              "pass" + u, "S" + u, program, 1 + random.nextInt(4));
+                student.setTransportSubscription(random.nextBoolean());
+                service.registerUser(student);
+            }
+        }
+    }
+    
+    static TransportService build(int vehicles, int routes, long seed) {
+        Random random = new Random(seed);
+        TransportService service = new TransportService();
+        
+        Route[] created = new Route[routes];
+        for (int r = 0; r < routes; r++) {
+            Route route = new Route(routeId(r), "Route " + r, "Main Gate", stopName(r, STOPS_PER_ROUTE),
+                                    2 + random.nextInt(20), 10 + random.nextInt(50), r % 10 == 0 ? "Express" : "Regular");
+            for (int s = 0; s < STOPS_PER_ROUTE; s++) {
+                route.addStopPoint(stopName(r, s));
+            }
+            service.addRoute(route);
+            created[r] = route;
+        }
+        
+        for (int v = 0; v < vehicles; v++) {
+            String id = vehicleId(v);
+            double latitude = CAMPUS_LATITUDE + (random.nextDouble() - 0.5) * 0.2;
+            double longitude = CAMPUS_LONGITUDE + (random.nextDouble() - 0.5) * 0.2;
+            if (v % 3 == 0) {
+                Bus bus = new Bus(id, "Coaster", 40 + random.nextInt(31), "Driver " + v, "UB" + v);
+                service.addBus(bus);
+                bus.updateLocation(latitude, longitude);
+                bus.startTracking();
+                if (v % 10 == 9) {
+                    bus.transitionTo(VehicleStatus.SCHEDULED);
+                }
+            } else {
+                Van van = new Van(id, "Hiace", 8 + random.nextInt(8), "Driver " + v, "UV" + v,
+                                  "Passenger", v % 7 == 0);
+                service.addVan(van);
+                van.updateLocation(latitude, longitude);
+                van.startTracking();
+                if (v % 10 == 9) {
+                    van.transitionTo(VehicleStatus.SCHEDULED);
+                }
+            }
+            created[v % routes].assignVehicle(id);
+        }
+        return service;
+    }
+}
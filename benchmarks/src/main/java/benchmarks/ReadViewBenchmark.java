@@ -0,0 +1,146 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import services.Route;
+import services.TransportRequest;
+import services.TransportService;
+import user.Student;
+import vehicle.Bus;
+import vehicle.ScheduledTrip;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read paths that used to copy on every call against the shared read views
+ * The *Copy methods rebuild what the old getters returned (a fresh ArrayList/HashMap,
+ * or freshly rendered strings); the *View methods call the getters as they are now.
+ * Run with -prof gc and compare gc.alloc.rate.norm, the bytes allocated per call
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReadViewBenchmark {
+    
+    private static final int STOPS = 40;
+    private static final int VEHICLES_PER_ROUTE = 20;
+    private static final int TRIPS = 12;
+    private static final int ASSIGNMENTS = 500;
+    private static final int PENDING_REQUESTS = 200;
+    
+    private TransportService service;
+    private Route route;
+    private Bus bus;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        Fleets.silenceConsole();
+        service = new TransportService();
+        route = new Route("R0", "Route 0", "Main Gate", "Library", 12, 35, "Regular");
+        for (int s = 0; s < STOPS; s++) {
+            route.addStopPoint(Fleets.stopName(0, s));
+        }
+        for (int v = 0; v < VEHICLES_PER_ROUTE; v++) {
+            route.assignVehicle(Fleets.vehicleId(v));
+        }
+        service.addRoute(route);
+        
+        bus = new Bus("B0", "Coaster", 60, "Driver 0", "UB0");
+        service.addBus(bus);
+        long day = System.currentTimeMillis() + TimeUnit.DAYS.toMillis(2);
+        for (int t = 0; t < TRIPS; t++) {
+            long departure = day + t * TimeUnit.MINUTES.toMillis(90);
+            bus.scheduleTrip("Route 0", new Date(departure), new Date(departure + TimeUnit.MINUTES.toMillis(45)));
+        }
+        
+        for (int a = 0; a < ASSIGNMENTS; a++) {
+            service.assignDriver(Fleets.vehicleId(a), "Driver " + a, "UB" + a);
+        }
+        for (int u = 0; u < PENDING_REQUESTS; u++) {
+            service.registerUser(new Student(Fleets.userId(u), "Student " + u, "s" + u + "@vu.edu", "0756" + u,
+                                             "pass" + u, "S" + u, "Engineering", 2));
+            service.processTransportRequest(Fleets.userId(u), "Library", "08:" + (10 + u % 50));
+        }
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Fleets.restoreConsole();
+    }
+    
+    @Benchmark
+    public List<String> stopPointsCopy() {
+        return new ArrayList<>(route.getStopPoints());
+    }
+    
+    @Benchmark
+    public List<String> stopPointsView() {
+        return route.getStopPoints();
+    }
+    
+    @Benchmark
+    public List<String> assignedVehiclesCopy() {
+        return new ArrayList<>(route.getAssignedVehicles());
+    }
+    
+    @Benchmark
+    public List<String> assignedVehiclesView() {
+        return route.getAssignedVehicles();
+    }
+    
+    @Benchmark
+    public List<String> scheduledTripsCopy() {
+        List<String> trips = new ArrayList<>();
+        for (ScheduledTrip trip : new ArrayList<>(bus.getTrips())) {
+            trips.add(trip.toString());
+        }
+        return trips;
+    }
+    
+    @Benchmark
+    public List<String> scheduledTripsView() {
+        return bus.getScheduledTrips();
+    }
+    
+    @Benchmark
+    public Map<String, String> driverAssignmentsCopy() {
+        return new HashMap<>(service.getDriverAssignments());
+    }
+    
+    @Benchmark
+    public Map<String, String> driverAssignmentsView() {
+        return service.getDriverAssignments();
+    }
+    
+    @Benchmark
+    public List<String> transportRequestsCopy() {
+        List<String> requests = new ArrayList<>();
+        for (TransportRequest request : service.getRequestQueue().snapshot()) {
+            requests.add(request.description());
+        }
+        return requests;
+    }
+    
+    @Benchmark
+    public List<String> transportRequestsView() {
+        return service.getTransportRequests();
+    }
+}
@@ -0,0 +1,82 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import services.Route;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stop membership on a single route as its stop list grows
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RouteBenchmark {
+    
+    @Param({"10", "100", "1000"})
+    public int stops;
+    
+    private Route route;
+    private String[] existingStops;
+    private String[] missingStops;
+    private int cursor;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        Fleets.silenceConsole();
+        route = new Route("R0", "Main Campus Loop", "Main Gate", "Library", 5.0, 20, "Regular");
+        existingStops = new String[stops];
+        missingStops = new String[stops];
+        for (int s = 0; s < stops; s++) {
+            existingStops[s] = Fleets.stopName(0, s);
+            missingStops[s] = Fleets.stopName(1, s);
+            route.addStopPoint(existingStops[s]);
+        }
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Fleets.restoreConsole();
+    }
+    
+    @Benchmark
+    public boolean hasStopPointHit() {
+        return route.hasStopPoint(existingStops[Math.floorMod(cursor++, stops)]);
+    }
+    
+    @Benchmark
+    public boolean hasStopPointMiss() {
+        return route.hasStopPoint(missingStops[Math.floorMod(cursor++, stops)]);
+    }
+    
+    // Adding a stop that is already on the route: the duplicate check dominates
+    @Benchmark
+    public int addStopPointDuplicate() {
+        route.addStopPoint(existingStops[Math.floorMod(cursor++, stops)]);
+        return route.getStopPointCount();
+    }
+    
+    // Adding a new stop and removing it again keeps the route at its parameterised size
+    @Benchmark
+    public int addAndRemoveStopPoint() {
+        String stop = missingStops[Math.floorMod(cursor++, stops)];
+        route.addStopPoint(stop);
+        route.removeStopPoint(stop);
+        return route.getStopPointCount();
+    }
+}
@@ -0,0 +1,88 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import services.TransportService;
+import vehicle.SchedulingRules;
+import vehicle.VehicleStatus;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Trip scheduling through TransportService.scheduleTransport
+ * Trips are spread round-robin over the available part of the fleet in slots one trip
+ * plus the minimum gap apart, with no more trips per vehicle and day than the scheduling
+ * rules allow, so every call is accepted and inserts into a growing timetable. The fleet
+ * is rebuilt each iteration to keep timetables at a realistic size
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScheduleBenchmark {
+    
+    private static final long TRIP_MILLIS = 30 * 60 * 1000L;
+    private static final long SLOT_MILLIS = TRIP_MILLIS + SchedulingRules.DEFAULT.minGapMillis();
+    private static final int SLOTS_PER_DAY = SchedulingRules.DEFAULT.maxTripsPerDay();
+    private static final long DAY_MILLIS = 24 * 60 * 60 * 1000L;
+    // First slot of the day; the day's last trip still ends well before midnight, even across a DST change
+    private static final int FIRST_SLOT_HOUR = 6;
+    
+    @Param({"100", "1000", "10000", "100000"})
+    public int vehicles;
+    
+    @Param({"10", "1000", "10000"})
+    public int routes;
+    
+    private TransportService service;
+    private String[] vehicleIds;
+    private String[] routeIds;
+    private long dayStart;
+    private long counter;
+    
+    @Setup(Level.Iteration)
+    public void setUp() {
+        Fleets.silenceConsole();
+        service = Fleets.build(vehicles, routes, 42);
+        // Vehicles the fixture marks busy refuse new trips, so only the available ones take part
+        vehicleIds = service.getVehiclesInStatus(VehicleStatus.AVAILABLE).toArray(new String[0]);
+        routeIds = new String[routes];
+        for (int r = 0; r < routes; r++) {
+            routeIds[r] = Fleets.routeId(r);
+        }
+        dayStart = LocalDate.now().plusDays(1).atTime(FIRST_SLOT_HOUR, 0)
+                            .atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        counter = 0;
+    }
+    
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        Fleets.restoreConsole();
+    }
+    
+    @Benchmark
+    public String scheduleTransport() {
+        long n = counter++;
+        int vehicle = (int) (n % vehicleIds.length);
+        long slot = n / vehicleIds.length;
+        long departure = dayStart + slot / SLOTS_PER_DAY * DAY_MILLIS + slot % SLOTS_PER_DAY * SLOT_MILLIS;
+        return service.scheduleTransport(vehicleIds[vehicle], routeIds[(int) (n % routes)],
+                                         new Date(departure), new Date(departure + TRIP_MILLIS));
+    }
+}
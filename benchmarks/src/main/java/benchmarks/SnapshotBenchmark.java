@@ -0,0 +1,75 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import persistence.FleetSnapshot;
+import services.TransportService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cold start of a campus-sized model: loading a binary snapshot against
+ * rebuilding it with one registerUser/addBus/addVan/addRoute call per object
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class SnapshotBenchmark {
+    
+    private static final int ROUTES = 200;
+    private static final long SEED = 42;
+    
+    @Param({"100000"})
+    public int users;
+    
+    @Param({"10000"})
+    public int vehicles;
+    
+    private Path snapshot;
+    
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Fleets.silenceConsole();
+        snapshot = Files.createTempFile("fleet", ".snap");
+        FleetSnapshot.write(buildOneByOne(), 0, snapshot);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(snapshot);
+        Fleets.restoreConsole();
+    }
+    
+    @Benchmark
+    public TransportService loadSnapshot() throws IOException {
+        return FleetSnapshot.load(snapshot);
+    }
+    
+    @Benchmark
+    public TransportService addOneByOne() {
+        return buildOneByOne();
+    }
+    
+    private TransportService buildOneByOne() {
+        TransportService service = Fleets.build(vehicles, ROUTES, SEED);
+        Fleets.registerUsers(service, users, SEED);
+        return service;
+    }
+}
@@ -0,0 +1,105 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import services.Route;
+import services.TimetableOptimizer;
+import services.TransportService;
+import vehicle.Bus;
+import vehicle.SchedulingRules;
+import vehicle.Van;
+import vehicle.VehicleStatus;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full-day timetable optimisation against the size of the fork-join pool
+ * Demand follows a campus day: morning and evening peaks, quiet midday, nothing overnight.
+ * Compare the score for each parallelism with the single-threaded run to read the speed-up
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TimetableBenchmark {
+    
+    private static final long DAY_START = 1_767_225_600_000L;
+    
+    @Param({"1", "2", "4", "8"})
+    public int parallelism;
+    
+    @Param({"200"})
+    public int routes;
+    
+    @Param({"3000"})
+    public int vehicles;
+    
+    private ForkJoinPool pool;
+    private TimetableOptimizer optimizer;
+    private Collection<Route> routeList;
+    private List<TimetableOptimizer.RouteDemand> demand;
+    private List<Bus> buses;
+    private List<Van> vans;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        Fleets.silenceConsole();
+        TransportService service = Fleets.build(vehicles, routes, 42);
+        routeList = service.getRoutes();
+        buses = new ArrayList<>();
+        for (Bus bus : service.getBuses()) {
+            if (bus.getStatus() == VehicleStatus.AVAILABLE) {
+                buses.add(bus);
+            }
+        }
+        vans = new ArrayList<>();
+        for (Van van : service.getVans()) {
+            if (van.getStatus() == VehicleStatus.AVAILABLE) {
+                vans.add(van);
+            }
+        }
+        
+        Random random = new Random(7);
+        demand = new ArrayList<>();
+        for (int r = 0; r < routes; r++) {
+            int[] passengers = new int[24];
+            for (int hour = 6; hour < 22; hour++) {
+                int peak = hour == 7 || hour == 8 || hour == 17 || hour == 18 ? 3 : 1;
+                passengers[hour] = random.nextInt(40 * peak + 1);
+            }
+            demand.add(new TimetableOptimizer.RouteDemand(Fleets.routeId(r), passengers));
+        }
+        
+        pool = new ForkJoinPool(parallelism);
+        optimizer = new TimetableOptimizer(SchedulingRules.DEFAULT, pool);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+        Fleets.restoreConsole();
+    }
+    
+    @Benchmark
+    public TimetableOptimizer.Plan optimise() {
+        return optimizer.optimise(routeList, demand, buses, vans, DAY_START);
+    }
+}
@@ -0,0 +1,101 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import services.TransportService;
+import vehicle.Bus;
+import vehicle.Van;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GPS update paths for registered vehicles, including the spatial index maintenance
+ * they trigger. updateLocation is the interactive path with console logging;
+ * recordLocationFix is the quiet path used by the ingestion pipeline
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TrackingBenchmark {
+    
+    private static final int FIXES = 4096;
+    
+    @Param({"100", "1000", "10000", "100000"})
+    public int vehicles;
+    
+    private Bus[] buses;
+    private Van[] vans;
+    private double[] latitudes;
+    private double[] longitudes;
+    private int cursor;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        Fleets.silenceConsole();
+        TransportService service = Fleets.build(vehicles, 10, 42);
+        buses = new Bus[(vehicles + 2) / 3];
+        vans = new Van[vehicles - buses.length];
+        int b = 0;
+        int v = 0;
+        for (int i = 0; i < vehicles; i++) {
+            String id = Fleets.vehicleId(i);
+            if (i % 3 == 0) {
+                buses[b++] = service.getBus(id);
+            } else {
+                vans[v++] = service.getVan(id);
+            }
+        }
+        // Positions anywhere in the campus area, so most fixes also move the vehicle between grid cells
+        Random random = new Random(11);
+        latitudes = new double[FIXES];
+        longitudes = new double[FIXES];
+        for (int i = 0; i < FIXES; i++) {
+            latitudes[i] = Fleets.CAMPUS_LATITUDE + (random.nextDouble() - 0.5) * 0.2;
+            longitudes[i] = Fleets.CAMPUS_LONGITUDE + (random.nextDouble() - 0.5) * 0.2;
+        }
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Fleets.restoreConsole();
+    }
+    
+    @Benchmark
+    public double busUpdateLocation() {
+        int i = cursor++;
+        Bus bus = buses[Math.floorMod(i, buses.length)];
+        bus.updateLocation(latitudes[i & (FIXES - 1)], longitudes[i & (FIXES - 1)]);
+        return bus.getDistanceTraveled();
+    }
+    
+    @Benchmark
+    public double busRecordLocationFix() {
+        int i = cursor++;
+        Bus bus = buses[Math.floorMod(i, buses.length)];
+        bus.recordLocationFix(latitudes[i & (FIXES - 1)], longitudes[i & (FIXES - 1)], i);
+        return bus.getDistanceTraveled();
+    }
+    
+    @Benchmark
+    public double vanRecordLocationFix() {
+        int i = cursor++;
+        Van van = vans[Math.floorMod(i, vans.length)];
+        van.recordLocationFix(latitudes[i & (FIXES - 1)], longitudes[i & (FIXES - 1)], i);
+        return van.getDistanceTraveled();
+    }
+}
@@ -0,0 +1,41 @@
+package diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * DriverAssignmentEvent class recording a call to one of the assignDriver overloads
+ * The overload field tells the five variants apart in a recording
+ */
+@Name("transport.DriverAssignment")
+@Label("Driver Assignment")
+@Category({"Transport", "Dispatch"})
+@Description("A driver assigned through TransportService.assignDriver")
+@StackTrace(false)
+public class DriverAssignmentEvent extends Event {
+    
+    @Label("Overload")
+    @Description("byType, byShift, byDriver, withRequirements or emergency")
+    public String overload;
+    
+    @Label("Assignment Key")
+    @Description("Vehicle id, or vehicle type and shift for pooled assignments")
+    public String assignmentKey;
+    
+    @Label("Driver")
+    public String driver;
+    
+    // Fields are filled in only if the recording will keep the event
+    public void complete(String overload, String assignmentKey, String driver) {
+        if (shouldCommit()) {
+            this.overload = overload;
+            this.assignmentKey = assignmentKey;
+            this.driver = driver;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * LocationBatchEvent class recording one drain of the GPS ingestion ring
+ * The event spans the whole drain, from reading the ring to the last applied fix
+ */
+@Name("transport.LocationBatch")
+@Label("Location Batch")
+@Category({"Transport", "Tracking"})
+@Description("GPS fixes drained from the ingestion ring and applied to vehicles")
+@StackTrace(false)
+public class LocationBatchEvent extends Event {
+    
+    @Label("Fixes Read")
+    public int fixes;
+    
+    @Label("Fixes Applied")
+    public int applied;
+    
+    @Label("Stale Fixes")
+    @Description("Out-of-order fixes or fixes for unknown vehicles")
+    public int stale;
+    
+    @Label("Batches")
+    @Description("Distance batches the drain was split into")
+    public int batches;
+    
+    @Label("Backlog")
+    @Description("Fixes published while the drain ran, left for the next one")
+    public long backlog;
+    
+    // Called once at the end of a drain
+    public void complete(int fixes, int applied, int stale, int batches, long backlog) {
+        if (shouldCommit()) {
+            this.fixes = fixes;
+            this.applied = applied;
+            this.stale = stale;
+            this.batches = batches;
+            this.backlog = backlog;
+            commit();
+        }
+    }
+}
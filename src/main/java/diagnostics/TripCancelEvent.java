@@ -0,0 +1,44 @@
+package diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * TripCancelEvent class recording a cancellation on a vehicle's schedule
+ * A cancellation by route name may remove several trips at once
+ */
+@Name("transport.TripCancel")
+@Label("Trip Cancel")
+@Category({"Transport", "Scheduling"})
+@Description("Trips removed from a bus or van schedule")
+@StackTrace(false)
+public class TripCancelEvent extends Event {
+    
+    @Label("Vehicle")
+    public String vehicleId;
+    
+    @Label("Trip Or Route")
+    @Description("Trip id, or the route name when cancelling by route")
+    public String tripId;
+    
+    @Label("Cancelled Trips")
+    public int cancelledTrips;
+    
+    @Label("Trips On Vehicle")
+    public int scheduledTrips;
+    
+    // Commits the cancellation; skipped entirely while the event is disabled
+    public void complete(String vehicleId, String tripId, int cancelledTrips, int scheduledTrips) {
+        if (shouldCommit()) {
+            this.vehicleId = vehicleId;
+            this.tripId = tripId;
+            this.cancelledTrips = cancelledTrips;
+            this.scheduledTrips = scheduledTrips;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timestamp;
+
+import java.util.Collection;
+
+/**
+ * TripScheduleEvent class recording a trip being scheduled or moved on a vehicle
+ * Rejected attempts are recorded too, with the rules they broke
+ */
+@Name("transport.TripSchedule")
+@Label("Trip Schedule")
+@Category({"Transport", "Scheduling"})
+@Description("A trip scheduled, rescheduled or rejected on a bus or van")
+@StackTrace(false)
+public class TripScheduleEvent extends Event {
+    
+    @Label("Action")
+    @Description("schedule or update")
+    public String action;
+    
+    @Label("Vehicle")
+    public String vehicleId;
+    
+    @Label("Trip")
+    public String tripId;
+    
+    @Label("Route")
+    public String route;
+    
+    @Label("Departure")
+    @Timestamp(Timestamp.MILLISECONDS_SINCE_EPOCH)
+    public long departureTime;
+    
+    @Label("Arrival")
+    @Timestamp(Timestamp.MILLISECONDS_SINCE_EPOCH)
+    public long arrivalTime;
+    
+    @Label("Emergency")
+    public boolean emergency;
+    
+    @Label("Accepted")
+    public boolean accepted;
+    
+    @Label("Violations")
+    public String violations;
+    
+    @Label("Trips On Vehicle")
+    public int scheduledTrips;
+    
+    // Sets the fields only when a recording has the event enabled
+    public void complete(String action, String vehicleId, String tripId, String route, long departureTime,
+                         long arrivalTime, boolean emergency, boolean accepted, Collection<?> violations, int scheduledTrips) {
+        if (shouldCommit()) {
+            this.action = action;
+            this.vehicleId = vehicleId;
+            this.tripId = tripId;
+            this.route = route;
+            this.departureTime = departureTime;
+            this.arrivalTime = arrivalTime;
+            this.emergency = emergency;
+            this.accepted = accepted;
+            this.violations = violations.toString();
+            this.scheduledTrips = scheduledTrips;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * VehicleSelectionEvent class recording one vehicle lookup for a request or an emergency
+ * Committed only while a flight recording has the event enabled
+ */
+@Name("transport.VehicleSelection")
+@Label("Vehicle Selection")
+@Category({"Transport", "Dispatch"})
+@Description("Choice of a vehicle for a transport request or an emergency")
+@StackTrace(false)
+public class VehicleSelectionEvent extends Event {
+    
+    @Label("Strategy")
+    @Description("smallestFit, emergency or nearest")
+    public String strategy;
+    
+    @Label("Route")
+    public String routeId;
+    
+    @Label("Passengers")
+    public int passengerCount;
+    
+    @Label("Candidates")
+    @Description("Vehicles the lookup considered")
+    public int candidateCount;
+    
+    @Label("Selected Vehicle")
+    @Description("Empty when no vehicle was found")
+    public String vehicleId;
+    
+    // Fills in the fields and commits; does nothing unless a recording wants the event
+    public void complete(String strategy, String routeId, int passengerCount, int candidateCount, String vehicleId) {
+        if (shouldCommit()) {
+            this.strategy = strategy;
+            this.routeId = routeId;
+            this.passengerCount = passengerCount;
+            this.candidateCount = candidateCount;
+            this.vehicleId = vehicleId;
+            commit();
+        }
+    }
+}
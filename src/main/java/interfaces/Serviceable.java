@@ -23,6 +23,12 @@ public interface Serviceable {
     
     String getMaintenanceStatus();
     
+    // Days allowed between regular services
+    int getServiceIntervalDays();
+    
+    // Epoch milliseconds from which needsService() returns true
+    long getServiceDueTime();
+    
     // Default method (Java 8 feature)
     default void emergencyMaintenance() {
         System.out.println("Emergency maintenance initiated for vehicle");
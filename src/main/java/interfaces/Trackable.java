@@ -25,6 +25,20 @@ public interface Trackable {
     
     void setTrackingEnabled(boolean enabled);
     
+    double getLatitude();
+    
+    double getLongitude();
+    
+    // Default method for bulk GPS ingestion; implementations should avoid console output
+    default void recordLocationFix(double latitude, double longitude, long timestamp) {
+        updateLocation(latitude, longitude);
+    }
+    
+    // Bulk ingestion with the hop from the previous position already measured by the caller
+    default void recordLocationFix(double latitude, double longitude, long timestamp, double distanceKm) {
+        recordLocationFix(latitude, longitude, timestamp);
+    }
+    
     // Default method for emergency tracking
     default void enableEmergencyTracking() {
         System.out.println("Emergency tracking activated");
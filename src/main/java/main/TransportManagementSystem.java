@@ -7,9 +7,17 @@ import vehicle.Bus;
 import vehicle.Van;
 import services.TransportService;
 import services.Route;
-
+import server.TransportHttpServer;
+import persistence.TransportPersistence;
+import workload.LoadHarness;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Main TransportManagementSystem class
@@ -25,9 +33,22 @@ public class TransportManagementSystem {
         this.scanner = new Scanner(System.in);
     }
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         TransportManagementSystem utms = new TransportManagementSystem();
-        utms.runSystem();
+        if (args.length > 0 && args[0].equals("--server")) {
+            int port = args.length > 1 ? Integer.parseInt(args[1]) : TransportHttpServer.DEFAULT_PORT;
+            Path dataDirectory = args.length > 2 && !args[2].isEmpty() ? Path.of(args[2]) : null;
+            InetAddress bindAddress = args.length > 3 ? InetAddress.getByName(args[3]) : InetAddress.getLoopbackAddress();
+            utms.runServer(port, dataDirectory, bindAddress);
+        } else if (args.length > 0 && args[0].equals("--workload")) {
+            try {
+                LoadHarness.main(Arrays.copyOfRange(args, 1, args.length));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        } else {
+            utms.runSystem();
+        }
     }
 
     public void runSystem() {
@@ -46,6 +67,50 @@ public class TransportManagementSystem {
         runInteractiveMenu();
     }
 
+    // Embedded server mode: same sample data, served over HTTP instead of the menu
+    public void runServer(int port) throws IOException {
+        runServer(port, null);
+    }
+
+    // With a data directory, state is journaled there and recovered on the next start;
+    // the sample data is only loaded into an empty directory
+    public void runServer(int port, Path dataDirectory) throws IOException {
+        runServer(port, dataDirectory, InetAddress.getLoopbackAddress());
+    }
+
+    // The server listens on bindAddress only; the loopback address keeps it local to this machine
+    public void runServer(int port, Path dataDirectory, InetAddress bindAddress) throws IOException {
+        System.out.println("=================================================");
+        System.out.println("VICTORIA UNIVERSITY TRANSPORT MANAGEMENT SYSTEM");
+        System.out.println("=================================================");
+        System.out.println();
+
+        TransportPersistence persistence = null;
+        if (dataDirectory != null) {
+            persistence = TransportPersistence.open(dataDirectory, transportService, 5, TimeUnit.MINUTES);
+        }
+        if (persistence == null || persistence.getRecoveredEntries() == 0) {
+            initializeSystemData();
+        }
+
+        transportService.getMaintenanceScheduler().start(1, TimeUnit.MINUTES);
+
+        TransportHttpServer server = new TransportHttpServer(transportService, bindAddress, port);
+        TransportPersistence journal = persistence;
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop(1);
+            if (journal != null) {
+                try {
+                    journal.snapshot();
+                    journal.close();
+                } catch (IOException e) {
+                    System.out.println("Could not close transport journal: " + e.getMessage());
+                }
+            }
+        }));
+        server.start();
+    }
+
     private void initializeSystemData() {
         System.out.println(" INITIALIZING SYSTEM DATA...\n");
 
@@ -0,0 +1,31 @@
+package metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counter class for a monotonically increasing count
+ * Backed by a LongAdder, so concurrent increments land on separate cells instead of
+ * contending for one value; reading sums the cells
+ */
+public class Counter {
+    
+    // Private attributes (Encapsulation)
+    private final LongAdder count;
+    
+    // Constructor
+    public Counter() {
+        this.count = new LongAdder();
+    }
+    
+    public void increment() {
+        count.increment();
+    }
+    
+    public void add(long amount) {
+        count.add(amount);
+    }
+    
+    public long get() {
+        return count.sum();
+    }
+}
@@ -0,0 +1,104 @@
+package metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LatencyHistogram class recording durations in nanoseconds into log-linear buckets
+ * Like an HDR histogram, each power of two is split into 32 equal sub-buckets, so any
+ * recorded value is reported within about 3% whatever its magnitude. Recording is one
+ * atomic increment plus two striped adders; no locks are taken
+ */
+public class LatencyHistogram {
+    
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+    
+    // Point-in-time copy of the histogram; quantiles are read from it, not from the live buckets
+    public record Snapshot(long count, long sum, long max, long[] buckets) {
+        
+        public double mean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+        
+        // Value at the given quantile, 0.0 to 1.0, in nanoseconds
+        public long valueAt(double quantile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(quantile * count));
+            long seen = 0;
+            for (int index = 0; index < buckets.length; index++) {
+                seen += buckets[index];
+                if (seen >= rank) {
+                    return Math.min(max, upperBound(index));
+                }
+            }
+            return max;
+        }
+    }
+    
+    // Private attributes (Encapsulation)
+    private final AtomicLongArray buckets;
+    private final LongAdder count;
+    private final LongAdder sum;
+    private final LongAccumulator max;
+    
+    // Constructor
+    public LatencyHistogram() {
+        this.buckets = new AtomicLongArray(BUCKETS);
+        this.count = new LongAdder();
+        this.sum = new LongAdder();
+        this.max = new LongAccumulator(Math::max, 0);
+    }
+    
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        buckets.incrementAndGet(indexOf(value));
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+    
+    // Records the time elapsed since a System.nanoTime() start
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+    
+    public long getCount() {
+        return count.sum();
+    }
+    
+    // Buckets are read one by one, so a snapshot taken under load may be off by in-flight records
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        long total = 0;
+        for (int index = 0; index < BUCKETS; index++) {
+            copy[index] = buckets.get(index);
+            total += copy[index];
+        }
+        return new Snapshot(total, sum.sum(), max.get(), copy);
+    }
+    
+    // Values below 32 get a bucket each; above that, the top six bits pick the bucket
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+        return (shift + 1) * SUB_BUCKETS + subBucket;
+    }
+    
+    static long upperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long subBucket = index % SUB_BUCKETS;
+        return ((SUB_BUCKETS + subBucket + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,118 @@
+package metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+/**
+ * MetricsRegistry class holding named counters, latency histograms and gauges
+ * Metrics are looked up once when registered and then updated directly by their owner,
+ * so the registry is never on the hot path. scrape() renders everything in the
+ * Prometheus text exposition format; histograms are exported as summaries in seconds
+ */
+public class MetricsRegistry {
+    
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+    
+    private enum Type { COUNTER, SUMMARY, GAUGE }
+    
+    // One metric name with its help text and a series per label set
+    private record Family(String name, String help, Type type, Map<String, Object> series) {}
+    
+    // Private attributes (Encapsulation)
+    private final Map<String, Family> families;
+    
+    // Constructor
+    public MetricsRegistry() {
+        this.families = new ConcurrentHashMap<>();
+    }
+    
+    public Counter counter(String name, String help) {
+        return counter(name, help, null, null);
+    }
+    
+    public Counter counter(String name, String help, String labelName, String labelValue) {
+        return (Counter) series(name, help, Type.COUNTER, labelName, labelValue, Counter::new);
+    }
+    
+    public LatencyHistogram histogram(String name, String help, String labelName, String labelValue) {
+        return (LatencyHistogram) series(name, help, Type.SUMMARY, labelName, labelValue, LatencyHistogram::new);
+    }
+    
+    // Gauges are read when scraped; the supplier must be cheap and thread-safe
+    public void gauge(String name, String help, DoubleSupplier value) {
+        series(name, help, Type.GAUGE, null, null, () -> value);
+    }
+    
+    public LatencyHistogram getHistogram(String name, String labelName, String labelValue) {
+        Family family = families.get(name);
+        return family == null ? null : (LatencyHistogram) family.series().get(labels(labelName, labelValue));
+    }
+    
+    private Object series(String name, String help, Type type, String labelName, String labelValue,
+                          Supplier<Object> factory) {
+        Family family = families.computeIfAbsent(name, key -> new Family(key, help, type, new ConcurrentHashMap<>()));
+        if (family.type() != type) {
+            throw new IllegalArgumentException("Metric " + name + " is already registered as a " + family.type());
+        }
+        return family.series().computeIfAbsent(labels(labelName, labelValue), key -> factory.get());
+    }
+    
+    private static String labels(String labelName, String labelValue) {
+        return labelName == null ? "" : labelName + "=\"" + escape(labelValue) + "\"";
+    }
+    
+    // Prometheus text exposition format, families and series in name order
+    public String scrape() {
+        StringBuilder out = new StringBuilder();
+        List<String> names = new ArrayList<>(families.keySet());
+        names.sort(null);
+        for (String name : names) {
+            Family family = families.get(name);
+            out.append("# HELP ").append(name).append(' ').append(family.help()).append('\n');
+            out.append("# TYPE ").append(name).append(' ').append(family.type().name().toLowerCase(Locale.ROOT)).append('\n');
+            List<String> labelSets = new ArrayList<>(family.series().keySet());
+            labelSets.sort(null);
+            for (String labels : labelSets) {
+                Object metric = family.series().get(labels);
+                switch (family.type()) {
+                    case COUNTER -> sample(out, name, labels, ((Counter) metric).get());
+                    case GAUGE -> sample(out, name, labels, ((DoubleSupplier) metric).getAsDouble());
+                    case SUMMARY -> {
+                        LatencyHistogram.Snapshot snapshot = ((LatencyHistogram) metric).snapshot();
+                        for (double quantile : QUANTILES) {
+                            String withQuantile = (labels.isEmpty() ? "" : labels + ",") + "quantile=\"" + quantile + "\"";
+                            sample(out, name, withQuantile, snapshot.valueAt(quantile) / NANOS_PER_SECOND);
+                        }
+                        sample(out, name + "_sum", labels, snapshot.sum() / NANOS_PER_SECOND);
+                        sample(out, name + "_count", labels, snapshot.count());
+                    }
+                }
+            }
+        }
+        return out.toString();
+    }
+    
+    private static void sample(StringBuilder out, String name, String labels, double value) {
+        out.append(name);
+        if (!labels.isEmpty()) {
+            out.append('{').append(labels).append('}');
+        }
+        out.append(' ');
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            out.append((long) value);
+        } else {
+            out.append(value);
+        }
+        out.append('\n');
+    }
+    
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
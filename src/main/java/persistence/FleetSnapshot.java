@@ -0,0 +1,278 @@
+package persistence;
+
+import services.Route;
+import services.TransportRequest;
+import services.TransportService;
+import user.User;
+import user.UserCodec;
+import user.UserCodec.StringCodec;
+import vehicle.Bus;
+import vehicle.Van;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * FleetSnapshot class for the binary snapshot of the whole TransportService model
+ * Layout (big-endian): a fixed header with the format version, journal sequence and
+ * the count of every section, a table of distinct strings, then users, buses, vans,
+ * routes, driver assignments and pending requests. Records refer to strings by
+ * table index, so repeated values such as programmes, models and statuses are stored
+ * and decoded once. Loading maps the file, sizes every collection from the header
+ * and hands the whole model to the service in one bulk call
+ */
+public final class FleetSnapshot {
+    
+    // "UTMS"
+    static final int MAGIC = 0x55544d53;
+    
+    // Bump when the layout changes; older versions are still read where possible
+    public static final int FORMAT_VERSION = 1;
+    
+    // magic, version, sequence, createdAt, then seven section counts
+    static final int HEADER_BYTES = 4 + 4 + 8 + 8 + 7 * 4;
+    
+    // Header of a snapshot file
+    public record Header(int version, long sequence, long createdAt, int strings, int users, int buses,
+                         int vans, int routes, int driverAssignments, int pendingRequests) {
+    }
+    
+    private FleetSnapshot() {
+    }
+    
+    // Writes the model atomically: to a temporary file first, then moved over the target
+    public static Header write(TransportService service, long sequence, Path file) throws IOException {
+        // Copy the live views once so counts and records agree
+        List<User> users = new ArrayList<>(service.getRegisteredUsers());
+        List<Bus> buses = new ArrayList<>(service.getBuses());
+        List<Van> vans = new ArrayList<>(service.getVans());
+        List<Route> routes = new ArrayList<>(service.getRoutes());
+        Map<String, String> assignments = service.getDriverAssignments();
+        List<TransportRequest> requests = service.getRequestQueue().snapshot();
+        
+        StringTableWriter strings = new StringTableWriter();
+        ByteArrayOutputStream records = new ByteArrayOutputStream(64 * 1024 + users.size() * 48);
+        DataOutputStream out = new DataOutputStream(records);
+        for (User user : users) {
+            UserCodec.write(user, out, strings);
+        }
+        for (Bus bus : buses) {
+            JournalCodec.writeBus(bus, out, strings);
+        }
+        for (Van van : vans) {
+            JournalCodec.writeVan(van, out, strings);
+        }
+        for (Route route : routes) {
+            JournalCodec.writeRoute(route, out, strings);
+        }
+        for (Map.Entry<String, String> assignment : assignments.entrySet()) {
+            strings.write(assignment.getKey(), out);
+            strings.write(assignment.getValue(), out);
+        }
+        for (TransportRequest request : requests) {
+            JournalCodec.writeRequest(request, out, strings);
+        }
+        out.flush();
+        
+        Header header = new Header(FORMAT_VERSION, sequence, System.currentTimeMillis(), strings.size(),
+                                   users.size(), buses.size(), vans.size(), routes.size(),
+                                   assignments.size(), requests.size());
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                                                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream fileOut = new DataOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel), 256 * 1024));
+            writeHeader(header, fileOut);
+            strings.writeTable(fileOut);
+            records.writeTo(fileOut);
+            fileOut.flush();
+            channel.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return header;
+    }
+    
+    public static Header readHeader(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // keep reading until the header is complete or the file ends
+            }
+            buffer.flip();
+            return readHeader(new MappedInput(buffer), file);
+        }
+    }
+    
+    // Cold start: a new service with every collection sized for the snapshot
+    public static TransportService load(Path file) throws IOException {
+        Header header = readHeader(file);
+        TransportService service = new TransportService(TransportService.DEFAULT_REQUEST_QUEUE_CAPACITY,
+                                                        header.users(), header.buses() + header.vans(),
+                                                        header.routes());
+        loadInto(file, service);
+        return service;
+    }
+    
+    // Adds the snapshot's model to an existing service; returns the header read
+    public static Header loadInto(Path file, TransportService service) throws IOException {
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot too large to map: " + file);
+            }
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        MappedInput in = new MappedInput(mapped);
+        Header header = readHeader(in, file);
+        StringTableReader strings = new StringTableReader(in, header.strings());
+        
+        List<User> users = new ArrayList<>(header.users());
+        for (int i = 0; i < header.users(); i++) {
+            users.add(UserCodec.read(in, strings));
+        }
+        List<Bus> buses = new ArrayList<>(header.buses());
+        for (int i = 0; i < header.buses(); i++) {
+            buses.add(JournalCodec.readBus(in, strings));
+        }
+        List<Van> vans = new ArrayList<>(header.vans());
+        for (int i = 0; i < header.vans(); i++) {
+            vans.add(JournalCodec.readVan(in, strings));
+        }
+        List<Route> routes = new ArrayList<>(header.routes());
+        for (int i = 0; i < header.routes(); i++) {
+            routes.add(JournalCodec.readRoute(in, strings));
+        }
+        Map<String, String> assignments = new LinkedHashMap<>(capacityFor(header.driverAssignments()));
+        for (int i = 0; i < header.driverAssignments(); i++) {
+            assignments.put(strings.read(in), strings.read(in));
+        }
+        List<TransportRequest> requests = new ArrayList<>(header.pendingRequests());
+        for (int i = 0; i < header.pendingRequests(); i++) {
+            requests.add(JournalCodec.readRequest(in, strings));
+        }
+        service.restoreModel(users, buses, vans, routes, assignments, requests);
+        return header;
+    }
+    
+    private static void writeHeader(Header header, DataOutput out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(header.version());
+        out.writeLong(header.sequence());
+        out.writeLong(header.createdAt());
+        out.writeInt(header.strings());
+        out.writeInt(header.users());
+        out.writeInt(header.buses());
+        out.writeInt(header.vans());
+        out.writeInt(header.routes());
+        out.writeInt(header.driverAssignments());
+        out.writeInt(header.pendingRequests());
+    }
+    
+    private static Header readHeader(DataInput in, Path file) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a transport snapshot: " + file);
+        }
+        int version = in.readInt();
+        if (version > FORMAT_VERSION) {
+            throw new IOException("Snapshot " + file + " has format version " + version +
+                                  ", newer than the supported " + FORMAT_VERSION);
+        }
+        return new Header(version, in.readLong(), in.readLong(), in.readInt(), in.readInt(), in.readInt(),
+                          in.readInt(), in.readInt(), in.readInt(), in.readInt());
+    }
+    
+    // HashMap capacity that holds the given number of entries without rehashing
+    static int capacityFor(int entries) {
+        return (int) Math.min(1L << 30, (long) (entries / 0.75f) + 1);
+    }
+    
+    // Assigns each distinct string an index while the records are encoded
+    private static final class StringTableWriter implements StringCodec {
+        
+        private final Map<String, Integer> indexes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+        
+        @Override
+        public void write(String value, DataOutput out) throws IOException {
+            if (value == null) {
+                out.writeInt(-1);
+                return;
+            }
+            Integer index = indexes.get(value);
+            if (index == null) {
+                index = values.size();
+                indexes.put(value, index);
+                values.add(value);
+            }
+            out.writeInt(index);
+        }
+        
+        @Override
+        public String read(DataInput in) {
+            throw new UnsupportedOperationException("Write-only string table");
+        }
+        
+        int size() {
+            return values.size();
+        }
+        
+        void writeTable(DataOutput out) throws IOException {
+            for (String value : values) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+        }
+    }
+    
+    // Decodes the whole table up front; records then resolve strings by index
+    private static final class StringTableReader implements StringCodec {
+        
+        private final String[] values;
+        
+        StringTableReader(DataInput in, int count) throws IOException {
+            values = new String[count];
+            byte[] scratch = new byte[256];
+            for (int i = 0; i < count; i++) {
+                int length = in.readInt();
+                if (length > scratch.length) {
+                    scratch = new byte[Math.max(length, scratch.length * 2)];
+                }
+                in.readFully(scratch, 0, length);
+                values[i] = new String(scratch, 0, length, StandardCharsets.UTF_8);
+            }
+        }
+        
+        @Override
+        public void write(String value, DataOutput out) {
+            throw new UnsupportedOperationException("Read-only string table");
+        }
+        
+        @Override
+        public String read(DataInput in) throws IOException {
+            int index = in.readInt();
+            if (index < -1 || index >= values.length) {
+                throw new IOException("Corrupt snapshot: string index " + index);
+            }
+            return index < 0 ? null : values[index];
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package persistence;
+
+import services.Route;
+import services.TransportRequest;
+import services.TransportService;
+import user.TransportPriority;
+import user.User;
+import user.UserCodec;
+import user.UserCodec.StringCodec;
+import vehicle.Bus;
+import vehicle.ScheduledTrip;
+import vehicle.Van;
+import vehicle.VehicleStatus;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * JournalCodec class for the payload layout of each journal entry type
+ * Replaying is idempotent: every entry describes the state it leaves behind, so
+ * entries that a snapshot already reflects can be applied again safely
+ */
+final class JournalCodec {
+    
+    private JournalCodec() {
+    }
+    
+    // State kept while replaying, for entries that are not idempotent on their own
+    static final class ReplayState {
+        final Set<Long> requestIds = new HashSet<>();
+        long entries;
+    }
+    
+    // Entity payloads
+    
+    static void writeBus(Bus bus, DataOutput out, StringCodec strings) throws IOException {
+        strings.write(bus.getVehicleId(), out);
+        strings.write(bus.getModel(), out);
+        out.writeInt(bus.getCapacity());
+        strings.write(bus.getDriverName(), out);
+        strings.write(bus.getDriverLicense(), out);
+        writeVehicleState(bus.getScheduleStatus(), bus.getLastServiceDate(), bus.getLatitude(), bus.getLongitude(),
+                          bus.getDistanceTraveled(), bus.isCurrentlyTracked(), bus.getTrips(), out, strings);
+    }
+    
+    static Bus readBus(DataInput in, StringCodec strings) throws IOException {
+        Bus bus = new Bus(strings.read(in), strings.read(in), in.readInt(), strings.read(in), strings.read(in));
+        String status = strings.read(in);
+        Date lastServiceDate = readDate(in);
+        bus.restoreState(status, lastServiceDate, in.readDouble(), in.readDouble(), in.readDouble(), in.readBoolean());
+        for (ScheduledTrip trip : readTrips(in, strings)) {
+            bus.restoreTrip(trip);
+        }
+        return bus;
+    }
+    
+    static void writeVan(Van van, DataOutput out, StringCodec strings) throws IOException {
+        strings.write(van.getVehicleId(), out);
+        strings.write(van.getModel(), out);
+        out.writeInt(van.getCapacity());
+        strings.write(van.getDriverName(), out);
+        strings.write(van.getDriverLicense(), out);
+        strings.write(van.getVanType(), out);
+        out.writeBoolean(van.isSpecialPurpose());
+        writeVehicleState(van.getScheduleStatus(), van.getLastServiceDate(), van.getLatitude(), van.getLongitude(),
+                          van.getDistanceTraveled(), van.isCurrentlyTracked(), van.getTrips(), out, strings);
+    }
+    
+    static Van readVan(DataInput in, StringCodec strings) throws IOException {
+        Van van = new Van(strings.read(in), strings.read(in), in.readInt(), strings.read(in), strings.read(in),
+                          strings.read(in), in.readBoolean());
+        String status = strings.read(in);
+        Date lastServiceDate = readDate(in);
+        van.restoreState(status, lastServiceDate, in.readDouble(), in.readDouble(), in.readDouble(), in.readBoolean());
+        for (ScheduledTrip trip : readTrips(in, strings)) {
+            van.restoreTrip(trip);
+        }
+        return van;
+    }
+    
+    static void writeRoute(Route route, DataOutput out, StringCodec strings) throws IOException {
+        strings.write(route.getRouteId(), out);
+        strings.write(route.getRouteName(), out);
+        strings.write(route.getStartLocation(), out);
+        strings.write(route.getEndLocation(), out);
+        out.writeDouble(route.getTotalDistance());
+        out.writeInt(route.getEstimatedTravelTime());
+        strings.write(route.getRouteType(), out);
+        out.writeBoolean(route.isActive());
+        writeStrings(route.getStopPoints(), out, strings);
+        writeStrings(route.getAssignedVehicles(), out, strings);
+    }
+    
+    static Route readRoute(DataInput in, StringCodec strings) throws IOException {
+        Route route = new Route(strings.read(in), strings.read(in), strings.read(in), strings.read(in),
+                                in.readDouble(), in.readInt(), strings.read(in));
+        boolean active = in.readBoolean();
+        List<String> stops = readStrings(in, strings);
+        route.restoreState(stops, readStrings(in, strings), active);
+        return route;
+    }
+    
+    static void writeTrip(ScheduledTrip trip, DataOutput out, StringCodec strings) throws IOException {
+        strings.write(trip.tripId(), out);
+        strings.write(trip.route(), out);
+        out.writeLong(trip.departureTime());
+        out.writeLong(trip.arrivalTime());
+    }
+    
+    static ScheduledTrip readTrip(DataInput in, StringCodec strings) throws IOException {
+        return new ScheduledTrip(strings.read(in), strings.read(in), in.readLong(), in.readLong());
+    }
+    
+    static void writeRequest(TransportRequest request, DataOutput out, StringCodec strings) throws IOException {
+        out.writeLong(request.requestId());
+        strings.write(request.userId(), out);
+        out.writeByte(request.priority().ordinal());
+        strings.write(request.destination(), out);
+        strings.write(request.requestedTime(), out);
+        out.writeInt(request.requestedMinute());
+        out.writeInt(request.passengerCount());
+        strings.write(request.description(), out);
+        out.writeLong(request.createdAt());
+    }
+    
+    // Queue wait restarts at recovery; the time spent before the restart is not known
+    static TransportRequest readRequest(DataInput in, StringCodec strings) throws IOException {
+        return new TransportRequest(in.readLong(), strings.read(in), TransportPriority.values()[in.readByte()],
+                                    strings.read(in), strings.read(in), in.readInt(), in.readInt(), strings.read(in),
+                                    in.readLong(), System.nanoTime());
+    }
+    
+    // Replay
+    
+    static void apply(JournalEntryType type, DataInput in, TransportService service, ReplayState state)
+            throws IOException {
+        state.entries++;
+        switch (type) {
+            case USER_REGISTERED -> service.registerUser(UserCodec.read(in, UserCodec.INLINE_STRINGS));
+            case BUS_ADDED -> service.addBus(readBus(in, UserCodec.INLINE_STRINGS));
+            case VAN_ADDED -> service.addVan(readVan(in, UserCodec.INLINE_STRINGS));
+            case ROUTE_ADDED -> service.addRoute(readRoute(in, UserCodec.INLINE_STRINGS));
+            case ROUTE_STOP_ADDED -> {
+                Route route = service.getRoute(in.readUTF());
+                String stop = in.readUTF();
+                if (route != null) {
+                    route.addStopPoint(stop);
+                }
+            }
+            case ROUTE_STOP_REMOVED -> {
+                Route route = service.getRoute(in.readUTF());
+                String stop = in.readUTF();
+                if (route != null) {
+                    route.removeStopPoint(stop);
+                }
+            }
+            case ROUTE_VEHICLE_ASSIGNED -> {
+                Route route = service.getRoute(in.readUTF());
+                String vehicleId = in.readUTF();
+                if (route != null) {
+                    route.assignVehicle(vehicleId);
+                }
+            }
+            case ROUTE_VEHICLE_UNASSIGNED -> {
+                Route route = service.getRoute(in.readUTF());
+                String vehicleId = in.readUTF();
+                if (route != null) {
+                    route.unassignVehicle(vehicleId);
+                }
+            }
+            case ROUTE_ACTIVE_CHANGED -> {
+                Route route = service.getRoute(in.readUTF());
+                boolean active = in.readBoolean();
+                if (route != null) {
+                    route.setActive(active);
+                }
+            }
+            case ROUTE_TRAVEL_TIME_CHANGED -> {
+                Route route = service.getRoute(in.readUTF());
+                int minutes = in.readInt();
+                if (route != null) {
+                    route.setEstimatedTravelTime(minutes);
+                }
+            }
+            case VEHICLE_STATUS_CHANGED -> {
+                String vehicleId = in.readUTF();
+                String status = in.readUTF();
+                Bus bus = service.getBus(vehicleId);
+                Van van = service.getVan(vehicleId);
+                // Replayed as recorded; the transition was checked when it first happened
+                if (bus != null) {
+                    bus.restoreStatus(VehicleStatus.fromLabel(status));
+                } else if (van != null) {
+                    van.restoreStatus(VehicleStatus.fromLabel(status));
+                }
+            }
+            case VEHICLE_SERVICED -> {
+                String vehicleId = in.readUTF();
+                Date serviceDate = new Date(in.readLong());
+                Bus bus = service.getBus(vehicleId);
+                Van van = service.getVan(vehicleId);
+                if (bus != null) {
+                    bus.restoreLastServiceDate(serviceDate);
+                    service.getMaintenanceScheduler().register(vehicleId, bus);
+                } else if (van != null) {
+                    van.restoreLastServiceDate(serviceDate);
+                    service.getMaintenanceScheduler().register(vehicleId, van);
+                }
+            }
+            case TRIP_SCHEDULED, TRIP_UPDATED -> {
+                String vehicleId = in.readUTF();
+                ScheduledTrip trip = readTrip(in, UserCodec.INLINE_STRINGS);
+                Bus bus = service.getBus(vehicleId);
+                Van van = service.getVan(vehicleId);
+                if (bus != null) {
+                    bus.restoreTrip(trip);
+                } else if (van != null) {
+                    van.restoreTrip(trip);
+                }
+            }
+            case TRIP_CANCELLED -> {
+                String vehicleId = in.readUTF();
+                String tripId = in.readUTF();
+                Bus bus = service.getBus(vehicleId);
+                Van van = service.getVan(vehicleId);
+                if (bus != null) {
+                    bus.removeTrip(tripId);
+                } else if (van != null) {
+                    van.removeTrip(tripId);
+                }
+            }
+            case DRIVER_ASSIGNED -> service.restoreDriverAssignment(in.readUTF(), in.readUTF());
+            case REQUEST_QUEUED -> {
+                TransportRequest request = readRequest(in, UserCodec.INLINE_STRINGS);
+                if (state.requestIds.add(request.requestId())) {
+                    service.restoreTransportRequest(request);
+                }
+            }
+            case REQUESTS_TAKEN -> {
+                int count = in.readInt();
+                List<Long> requestIds = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    requestIds.add(in.readLong());
+                }
+                service.removePendingRequests(requestIds);
+            }
+        }
+    }
+    
+    // Field helpers
+    
+    private static void writeVehicleState(String status, Date lastServiceDate, double latitude, double longitude,
+                                          double distanceTraveled, boolean trackingEnabled, List<ScheduledTrip> trips,
+                                          DataOutput out, StringCodec strings) throws IOException {
+        strings.write(status, out);
+        out.writeLong(lastServiceDate != null ? lastServiceDate.getTime() : Long.MIN_VALUE);
+        out.writeDouble(latitude);
+        out.writeDouble(longitude);
+        out.writeDouble(distanceTraveled);
+        out.writeBoolean(trackingEnabled);
+        out.writeInt(trips.size());
+        for (ScheduledTrip trip : trips) {
+            writeTrip(trip, out, strings);
+        }
+    }
+    
+    private static List<ScheduledTrip> readTrips(DataInput in, StringCodec strings) throws IOException {
+        int count = in.readInt();
+        List<ScheduledTrip> trips = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            trips.add(readTrip(in, strings));
+        }
+        return trips;
+    }
+    
+    private static Date readDate(DataInput in) throws IOException {
+        long time = in.readLong();
+        return time == Long.MIN_VALUE ? null : new Date(time);
+    }
+    
+    static void writeStrings(List<String> values, DataOutput out, StringCodec strings) throws IOException {
+        out.writeInt(values.size());
+        for (String value : values) {
+            strings.write(value, out);
+        }
+    }
+    
+    static List<String> readStrings(DataInput in, StringCodec strings) throws IOException {
+        int count = in.readInt();
+        List<String> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(strings.read(in));
+        }
+        return values;
+    }
+}
@@ -0,0 +1,49 @@
+package persistence;
+
+/**
+ * JournalEntryType enum listing the mutations recorded in the journal
+ * Codes are written to disk, so existing values must never be renumbered
+ */
+public enum JournalEntryType {
+    USER_REGISTERED(1),
+    BUS_ADDED(2),
+    VAN_ADDED(3),
+    ROUTE_ADDED(4),
+    ROUTE_STOP_ADDED(5),
+    ROUTE_STOP_REMOVED(6),
+    ROUTE_VEHICLE_ASSIGNED(7),
+    ROUTE_VEHICLE_UNASSIGNED(8),
+    ROUTE_ACTIVE_CHANGED(9),
+    ROUTE_TRAVEL_TIME_CHANGED(10),
+    VEHICLE_STATUS_CHANGED(11),
+    TRIP_SCHEDULED(12),
+    TRIP_UPDATED(13),
+    TRIP_CANCELLED(14),
+    DRIVER_ASSIGNED(15),
+    REQUEST_QUEUED(16),
+    REQUESTS_TAKEN(17),
+    VEHICLE_SERVICED(18);
+    
+    private static final JournalEntryType[] BY_CODE = new JournalEntryType[32];
+    
+    static {
+        for (JournalEntryType type : values()) {
+            BY_CODE[type.code] = type;
+        }
+    }
+    
+    private final byte code;
+    
+    JournalEntryType(int code) {
+        this.code = (byte) code;
+    }
+    
+    public byte getCode() {
+        return code;
+    }
+    
+    // null for codes written by a newer version
+    public static JournalEntryType fromCode(byte code) {
+        return code > 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+    }
+}
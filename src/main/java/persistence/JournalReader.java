@@ -0,0 +1,74 @@
+package persistence;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.CRC32;
+
+/**
+ * JournalReader class for reading framed entries back from a journal or snapshot file
+ * Reading stops at the first incomplete or corrupt frame, which is where the
+ * last write before a crash was torn
+ */
+final class JournalReader {
+    
+    // Receives one decoded entry
+    @FunctionalInterface
+    interface EntryHandler {
+        void accept(JournalEntryType type, long sequence, DataInputStream payload) throws IOException;
+    }
+    
+    private JournalReader() {
+    }
+    
+    // Hands every intact entry with a sequence above afterSequence to the handler;
+    // returns the highest sequence read, or afterSequence if none
+    static long read(Path file, long afterSequence, EntryHandler handler) throws IOException {
+        long lastSequence = afterSequence;
+        CRC32 crc = new CRC32();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 64 * 1024))) {
+            while (true) {
+                int length;
+                int checksum;
+                byte code;
+                long sequence;
+                byte[] payload;
+                try {
+                    length = in.readInt();
+                    checksum = in.readInt();
+                    if (length < 0 || length > TransportJournal.MAX_PAYLOAD_BYTES) {
+                        break;
+                    }
+                    code = in.readByte();
+                    sequence = in.readLong();
+                    payload = new byte[length];
+                    in.readFully(payload);
+                } catch (EOFException e) {
+                    break;
+                }
+                crc.reset();
+                crc.update(code);
+                for (int shift = 56; shift >= 0; shift -= 8) {
+                    crc.update((int) (sequence >>> shift));
+                }
+                crc.update(payload, 0, payload.length);
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+                JournalEntryType type = JournalEntryType.fromCode(code);
+                if (type == null) {
+                    throw new IOException("Unknown journal entry type " + code + " in " + file);
+                }
+                if (sequence > afterSequence) {
+                    handler.accept(type, sequence, new DataInputStream(new ByteArrayInputStream(payload)));
+                    lastSequence = Math.max(lastSequence, sequence);
+                }
+            }
+        }
+        return lastSequence;
+    }
+}
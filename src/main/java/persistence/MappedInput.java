@@ -0,0 +1,117 @@
+package persistence;
+
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * MappedInput class reading primitives straight out of a (memory-mapped) buffer
+ * Lets the stream codecs decode a mapped file without copying it onto the heap first
+ */
+final class MappedInput implements DataInput {
+    
+    private final ByteBuffer buffer;
+    
+    MappedInput(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+    
+    @Override
+    public void readFully(byte[] bytes) throws IOException {
+        readFully(bytes, 0, bytes.length);
+    }
+    
+    @Override
+    public void readFully(byte[] bytes, int offset, int length) throws IOException {
+        if (buffer.remaining() < length) {
+            throw new EOFException();
+        }
+        buffer.get(bytes, offset, length);
+    }
+    
+    @Override
+    public int skipBytes(int count) {
+        int skipped = Math.min(count, buffer.remaining());
+        buffer.position(buffer.position() + skipped);
+        return skipped;
+    }
+    
+    @Override
+    public boolean readBoolean() throws IOException {
+        return readByte() != 0;
+    }
+    
+    @Override
+    public byte readByte() throws IOException {
+        try {
+            return buffer.get();
+        } catch (BufferUnderflowException e) {
+            throw new EOFException();
+        }
+    }
+    
+    @Override
+    public int readUnsignedByte() throws IOException {
+        return readByte() & 0xff;
+    }
+    
+    @Override
+    public short readShort() throws IOException {
+        try {
+            return buffer.getShort();
+        } catch (BufferUnderflowException e) {
+            throw new EOFException();
+        }
+    }
+    
+    @Override
+    public int readUnsignedShort() throws IOException {
+        return readShort() & 0xffff;
+    }
+    
+    @Override
+    public char readChar() throws IOException {
+        return (char) readShort();
+    }
+    
+    @Override
+    public int readInt() throws IOException {
+        try {
+            return buffer.getInt();
+        } catch (BufferUnderflowException e) {
+            throw new EOFException();
+        }
+    }
+    
+    @Override
+    public long readLong() throws IOException {
+        try {
+            return buffer.getLong();
+        } catch (BufferUnderflowException e) {
+            throw new EOFException();
+        }
+    }
+    
+    @Override
+    public float readFloat() throws IOException {
+        return Float.intBitsToFloat(readInt());
+    }
+    
+    @Override
+    public double readDouble() throws IOException {
+        return Double.longBitsToDouble(readLong());
+    }
+    
+    @Override
+    public String readLine() {
+        throw new UnsupportedOperationException("Line-based reads are not supported");
+    }
+    
+    @Override
+    public String readUTF() throws IOException {
+        return DataInputStream.readUTF(this);
+    }
+}
@@ -0,0 +1,322 @@
+package persistence;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * TransportJournal class for the append-only write-ahead journal
+ * Entries are framed as length, CRC32, type, sequence and payload, and appended to
+ * segment files named after their first sequence number. Appends only copy the
+ * frame into a buffer; a single flusher thread writes everything buffered since its
+ * last pass and forces it to disk with one fsync (group commit), so many writers
+ * share the cost of each disk flush
+ */
+public class TransportJournal implements AutoCloseable {
+    
+    static final String SEGMENT_PREFIX = "journal-";
+    static final String SEGMENT_SUFFIX = ".log";
+    
+    // length + crc + type + sequence
+    static final int FRAME_HEADER_BYTES = 4 + 4 + 1 + 8;
+    
+    // Upper bound for a single entry, so a torn length field cannot cause a huge allocation
+    static final int MAX_PAYLOAD_BYTES = 16 * 1024 * 1024;
+    
+    // Writes an entry payload into the frame buffer
+    @FunctionalInterface
+    public interface Payload {
+        void write(DataOutputStream out) throws IOException;
+    }
+    
+    // Private attributes (Encapsulation)
+    private final Path directory;
+    private final ReentrantLock lock;
+    private final Condition pendingAvailable;
+    private final Condition durable;
+    private FrameBuffer pending;
+    private FrameBuffer writing;
+    private FileChannel segment;
+    private long lastSequence;
+    private long durableSequence;
+    private boolean closed;
+    private IOException failure;
+    private final Thread flusher;
+    private final LongAdder appendedEntries;
+    private final LongAdder flushes;
+    private final LongAdder bytesWritten;
+    
+    // Constructor: starts a new segment whose first entry gets firstSequence
+    public TransportJournal(Path directory, long firstSequence) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+        this.lock = new ReentrantLock();
+        this.pendingAvailable = lock.newCondition();
+        this.durable = lock.newCondition();
+        this.pending = new FrameBuffer();
+        this.writing = new FrameBuffer();
+        this.lastSequence = firstSequence - 1;
+        this.durableSequence = lastSequence;
+        this.segment = openSegment(firstSequence);
+        this.appendedEntries = new LongAdder();
+        this.flushes = new LongAdder();
+        this.bytesWritten = new LongAdder();
+        this.flusher = new Thread(this::flushLoop, "journal-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+    
+    // Buffers one entry and returns its sequence number; it is durable once awaitDurable(sequence) returns
+    public long append(JournalEntryType type, Payload payload) {
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream(64);
+        try {
+            payload.write(new DataOutputStream(encoded));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not encode journal entry " + type, e);
+        }
+        byte[] body = encoded.toByteArray();
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Journal is closed");
+            }
+            long sequence = ++lastSequence;
+            pending.writeFrame(type, sequence, body);
+            appendedEntries.increment();
+            pendingAvailable.signal();
+            return sequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    // Blocks until the entry with this sequence, and every entry before it, is on disk
+    public void awaitDurable(long sequence) {
+        lock.lock();
+        try {
+            while (durableSequence < sequence) {
+                if (failure != null) {
+                    throw new UncheckedIOException("Journal write failed", failure);
+                }
+                if (closed && pending.size() == 0 && writing.size() == 0) {
+                    break;
+                }
+                durable.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public void awaitDurable() {
+        awaitDurable(getLastSequence());
+    }
+    
+    public long getLastSequence() {
+        lock.lock();
+        try {
+            return lastSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    // Closes the current segment once it is durable and starts a new one;
+    // returns the last sequence written to the closed segment
+    public long rotate() throws IOException {
+        lock.lock();
+        try {
+            while (durableSequence < lastSequence && failure == null) {
+                durable.awaitUninterruptibly();
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            segment.close();
+            segment = openSegment(lastSequence + 1);
+            return lastSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    // Deletes closed segments that only hold entries up to the given sequence
+    public void deleteSegmentsThrough(long sequence) throws IOException {
+        List<Path> segments = listSegments(directory);
+        for (int i = 0; i + 1 < segments.size(); i++) {
+            // A segment ends where the next one starts
+            if (firstSequence(segments.get(i + 1)) - 1 <= sequence) {
+                Files.deleteIfExists(segments.get(i));
+            }
+        }
+    }
+    
+    public long getAppendedEntries() { return appendedEntries.sum(); }
+    public long getFlushCount() { return flushes.sum(); }
+    public long getBytesWritten() { return bytesWritten.sum(); }
+    
+    // Average number of entries made durable by one fsync
+    public double getAverageBatchSize() {
+        long count = flushes.sum();
+        return count == 0 ? 0.0 : (double) appendedEntries.sum() / count;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            pendingAvailable.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        lock.lock();
+        try {
+            segment.close();
+            durable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+    
+    // Flusher thread: swaps out the buffer, writes and forces it, then wakes the waiting writers
+    private void flushLoop() {
+        while (true) {
+            FileChannel target;
+            long batchSequence;
+            lock.lock();
+            try {
+                while (pending.size() == 0 && !closed) {
+                    pendingAvailable.awaitUninterruptibly();
+                }
+                if (pending.size() == 0) {
+                    return;
+                }
+                FrameBuffer full = pending;
+                pending = writing;
+                writing = full;
+                batchSequence = lastSequence;
+                target = segment;
+            } finally {
+                lock.unlock();
+            }
+            try {
+                ByteBuffer batch = writing.asByteBuffer();
+                int bytes = batch.remaining();
+                while (batch.hasRemaining()) {
+                    target.write(batch);
+                }
+                target.force(false);
+                flushes.increment();
+                bytesWritten.add(bytes);
+            } catch (IOException e) {
+                lock.lock();
+                try {
+                    failure = e;
+                    durable.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+                return;
+            }
+            lock.lock();
+            try {
+                writing.reset();
+                durableSequence = batchSequence;
+                durable.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+    
+    private FileChannel openSegment(long firstSequence) throws IOException {
+        Path path = directory.resolve(segmentName(firstSequence));
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                StandardOpenOption.APPEND);
+    }
+    
+    static String segmentName(long firstSequence) {
+        return String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX);
+    }
+    
+    static long firstSequence(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+    
+    // Segment files in sequence order
+    static List<Path> listSegments(Path directory) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return segments;
+        }
+        try (var files = Files.list(directory)) {
+            files.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+            }).sorted().forEach(segments::add);
+        }
+        return segments;
+    }
+    
+    // Growable frame buffer that can be written without copying
+    private static final class FrameBuffer extends ByteArrayOutputStream {
+        
+        private final CRC32 crc = new CRC32();
+        
+        FrameBuffer() {
+            super(64 * 1024);
+        }
+        
+        void writeFrame(JournalEntryType type, long sequence, byte[] payload) {
+            crc.reset();
+            crc.update(type.getCode());
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                crc.update((int) (sequence >>> shift));
+            }
+            crc.update(payload, 0, payload.length);
+            writeInt(payload.length);
+            writeInt((int) crc.getValue());
+            write(type.getCode());
+            writeInt((int) (sequence >>> 32));
+            writeInt((int) sequence);
+            write(payload, 0, payload.length);
+        }
+        
+        private void writeInt(int value) {
+            write(value >>> 24);
+            write(value >>> 16);
+            write(value >>> 8);
+            write(value);
+        }
+        
+        ByteBuffer asByteBuffer() {
+            return ByteBuffer.wrap(buf, 0, count);
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package persistence;
+
+import services.Route;
+import services.ServiceJournal;
+import services.TransportRequest;
+import services.TransportService;
+import user.User;
+import user.UserCodec;
+import vehicle.Bus;
+import vehicle.ScheduledTrip;
+import vehicle.Van;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TransportPersistence class keeping TransportService state on disk
+ * Every mutation is appended to a write-ahead journal before the service call
+ * returns. Snapshots periodically rewrite the whole model as one FleetSnapshot file,
+ * after which older journal segments are deleted, so recovery loads the latest
+ * snapshot and replays only the journal written since.
+ * Requests taken by dispatch workers are journaled without waiting for the disk,
+ * so a request dispatched just before a crash can be queued again on recovery
+ */
+public class TransportPersistence implements ServiceJournal, AutoCloseable {
+    
+    static final String SNAPSHOT_PREFIX = "snapshot-";
+    static final String SNAPSHOT_SUFFIX = ".snap";
+    
+    // Private attributes (Encapsulation)
+    private final Path directory;
+    private final TransportService service;
+    private final TransportJournal journal;
+    private final ScheduledExecutorService snapshotScheduler;
+    private final long recoveredEntries;
+    private volatile long lastSnapshotSequence;
+    
+    private TransportPersistence(Path directory, TransportService service, TransportJournal journal,
+                                 long recoveredEntries, long lastSnapshotSequence) {
+        this.directory = directory;
+        this.service = service;
+        this.journal = journal;
+        this.recoveredEntries = recoveredEntries;
+        this.lastSnapshotSequence = lastSnapshotSequence;
+        this.snapshotScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "journal-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    // Recovers the service from the directory, then journals every later change to it;
+    // snapshots are taken every snapshotInterval, or only on request when it is zero
+    public static TransportPersistence open(Path directory, TransportService service,
+                                            long snapshotInterval, TimeUnit unit) throws IOException {
+        Files.createDirectories(directory);
+        JournalCodec.ReplayState state = new JournalCodec.ReplayState();
+        
+        // Latest complete snapshot first, then the journal written after it
+        long snapshotSequence = 0;
+        Path snapshot = latestSnapshot(directory);
+        if (snapshot != null) {
+            FleetSnapshot.Header header = FleetSnapshot.loadInto(snapshot, service);
+            snapshotSequence = header.sequence();
+            state.entries += header.users() + header.buses() + header.vans() + header.routes() +
+                             header.driverAssignments() + header.pendingRequests();
+            for (TransportRequest request : service.getRequestQueue().snapshot()) {
+                state.requestIds.add(request.requestId());
+            }
+        }
+        long lastSequence = snapshotSequence;
+        for (Path segment : TransportJournal.listSegments(directory)) {
+            lastSequence = Math.max(lastSequence, JournalReader.read(segment, lastSequence,
+                    (type, sequence, payload) -> JournalCodec.apply(type, payload, service, state)));
+        }
+        
+        TransportJournal journal = new TransportJournal(directory, lastSequence + 1);
+        TransportPersistence persistence = new TransportPersistence(directory, service, journal,
+                                                                    state.entries, snapshotSequence);
+        service.setJournal(persistence);
+        if (snapshotInterval > 0) {
+            persistence.snapshotScheduler.scheduleWithFixedDelay(persistence::snapshotQuietly,
+                                                                 snapshotInterval, snapshotInterval, unit);
+        }
+        System.out.println("Transport state recovered from " + directory + " (" + state.entries + " entries)");
+        return persistence;
+    }
+    
+    // Writes a compacted snapshot of the whole service, then drops the journal it replaces.
+    // Mutations may continue meanwhile: the snapshot can include changes made after its
+    // sequence number, and replaying those journal entries again leaves the same state
+    public synchronized long snapshot() throws IOException {
+        long sequence = journal.rotate();
+        FleetSnapshot.write(service, sequence, directory.resolve(snapshotName(sequence)));
+        
+        journal.deleteSegmentsThrough(sequence);
+        for (Path older : listSnapshots(directory)) {
+            if (snapshotSequence(older) < sequence) {
+                Files.deleteIfExists(older);
+            }
+        }
+        lastSnapshotSequence = sequence;
+        return sequence;
+    }
+    
+    public long getRecoveredEntries() {
+        return recoveredEntries;
+    }
+    
+    public long getLastSnapshotSequence() {
+        return lastSnapshotSequence;
+    }
+    
+    public TransportJournal getJournal() {
+        return journal;
+    }
+    
+    public String getPersistenceStatus() {
+        return String.format("Journal: %d entries, %d flushes (%.1f entries/fsync), last snapshot at %d",
+                             journal.getAppendedEntries(), journal.getFlushCount(),
+                             journal.getAverageBatchSize(), lastSnapshotSequence);
+    }
+    
+    @Override
+    public void close() throws IOException {
+        snapshotScheduler.shutdownNow();
+        service.setJournal(null);
+        journal.close();
+    }
+    
+    // ServiceJournal: each change becomes one journal entry
+    
+    @Override
+    public void userRegistered(User user) {
+        journal.append(JournalEntryType.USER_REGISTERED, out -> UserCodec.write(user, out, UserCodec.INLINE_STRINGS));
+    }
+    
+    @Override
+    public void busAdded(Bus bus) {
+        journal.append(JournalEntryType.BUS_ADDED, out -> JournalCodec.writeBus(bus, out, UserCodec.INLINE_STRINGS));
+    }
+    
+    @Override
+    public void vanAdded(Van van) {
+        journal.append(JournalEntryType.VAN_ADDED, out -> JournalCodec.writeVan(van, out, UserCodec.INLINE_STRINGS));
+    }
+    
+    @Override
+    public void routeAdded(Route route) {
+        journal.append(JournalEntryType.ROUTE_ADDED, out -> JournalCodec.writeRoute(route, out, UserCodec.INLINE_STRINGS));
+    }
+    
+    @Override
+    public void routeStopAdded(String routeId, String stopPoint) {
+        appendPair(JournalEntryType.ROUTE_STOP_ADDED, routeId, stopPoint);
+    }
+    
+    @Override
+    public void routeStopRemoved(String routeId, String stopPoint) {
+        appendPair(JournalEntryType.ROUTE_STOP_REMOVED, routeId, stopPoint);
+    }
+    
+    @Override
+    public void routeVehicleAssigned(String routeId, String vehicleId) {
+        appendPair(JournalEntryType.ROUTE_VEHICLE_ASSIGNED, routeId, vehicleId);
+    }
+    
+    @Override
+    public void routeVehicleUnassigned(String routeId, String vehicleId) {
+        appendPair(JournalEntryType.ROUTE_VEHICLE_UNASSIGNED, routeId, vehicleId);
+    }
+    
+    @Override
+    public void routeActiveChanged(String routeId, boolean active) {
+        journal.append(JournalEntryType.ROUTE_ACTIVE_CHANGED, out -> {
+            out.writeUTF(routeId);
+            out.writeBoolean(active);
+        });
+    }
+    
+    @Override
+    public void routeTravelTimeChanged(String routeId, int estimatedTravelTime) {
+        journal.append(JournalEntryType.ROUTE_TRAVEL_TIME_CHANGED, out -> {
+            out.writeUTF(routeId);
+            out.writeInt(estimatedTravelTime);
+        });
+    }
+    
+    @Override
+    public void vehicleStatusChanged(String vehicleId, String status) {
+        appendPair(JournalEntryType.VEHICLE_STATUS_CHANGED, vehicleId, status);
+    }
+    
+    @Override
+    public void vehicleServiced(String vehicleId, long serviceTime) {
+        journal.append(JournalEntryType.VEHICLE_SERVICED, out -> {
+            out.writeUTF(vehicleId);
+            out.writeLong(serviceTime);
+        });
+    }
+    
+    @Override
+    public void tripScheduled(String vehicleId, ScheduledTrip trip) {
+        appendTrip(JournalEntryType.TRIP_SCHEDULED, vehicleId, trip);
+    }
+    
+    @Override
+    public void tripUpdated(String vehicleId, ScheduledTrip trip) {
+        appendTrip(JournalEntryType.TRIP_UPDATED, vehicleId, trip);
+    }
+    
+    @Override
+    public void tripCancelled(String vehicleId, String tripId) {
+        appendPair(JournalEntryType.TRIP_CANCELLED, vehicleId, tripId);
+    }
+    
+    @Override
+    public void driverAssigned(String key, String driver) {
+        appendPair(JournalEntryType.DRIVER_ASSIGNED, key, driver);
+    }
+    
+    @Override
+    public void requestQueued(TransportRequest request) {
+        journal.append(JournalEntryType.REQUEST_QUEUED, out -> JournalCodec.writeRequest(request, out, UserCodec.INLINE_STRINGS));
+    }
+    
+    @Override
+    public void requestsTaken(List<Long> requestIds) {
+        if (requestIds.isEmpty()) {
+            return;
+        }
+        journal.append(JournalEntryType.REQUESTS_TAKEN, out -> {
+            out.writeInt(requestIds.size());
+            for (long requestId : requestIds) {
+                out.writeLong(requestId);
+            }
+        });
+    }
+    
+    @Override
+    public void commit() {
+        journal.awaitDurable();
+    }
+    
+    private void appendPair(JournalEntryType type, String first, String second) {
+        journal.append(type, out -> {
+            out.writeUTF(first);
+            out.writeUTF(second);
+        });
+    }
+    
+    private void appendTrip(JournalEntryType type, String vehicleId, ScheduledTrip trip) {
+        journal.append(type, out -> {
+            out.writeUTF(vehicleId);
+            JournalCodec.writeTrip(trip, out, UserCodec.INLINE_STRINGS);
+        });
+    }
+    
+    // Snapshot files
+    
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (IOException | UncheckedIOException e) {
+            System.out.println("Snapshot failed: " + e.getMessage());
+        }
+    }
+    
+    static String snapshotName(long sequence) {
+        return String.format("%s%020d%s", SNAPSHOT_PREFIX, sequence, SNAPSHOT_SUFFIX);
+    }
+    
+    static long snapshotSequence(Path snapshot) {
+        String name = snapshot.getFileName().toString();
+        return Long.parseLong(name.substring(SNAPSHOT_PREFIX.length(), name.length() - SNAPSHOT_SUFFIX.length()));
+    }
+    
+    // Completed snapshot files in sequence order; unfinished .tmp files are ignored
+    static List<Path> listSnapshots(Path directory) throws IOException {
+        List<Path> snapshots = new ArrayList<>();
+        try (var files = Files.list(directory)) {
+            files.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(SNAPSHOT_PREFIX) && name.endsWith(SNAPSHOT_SUFFIX);
+            }).sorted().forEach(snapshots::add);
+        }
+        return snapshots;
+    }
+    
+    private static Path latestSnapshot(Path directory) throws IOException {
+        List<Path> snapshots = listSnapshots(directory);
+        return snapshots.isEmpty() ? null : snapshots.get(snapshots.size() - 1);
+    }
+}
@@ -0,0 +1,267 @@
+package server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import services.EmergencyDispatch;
+import services.SpatialIndex;
+import services.TransportService;
+import vehicle.VehicleStatus;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * TransportHttpServer class exposing TransportService operations as JSON endpoints
+ * Runs on the JDK's built-in HTTP server with one virtual thread per request.
+ * Parameters are read from the query string and from form-encoded request bodies.
+ * The endpoints have no authentication, so the server listens on the loopback
+ * interface unless it is given another bind address
+ */
+public class TransportHttpServer {
+    
+    public static final int DEFAULT_PORT = 8080;
+    private static final int DEFAULT_BACKLOG = 4096;
+    
+    // Private attributes (Encapsulation)
+    private final TransportService transportService;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    
+    // Constructors
+    public TransportHttpServer(TransportService transportService, int port) throws IOException {
+        this(transportService, InetAddress.getLoopbackAddress(), port);
+    }
+    
+    // Binding to a wildcard or external address exposes every endpoint to that network
+    public TransportHttpServer(TransportService transportService, InetAddress bindAddress, int port) throws IOException {
+        this.transportService = transportService;
+        this.server = HttpServer.create(new InetSocketAddress(bindAddress, port), DEFAULT_BACKLOG);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext("/api/requests", endpoint("POST", this::processTransportRequest));
+        server.createContext("/api/vehicles/best", endpoint("GET", this::findBestVehicle));
+        server.createContext("/api/vehicles/status", endpoint("POST", this::updateVehicleStatus));
+        server.createContext("/api/schedule", endpoint("POST", this::scheduleTransport));
+        server.createContext("/api/emergency", endpoint("POST", this::handleEmergencyTransport));
+        server.createContext("/api/statistics", endpoint("GET", this::getServiceStatistics));
+        server.createContext("/metrics", this::scrapeMetrics);
+    }
+    
+    public void start() {
+        server.start();
+        System.out.println("Transport HTTP server listening on " + server.getAddress().getAddress().getHostAddress()
+                           + " port " + getPort());
+    }
+    
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.close();
+    }
+    
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+    
+    // Endpoint handlers
+    private Map<String, Object> processTransportRequest(Map<String, String> params) {
+        int passengers = params.containsKey("passengers") ? requiredInt(params, "passengers") : 1;
+        return result(transportService.processTransportRequest(
+                required(params, "userId"), required(params, "destination"), required(params, "time"), passengers));
+    }
+    
+    private Map<String, Object> findBestVehicle(Map<String, String> params) {
+        return result(transportService.findBestVehicle(
+                required(params, "routeId"), requiredInt(params, "passengers")));
+    }
+    
+    // status is a label such as "In Trip" or a constant name such as IN_TRIP
+    private Map<String, Object> updateVehicleStatus(Map<String, String> params) {
+        return result(transportService.updateVehicleStatus(
+                required(params, "vehicleId"), VehicleStatus.fromLabel(required(params, "status"))));
+    }
+    
+    private Map<String, Object> scheduleTransport(Map<String, String> params) {
+        return result(transportService.scheduleTransport(
+                required(params, "vehicleId"), required(params, "routeId"),
+                requiredDate(params, "departure"), requiredDate(params, "arrival")));
+    }
+    
+    // nearestVehicles are the candidates the service chose from, with the claimed one marked
+    private Map<String, Object> handleEmergencyTransport(Map<String, String> params) {
+        String userId = required(params, "userId");
+        String destination = required(params, "destination");
+        String emergencyType = required(params, "emergencyType");
+        if (!params.containsKey("latitude") && !params.containsKey("longitude")) {
+            EmergencyDispatch dispatch = transportService.dispatchEmergency(userId, destination, emergencyType);
+            Map<String, Object> response = result(dispatch.message());
+            response.put("vehicleId", dispatch.vehicleId());
+            return response;
+        }
+        double latitude = requiredDouble(params, "latitude");
+        double longitude = requiredDouble(params, "longitude");
+        EmergencyDispatch dispatch = transportService.dispatchEmergency(
+                userId, destination, emergencyType, latitude, longitude);
+        Map<String, Object> response = result(dispatch.message());
+        response.put("vehicleId", dispatch.vehicleId());
+        List<Object> nearest = new ArrayList<>();
+        for (SpatialIndex.Neighbor neighbor : dispatch.candidates()) {
+            Map<String, Object> vehicle = new LinkedHashMap<>();
+            vehicle.put("vehicleId", neighbor.vehicleId());
+            vehicle.put("distanceKm", neighbor.distanceKm());
+            vehicle.put("assigned", neighbor.vehicleId().equals(dispatch.vehicleId()));
+            nearest.add(vehicle);
+        }
+        response.put("nearestVehicles", nearest);
+        return response;
+    }
+    
+    private Map<String, Object> getServiceStatistics(Map<String, String> params) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("statistics", transportService.getServiceStatistics());
+        response.put("availableVehicles", transportService.getAvailableVehicles());
+        response.put("operationLatency", transportService.getOperationLatencies());
+        return response;
+    }
+    
+    // Prometheus text exposition of the service metrics
+    private void scrapeMetrics(HttpExchange exchange) throws IOException {
+        try {
+            if (!exchange.getRequestMethod().equalsIgnoreCase("GET")) {
+                exchange.getResponseHeaders().set("Allow", "GET");
+                send(exchange, 405, error("Use GET for " + exchange.getRequestURI().getPath()));
+                return;
+            }
+            byte[] bytes = transportService.getMetrics().scrape().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+    
+    // Request plumbing
+    private interface Endpoint {
+        Map<String, Object> handle(Map<String, String> params);
+    }
+    
+    private HttpHandler endpoint(String method, Endpoint endpoint) {
+        return exchange -> {
+            try {
+                if (!exchange.getRequestMethod().equalsIgnoreCase(method)) {
+                    exchange.getResponseHeaders().set("Allow", method);
+                    send(exchange, 405, error("Use " + method + " for " + exchange.getRequestURI().getPath()));
+                    return;
+                }
+                Map<String, String> params = readParameters(exchange);
+                send(exchange, 200, endpoint.handle(params));
+            } catch (IllegalArgumentException e) {
+                send(exchange, 400, error(e.getMessage()));
+            } catch (RuntimeException e) {
+                send(exchange, 500, error("Internal error: " + e.getMessage()));
+            } finally {
+                exchange.close();
+            }
+        };
+    }
+    
+    private static Map<String, String> readParameters(HttpExchange exchange) throws IOException {
+        Map<String, String> params = new HashMap<>();
+        parseForm(exchange.getRequestURI().getRawQuery(), params);
+        try (InputStream body = exchange.getRequestBody()) {
+            parseForm(new String(body.readAllBytes(), StandardCharsets.UTF_8), params);
+        }
+        return params;
+    }
+    
+    private static void parseForm(String encoded, Map<String, String> params) {
+        if (encoded == null || encoded.isBlank()) {
+            return;
+        }
+        for (String pair : encoded.split("&")) {
+            int separator = pair.indexOf('=');
+            String key = separator < 0 ? pair : pair.substring(0, separator);
+            String value = separator < 0 ? "" : pair.substring(separator + 1);
+            params.put(URLDecoder.decode(key, StandardCharsets.UTF_8).trim(),
+                       URLDecoder.decode(value, StandardCharsets.UTF_8).trim());
+        }
+    }
+    
+    private static void send(HttpExchange exchange, int status, Map<String, Object> body) throws IOException {
+        byte[] bytes = Json.write(body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+    
+    private static Map<String, Object> result(String message) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("result", message);
+        return response;
+    }
+    
+    private static Map<String, Object> error(String message) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("error", message);
+        return response;
+    }
+    
+    // Parameter helpers; failures surface as 400 responses
+    private static String required(Map<String, String> params, String name) {
+        String value = params.get(name);
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("Missing parameter: " + name);
+        }
+        return value;
+    }
+    
+    private static int requiredInt(Map<String, String> params, String name) {
+        try {
+            return Integer.parseInt(required(params, name));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Parameter " + name + " must be an integer");
+        }
+    }
+    
+    private static double requiredDouble(Map<String, String> params, String name) {
+        try {
+            return Double.parseDouble(required(params, name));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Parameter " + name + " must be a number");
+        }
+    }
+    
+    // Accepts epoch milliseconds or an ISO-8601 instant such as 2025-09-01T08:00:00Z
+    private static Date requiredDate(Map<String, String> params, String name) {
+        String value = required(params, name);
+        try {
+            return new Date(Long.parseLong(value));
+        } catch (NumberFormatException notEpoch) {
+            try {
+                return Date.from(Instant.parse(value));
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Parameter " + name + " must be epoch millis or an ISO-8601 instant");
+            }
+        }
+    }
+}
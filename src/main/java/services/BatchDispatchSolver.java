@@ -0,0 +1,209 @@
+package services;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * BatchDispatchSolver class assigning a window of requests to vehicle seats in one pass
+ * Parties are grouped by route and packed best-fit decreasing: larger groups are placed
+ * first, each into the open vehicle with the fewest seats left that still fits, and a
+ * new vehicle is opened only when none does (the smallest one that fits). Routes are
+ * solved in parallel on their own assigned vehicles; leftovers are then packed into the
+ * shared pool of vehicles that no route with demand claims
+ */
+public class BatchDispatchSolver {
+    
+    private static final Comparator<FleetIndex.Entry> BY_CAPACITY =
+            Comparator.comparingInt(FleetIndex.Entry::capacity).thenComparing(FleetIndex.Entry::vehicleId);
+    
+    // Private attributes (Encapsulation)
+    private final TransportService transportService;
+    
+    // Constructor
+    public BatchDispatchSolver(TransportService transportService) {
+        this.transportService = transportService;
+    }
+    
+    public DispatchPlan solve(List<TransportRequest> window) {
+        List<FleetIndex.Entry> available = transportService.getFleetIndex().getAvailableVehicles();
+        List<TransportRequest> unrouted = new ArrayList<>();
+        Map<Route, List<TransportRequest>> demand = groupByRoute(window, unrouted);
+        
+        // Vehicles already assigned to a route with demand serve that route; the rest form a shared pool
+        Map<String, FleetIndex.Entry> unclaimed = new LinkedHashMap<>();
+        for (FleetIndex.Entry vehicle : available) {
+            unclaimed.put(vehicle.vehicleId(), vehicle);
+        }
+        Map<Route, NavigableSet<FleetIndex.Entry>> routeVehicles = new LinkedHashMap<>();
+        for (Route route : demand.keySet()) {
+            NavigableSet<FleetIndex.Entry> own = new TreeSet<>(BY_CAPACITY);
+            for (String vehicleId : route.getAssignedVehicles()) {
+                FleetIndex.Entry vehicle = unclaimed.remove(vehicleId);
+                if (vehicle != null) {
+                    own.add(vehicle);
+                }
+            }
+            routeVehicles.put(route, own);
+        }
+        
+        // Phase 1: each route packs onto its own vehicles, in parallel
+        Map<Route, RoutePacking> packings = new ConcurrentHashMap<>();
+        demand.entrySet().parallelStream().forEach(entry -> {
+            RoutePacking packing = new RoutePacking(entry.getKey());
+            packing.pack(entry.getValue(), routeVehicles.get(entry.getKey()));
+            packings.put(entry.getKey(), packing);
+        });
+        
+        // Phase 2: leftovers from every route share the unclaimed pool
+        NavigableSet<FleetIndex.Entry> pool = new TreeSet<>(BY_CAPACITY);
+        pool.addAll(unclaimed.values());
+        for (Route route : demand.keySet()) {
+            RoutePacking packing = packings.get(route);
+            List<TransportRequest> leftovers = packing.leftovers;
+            packing.leftovers = new ArrayList<>();
+            packing.pack(leftovers, pool);
+        }
+        
+        // Collect the plan
+        List<RequestAssignment> assignments = new ArrayList<>();
+        Map<String, Integer> seatsUsed = new LinkedHashMap<>();
+        int seatsOffered = 0;
+        int passengers = 0;
+        int unassigned = unrouted.size();
+        for (TransportRequest request : unrouted) {
+            assignments.add(new RequestAssignment(request, null, null, 0));
+        }
+        for (Route route : demand.keySet()) {
+            RoutePacking packing = packings.get(route);
+            assignments.addAll(packing.assignments);
+            unassigned += packing.leftovers.size();
+            for (TransportRequest request : packing.leftovers) {
+                assignments.add(new RequestAssignment(request, packing.route.getRouteId(), null, 0));
+            }
+            for (OpenVehicle vehicle : packing.opened) {
+                seatsUsed.put(vehicle.entry.vehicleId(), vehicle.entry.capacity() - vehicle.remaining);
+                seatsOffered += vehicle.entry.capacity();
+                passengers += vehicle.entry.capacity() - vehicle.remaining;
+            }
+        }
+        DispatchPlan.Outcome optimised = new DispatchPlan.Outcome(passengers, seatsOffered, seatsUsed.size(), unassigned);
+        return new DispatchPlan(assignments, seatsUsed, optimised, firstFit(window, demand));
+    }
+    
+    // Baseline: each request, in arrival order, takes the first free vehicle that fits (buses before vans)
+    private DispatchPlan.Outcome firstFit(List<TransportRequest> window, Map<Route, List<TransportRequest>> demand) {
+        List<FleetIndex.Entry> free = new ArrayList<>(transportService.getFleetIndex().getAvailableVehicles());
+        free.sort(Comparator.comparing((FleetIndex.Entry vehicle) -> !vehicle.vehicleType().equals("Bus")));
+        List<TransportRequest> routed = new ArrayList<>();
+        for (List<TransportRequest> requests : demand.values()) {
+            routed.addAll(requests);
+        }
+        routed.sort(Comparator.comparingLong(TransportRequest::requestId));
+        
+        int passengers = 0;
+        int seatsOffered = 0;
+        int vehiclesUsed = 0;
+        for (TransportRequest request : routed) {
+            for (int i = 0; i < free.size(); i++) {
+                FleetIndex.Entry vehicle = free.get(i);
+                if (vehicle.capacity() >= request.passengerCount()) {
+                    free.remove(i);
+                    passengers += request.passengerCount();
+                    seatsOffered += vehicle.capacity();
+                    vehiclesUsed++;
+                    break;
+                }
+            }
+        }
+        return new DispatchPlan.Outcome(passengers, seatsOffered, vehiclesUsed, window.size() - vehiclesUsed);
+    }
+    
+    private Map<Route, List<TransportRequest>> groupByRoute(List<TransportRequest> window, List<TransportRequest> unrouted) {
+        Map<Route, List<TransportRequest>> demand = new LinkedHashMap<>();
+        Map<String, Route> routeByDestination = new HashMap<>();
+        for (TransportRequest request : window) {
+            Route route = routeByDestination.computeIfAbsent(request.destination(), transportService::findRouteServing);
+            if (route == null) {
+                unrouted.add(request);
+            } else {
+                demand.computeIfAbsent(route, r -> new ArrayList<>()).add(request);
+            }
+        }
+        return demand;
+    }
+    
+    // Vehicle opened for one route, with the seats still free
+    private static final class OpenVehicle {
+        private final FleetIndex.Entry entry;
+        private int remaining;
+        
+        OpenVehicle(FleetIndex.Entry entry) {
+            this.entry = entry;
+            this.remaining = entry.capacity();
+        }
+    }
+    
+    // Best-fit decreasing packing state for one route
+    private static final class RoutePacking {
+        private final Route route;
+        private final List<OpenVehicle> opened;
+        private final TreeMap<Integer, List<OpenVehicle>> byRemaining;
+        private final List<RequestAssignment> assignments;
+        private List<TransportRequest> leftovers;
+        
+        RoutePacking(Route route) {
+            this.route = route;
+            this.opened = new ArrayList<>();
+            this.byRemaining = new TreeMap<>();
+            this.assignments = new ArrayList<>();
+            this.leftovers = new ArrayList<>();
+        }
+        
+        // Packs the parties onto already opened vehicles, opening new ones from the candidates as needed
+        void pack(List<TransportRequest> parties, NavigableSet<FleetIndex.Entry> candidates) {
+            List<TransportRequest> sorted = new ArrayList<>(parties);
+            sorted.sort(Comparator.comparingInt(TransportRequest::passengerCount).reversed()
+                                  .thenComparingLong(TransportRequest::requestId));
+            for (TransportRequest party : sorted) {
+                OpenVehicle vehicle = bestOpenVehicle(party.passengerCount());
+                if (vehicle == null) {
+                    FleetIndex.Entry candidate = candidates.ceiling(
+                            new FleetIndex.Entry("", "", party.passengerCount()));
+                    if (candidate == null) {
+                        leftovers.add(party);
+                        continue;
+                    }
+                    candidates.remove(candidate);
+                    vehicle = new OpenVehicle(candidate);
+                    opened.add(vehicle);
+                } else {
+                    unindex(vehicle);
+                }
+                vehicle.remaining -= party.passengerCount();
+                byRemaining.computeIfAbsent(vehicle.remaining, r -> new ArrayList<>()).add(vehicle);
+                assignments.add(new RequestAssignment(party, route.getRouteId(), vehicle.entry.vehicleId(), 0));
+            }
+        }
+        
+        private OpenVehicle bestOpenVehicle(int seats) {
+            Map.Entry<Integer, List<OpenVehicle>> fit = byRemaining.ceilingEntry(seats);
+            return fit == null ? null : fit.getValue().get(fit.getValue().size() - 1);
+        }
+        
+        private void unindex(OpenVehicle vehicle) {
+            List<OpenVehicle> bucket = byRemaining.get(vehicle.remaining);
+            bucket.remove(bucket.size() - 1);
+            if (bucket.isEmpty()) {
+                byRemaining.remove(vehicle.remaining);
+            }
+        }
+    }
+}
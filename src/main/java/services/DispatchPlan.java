@@ -0,0 +1,30 @@
+package services;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DispatchPlan record holding the result of one batch dispatch
+ * The first-fit outcome reports the same window dispatched one request per vehicle
+ * in arrival order, so the two utilisation figures can be compared directly
+ */
+public record DispatchPlan(List<RequestAssignment> assignments, Map<String, Integer> seatsUsedByVehicle,
+                           Outcome optimised, Outcome firstFit) {
+    
+    // Totals for one way of dispatching the window
+    public record Outcome(int passengers, int seatsOffered, int vehiclesUsed, int unassigned) {
+        
+        // Passengers carried divided by the seats of the vehicles used
+        public double utilisation() {
+            return seatsOffered == 0 ? 0.0 : (double) passengers / seatsOffered;
+        }
+    }
+    
+    public String getSummary() {
+        return String.format("Batch dispatch of %d requests: %d vehicles, %d unassigned, utilisation %.1f%% " +
+                             "(first-fit: %d vehicles, %d unassigned, utilisation %.1f%%)",
+                             assignments.size(), optimised.vehiclesUsed(), optimised.unassigned(),
+                             optimised.utilisation() * 100, firstFit.vehiclesUsed(), firstFit.unassigned(),
+                             firstFit.utilisation() * 100);
+    }
+}
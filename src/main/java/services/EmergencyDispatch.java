@@ -0,0 +1,20 @@
+package services;
+
+import java.util.List;
+
+/**
+ * EmergencyDispatch record describing how an emergency request was served
+ * vehicleId is the vehicle claimed for the emergency, or null when none could be.
+ * candidates are the nearby vehicles the decision was made from, closest first;
+ * empty when the caller gave no position
+ */
+public record EmergencyDispatch(String vehicleId, List<SpatialIndex.Neighbor> candidates, String message) {
+    
+    public EmergencyDispatch {
+        candidates = List.copyOf(candidates);
+    }
+    
+    public boolean isArranged() {
+        return vehicleId != null;
+    }
+}
@@ -0,0 +1,194 @@
+package services;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * FleetIndex class keeping available buses and vans sorted by capacity
+ * "Smallest available vehicle with capacity >= n" is a ceiling lookup in O(log n)
+ * Lock-free: backed by a concurrent map and a concurrent skip-list set
+ * Entries are keyed by vehicle id alone, so a bus and a van cannot share an id
+ * The version goes up after every change to the fleet or its availability, so
+ * readers can tell whether a view they built earlier is still current.
+ * An immutable availability snapshot is patched on every change, so reading it is O(1)
+ */
+public class FleetIndex {
+    
+    // Index entry for one vehicle of either type
+    public record Entry(String vehicleType, String vehicleId, int capacity) {
+        
+        // Line shown in availability listings
+        public String label() {
+            return vehicleType + ": " + vehicleId + " (Capacity: " + capacity + ")";
+        }
+    }
+    
+    // Available entries in capacity order with their labels; arrays are never written once published
+    private record Availability(Entry[] entries, String[] labels, List<Entry> entryView, List<String> labelView) {
+        
+        static Availability of(Entry[] entries, String[] labels) {
+            return new Availability(entries, labels, Collections.unmodifiableList(Arrays.asList(entries)),
+                                    Collections.unmodifiableList(Arrays.asList(labels)));
+        }
+    }
+    
+    private static final Comparator<Entry> BY_CAPACITY =
+            Comparator.comparingInt(Entry::capacity).thenComparing(Entry::vehicleId);
+    
+    // Private attributes (Encapsulation)
+    private final Map<String, Entry> vehicles;
+    private final NavigableSet<Entry> available;
+    private final AtomicInteger availableCount;
+    private final AtomicLong version;
+    private final Object availabilityLock;
+    private volatile Availability availability;
+    
+    // Constructor
+    public FleetIndex() {
+        this.vehicles = new ConcurrentHashMap<>();
+        this.available = new ConcurrentSkipListSet<>(BY_CAPACITY);
+        this.availableCount = new AtomicInteger();
+        this.version = new AtomicLong();
+        this.availabilityLock = new Object();
+        this.availability = Availability.of(new Entry[0], new String[0]);
+    }
+    
+    // Adds or replaces a vehicle; an id already held by a vehicle of the other type is refused
+    public void add(String vehicleType, String vehicleId, int capacity, boolean isAvailable) {
+        Entry entry = new Entry(vehicleType, vehicleId, capacity);
+        Entry previous;
+        do {
+            previous = vehicles.get(vehicleId);
+            if (previous != null && !previous.vehicleType().equals(vehicleType)) {
+                throw new IllegalArgumentException("Vehicle id " + vehicleId + " is already used by a " +
+                                                   previous.vehicleType().toLowerCase());
+            }
+        } while (previous == null ? vehicles.putIfAbsent(vehicleId, entry) != null
+                                  : !vehicles.replace(vehicleId, previous, entry));
+        if (previous != null && available.remove(previous)) {
+            availableCount.decrementAndGet();
+        }
+        if (isAvailable && available.add(entry)) {
+            availableCount.incrementAndGet();
+        }
+        if (previous != null) {
+            syncAvailability(previous);
+        }
+        syncAvailability(entry);
+        version.incrementAndGet();
+    }
+    
+    public void remove(String vehicleId) {
+        Entry entry = vehicles.remove(vehicleId);
+        if (entry == null) {
+            return;
+        }
+        if (available.remove(entry)) {
+            availableCount.decrementAndGet();
+        }
+        syncAvailability(entry);
+        version.incrementAndGet();
+    }
+    
+    public void setAvailable(String vehicleId, boolean isAvailable) {
+        Entry entry = vehicles.get(vehicleId);
+        if (entry == null) {
+            return;
+        }
+        if (isAvailable) {
+            if (available.add(entry)) {
+                availableCount.incrementAndGet();
+                syncAvailability(entry);
+                version.incrementAndGet();
+            }
+        } else if (available.remove(entry)) {
+            availableCount.decrementAndGet();
+            syncAvailability(entry);
+            version.incrementAndGet();
+        }
+    }
+    
+    // Patches the snapshot so the entry is listed exactly when the set holds it. Racing updates
+    // of one entry each sync after their own change, and the last to sync sees the final state
+    private void syncAvailability(Entry entry) {
+        synchronized (availabilityLock) {
+            Availability current = availability;
+            Entry[] entries = current.entries();
+            int index = Arrays.binarySearch(entries, entry, BY_CAPACITY);
+            boolean listed = index >= 0 && entries[index].equals(entry);
+            boolean held = available.contains(entry) && entry.equals(vehicles.get(entry.vehicleId()));
+            if (listed == held) {
+                return;
+            }
+            int length = entries.length;
+            String[] labels = current.labels();
+            Entry[] nextEntries;
+            String[] nextLabels;
+            if (held) {
+                int at = -index - 1;
+                nextEntries = new Entry[length + 1];
+                nextLabels = new String[length + 1];
+                System.arraycopy(entries, 0, nextEntries, 0, at);
+                System.arraycopy(entries, at, nextEntries, at + 1, length - at);
+                nextEntries[at] = entry;
+                System.arraycopy(labels, 0, nextLabels, 0, at);
+                System.arraycopy(labels, at, nextLabels, at + 1, length - at);
+                nextLabels[at] = entry.label();
+            } else {
+                nextEntries = new Entry[length - 1];
+                nextLabels = new String[length - 1];
+                System.arraycopy(entries, 0, nextEntries, 0, index);
+                System.arraycopy(entries, index + 1, nextEntries, index, length - index - 1);
+                System.arraycopy(labels, 0, nextLabels, 0, index);
+                System.arraycopy(labels, index + 1, nextLabels, index, length - index - 1);
+            }
+            availability = Availability.of(nextEntries, nextLabels);
+        }
+    }
+    
+    public boolean isAvailable(String vehicleId) {
+        Entry entry = vehicles.get(vehicleId);
+        return entry != null && available.contains(entry);
+    }
+    
+    // Smallest available vehicle that can seat the passengers, or null if none can
+    public Entry findSmallestAvailable(int minCapacity) {
+        return available.ceiling(new Entry("", "", minCapacity));
+    }
+    
+    // Live view of the available vehicles that can seat the passengers, smallest first;
+    // lets a caller move on to the next candidate when a claim on one fails
+    public Iterable<Entry> availableWithCapacity(int minCapacity) {
+        return available.tailSet(new Entry("", "", minCapacity));
+    }
+    
+    // Available vehicles in ascending capacity order; an immutable snapshot, O(1) to read
+    public List<Entry> getAvailableVehicles() {
+        return availability.entryView();
+    }
+    
+    // Labels of the available vehicles in the same order, such as "Bus: B1 (Capacity: 40)"
+    public List<String> getAvailableLabels() {
+        return availability.labelView();
+    }
+    
+    public int getAvailableCount() {
+        return availableCount.get();
+    }
+    
+    public int size() {
+        return vehicles.size();
+    }
+    
+    public long getVersion() {
+        return version.get();
+    }
+}
@@ -0,0 +1,41 @@
+package services;
+
+import java.util.List;
+
+/**
+ * Journey record describing a planned trip between two stops
+ * Legs are consecutive rides on one route; minutes include transfer time
+ */
+public record Journey(String origin, String destination, int totalMinutes, List<Leg> legs) {
+    
+    // One ride on a single route
+    public record Leg(String routeId, String from, String to, int minutes) {
+    }
+    
+    public static Journey notFound(String origin, String destination) {
+        return new Journey(origin, destination, -1, List.of());
+    }
+    
+    public boolean isFound() {
+        return totalMinutes >= 0;
+    }
+    
+    public int getTransferCount() {
+        return Math.max(0, legs.size() - 1);
+    }
+    
+    public String describe() {
+        if (!isFound()) {
+            return "No journey found from " + origin + " to " + destination;
+        }
+        StringBuilder text = new StringBuilder();
+        text.append("Journey from ").append(origin).append(" to ").append(destination)
+            .append(" (").append(totalMinutes).append(" minutes, ")
+            .append(getTransferCount()).append(" transfers):");
+        for (Leg leg : legs) {
+            text.append("\n  Route ").append(leg.routeId()).append(": ").append(leg.from())
+                .append(" → ").append(leg.to()).append(" (").append(leg.minutes()).append(" min)");
+        }
+        return text.toString();
+    }
+}
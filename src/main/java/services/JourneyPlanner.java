@@ -0,0 +1,164 @@
+package services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * JourneyPlanner class finding multi-route journeys over the stop graph
+ * Every active route contributes edges between consecutive stops (start, stop points, end),
+ * in both directions, weighted by its estimated travel time split evenly across segments.
+ * Dijkstra runs over (stop, route) states so that changing routes costs a transfer penalty.
+ * The graph is rebuilt lazily after a route change and answers are cached until the next one
+ */
+public class JourneyPlanner {
+    
+    public static final int TRANSFER_MINUTES = 5;
+    
+    private record Edge(String to, String routeId, double minutes) {
+    }
+    
+    private record State(String stop, String routeId, double minutes, State previous) {
+    }
+    
+    // Private attributes (Encapsulation)
+    private final Supplier<Collection<Route>> routeSource;
+    private final Map<String, Journey> cache;
+    private final AtomicLong version;
+    private volatile Map<String, List<Edge>> graph;
+    
+    // Constructor
+    public JourneyPlanner(Supplier<Collection<Route>> routeSource) {
+        this.routeSource = routeSource;
+        this.cache = new ConcurrentHashMap<>();
+        this.version = new AtomicLong();
+    }
+    
+    // Drops the graph and every cached journey; called whenever a route changes
+    public void invalidate() {
+        version.incrementAndGet();
+        graph = null;
+        cache.clear();
+    }
+    
+    public Journey plan(String origin, String destination) {
+        String key = origin + '\u0000' + destination;
+        Journey cached = cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        long searchedVersion = version.get();
+        Journey journey = search(currentGraph(), origin, destination);
+        cache.put(key, journey);
+        if (version.get() != searchedVersion) {
+            cache.remove(key); // a route changed during the search
+        }
+        return journey;
+    }
+    
+    public int getCachedJourneyCount() {
+        return cache.size();
+    }
+    
+    private Map<String, List<Edge>> currentGraph() {
+        Map<String, List<Edge>> current = graph;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (graph != null) {
+                return graph;
+            }
+            long builtVersion = version.get();
+            current = build();
+            if (version.get() == builtVersion) {
+                graph = current;
+            }
+            return current;
+        }
+    }
+    
+    private Map<String, List<Edge>> build() {
+        Map<String, List<Edge>> edges = new HashMap<>();
+        for (Route route : routeSource.get()) {
+            if (!route.isActive()) {
+                continue;
+            }
+            List<String> sequence = new ArrayList<>();
+            sequence.add(route.getStartLocation());
+            sequence.addAll(route.getStopPoints());
+            sequence.add(route.getEndLocation());
+            double segmentMinutes = (double) route.getEstimatedTravelTime() / (sequence.size() - 1);
+            for (int i = 0; i + 1 < sequence.size(); i++) {
+                String from = sequence.get(i);
+                String to = sequence.get(i + 1);
+                edges.computeIfAbsent(from, s -> new ArrayList<>()).add(new Edge(to, route.getRouteId(), segmentMinutes));
+                edges.computeIfAbsent(to, s -> new ArrayList<>()).add(new Edge(from, route.getRouteId(), segmentMinutes));
+            }
+        }
+        return edges;
+    }
+    
+    private static Journey search(Map<String, List<Edge>> edges, String origin, String destination) {
+        if (!edges.containsKey(origin) || !edges.containsKey(destination)) {
+            return Journey.notFound(origin, destination);
+        }
+        if (origin.equals(destination)) {
+            return new Journey(origin, destination, 0, List.of());
+        }
+        
+        PriorityQueue<State> frontier = new PriorityQueue<>((a, b) -> Double.compare(a.minutes(), b.minutes()));
+        Map<String, Double> best = new HashMap<>();
+        Set<String> settled = new HashSet<>();
+        frontier.add(new State(origin, null, 0, null));
+        
+        while (!frontier.isEmpty()) {
+            State state = frontier.poll();
+            if (state.stop().equals(destination)) {
+                return toJourney(origin, destination, state);
+            }
+            if (!settled.add(state.stop() + '\u0000' + state.routeId())) {
+                continue;
+            }
+            for (Edge edge : edges.getOrDefault(state.stop(), List.of())) {
+                boolean transfer = state.routeId() != null && !state.routeId().equals(edge.routeId());
+                double minutes = state.minutes() + edge.minutes() + (transfer ? TRANSFER_MINUTES : 0);
+                String key = edge.to() + '\u0000' + edge.routeId();
+                Double known = best.get(key);
+                if (known == null || minutes < known) {
+                    best.put(key, minutes);
+                    frontier.add(new State(edge.to(), edge.routeId(), minutes, state));
+                }
+            }
+        }
+        return Journey.notFound(origin, destination);
+    }
+    
+    // Walks the state chain back to the origin, merging consecutive edges on the same route into legs
+    private static Journey toJourney(String origin, String destination, State arrival) {
+        List<Journey.Leg> legs = new ArrayList<>();
+        State legEnd = arrival;
+        State current = arrival;
+        while (current.previous() != null) {
+            State previous = current.previous();
+            if (previous.previous() == null || !previous.routeId().equals(current.routeId())) {
+                double transfer = previous.previous() == null ? 0 : TRANSFER_MINUTES;
+                int minutes = (int) Math.round(legEnd.minutes() - previous.minutes() - transfer);
+                legs.add(new Journey.Leg(current.routeId(), previous.stop(), legEnd.stop(), minutes));
+                legEnd = previous;
+            }
+            current = previous;
+        }
+        Collections.reverse(legs);
+        return new Journey(origin, destination, (int) Math.round(arrival.minutes()), legs);
+    }
+}
@@ -0,0 +1,15 @@
+package services;
+
+/**
+ * Listener interface for maintenance scheduler events
+ */
+public interface MaintenanceListener {
+    
+    // Called once when a vehicle passes its service due time
+    default void onServiceDue(String vehicleId, long dueTime) {
+    }
+    
+    // Called when a vehicle that was due has been serviced
+    default void onServiceCompleted(String vehicleId, long nextDueTime) {
+    }
+}
@@ -0,0 +1,196 @@
+package services;
+
+import interfaces.Serviceable;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MaintenanceScheduler class keeping the fleet in service due-time order
+ * Vehicles sit in a sorted set keyed by due time, with an id map for O(log n)
+ * rescheduling. Checking only looks at the head of the set, so a check costs
+ * O(log n) per vehicle that became due instead of a scan of the whole fleet.
+ * Due vehicles stay due until they are serviced
+ */
+public class MaintenanceScheduler {
+    
+    // One vehicle's place in the due-time order
+    public record DueEntry(long dueTime, String vehicleId) {
+    }
+    
+    private static final Comparator<DueEntry> DUE_ORDER =
+            Comparator.comparingLong(DueEntry::dueTime).thenComparing(DueEntry::vehicleId);
+    
+    // Private attributes (Encapsulation)
+    private final TreeSet<DueEntry> upcoming;
+    private final Map<String, DueEntry> entriesById;
+    private final Set<String> dueVehicles;
+    private final List<MaintenanceListener> listeners;
+    private ScheduledExecutorService timer;
+    private ScheduledFuture<?> checkTask;
+    
+    // Constructor
+    public MaintenanceScheduler() {
+        this.upcoming = new TreeSet<>(DUE_ORDER);
+        this.entriesById = new HashMap<>();
+        this.dueVehicles = new LinkedHashSet<>();
+        this.listeners = new CopyOnWriteArrayList<>();
+    }
+    
+    public void addMaintenanceListener(MaintenanceListener listener) {
+        listeners.add(listener);
+    }
+    
+    public void removeMaintenanceListener(MaintenanceListener listener) {
+        listeners.remove(listener);
+    }
+    
+    // Adds or re-adds a vehicle at its current due time
+    public void register(String vehicleId, Serviceable vehicle) {
+        schedule(vehicleId, vehicle.getServiceDueTime());
+    }
+    
+    public synchronized void unregister(String vehicleId) {
+        DueEntry entry = entriesById.remove(vehicleId);
+        if (entry != null) {
+            upcoming.remove(entry);
+        }
+        dueVehicles.remove(vehicleId);
+    }
+    
+    // Called after a service; a vehicle that was due is reported as back in service
+    public void recordService(String vehicleId, long nextDueTime) {
+        boolean wasDue;
+        synchronized (this) {
+            wasDue = dueVehicles.remove(vehicleId);
+            reschedule(vehicleId, nextDueTime);
+        }
+        if (wasDue) {
+            for (MaintenanceListener listener : listeners) {
+                listener.onServiceCompleted(vehicleId, nextDueTime);
+            }
+        }
+    }
+    
+    // Moves a vehicle to a new due time after its service interval changed. A due vehicle stays due
+    // while the new time has passed, otherwise it is reported back in service; unknown ids are ignored
+    public void updateDueTime(String vehicleId, long dueTime) {
+        boolean noLongerDue;
+        synchronized (this) {
+            boolean due = dueVehicles.contains(vehicleId);
+            if (!due && !entriesById.containsKey(vehicleId)) {
+                return;
+            }
+            if (due && dueTime <= System.currentTimeMillis()) {
+                return;
+            }
+            noLongerDue = dueVehicles.remove(vehicleId);
+            reschedule(vehicleId, dueTime);
+        }
+        if (noLongerDue) {
+            for (MaintenanceListener listener : listeners) {
+                listener.onServiceCompleted(vehicleId, dueTime);
+            }
+        }
+    }
+    
+    // Moves every vehicle whose due time has passed into the due set; returns them
+    public List<DueEntry> checkDue(long now) {
+        List<DueEntry> becameDue = new ArrayList<>();
+        synchronized (this) {
+            Iterator<DueEntry> iterator = upcoming.iterator();
+            while (iterator.hasNext()) {
+                DueEntry entry = iterator.next();
+                if (entry.dueTime() > now) {
+                    break;
+                }
+                iterator.remove();
+                entriesById.remove(entry.vehicleId());
+                dueVehicles.add(entry.vehicleId());
+                becameDue.add(entry);
+            }
+        }
+        for (DueEntry entry : becameDue) {
+            for (MaintenanceListener listener : listeners) {
+                listener.onServiceDue(entry.vehicleId(), entry.dueTime());
+            }
+        }
+        return becameDue;
+    }
+    
+    public synchronized boolean isDue(String vehicleId) {
+        return dueVehicles.contains(vehicleId);
+    }
+    
+    public synchronized List<String> getDueVehicles() {
+        return new ArrayList<>(dueVehicles);
+    }
+    
+    // The next vehicles to fall due, earliest first
+    public synchronized List<DueEntry> getUpcoming(int limit) {
+        List<DueEntry> next = new ArrayList<>(Math.min(limit, upcoming.size()));
+        for (DueEntry entry : upcoming) {
+            if (next.size() == limit) {
+                break;
+            }
+            next.add(entry);
+        }
+        return next;
+    }
+    
+    public synchronized long getNextDueTime() {
+        return upcoming.isEmpty() ? Long.MAX_VALUE : upcoming.first().dueTime();
+    }
+    
+    public synchronized int size() {
+        return upcoming.size() + dueVehicles.size();
+    }
+    
+    // Checks on a background timer; each check is a peek at the head when nothing is due
+    public synchronized void start(long checkInterval, TimeUnit unit) {
+        if (checkTask != null) {
+            return;
+        }
+        if (timer == null) {
+            timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "maintenance-scheduler");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        checkTask = timer.scheduleWithFixedDelay(() -> checkDue(System.currentTimeMillis()),
+                                                 0, checkInterval, unit);
+    }
+    
+    public synchronized void stop() {
+        if (checkTask != null) {
+            checkTask.cancel(false);
+            checkTask = null;
+        }
+    }
+    
+    private synchronized void schedule(String vehicleId, long dueTime) {
+        dueVehicles.remove(vehicleId);
+        reschedule(vehicleId, dueTime);
+    }
+    
+    private void reschedule(String vehicleId, long dueTime) {
+        DueEntry previous = entriesById.put(vehicleId, new DueEntry(dueTime, vehicleId));
+        if (previous != null) {
+            upcoming.remove(previous);
+        }
+        upcoming.add(entriesById.get(vehicleId));
+    }
+}
@@ -0,0 +1,22 @@
+package services;
+
+/**
+ * RequestAssignment record describing how a dispatched request was served
+ * routeId and vehicleId are null when no route or vehicle could take the request
+ */
+public record RequestAssignment(TransportRequest request, String routeId, String vehicleId, long queueWaitNanos) {
+    
+    public boolean isAssigned() {
+        return vehicleId != null;
+    }
+    
+    @Override
+    public String toString() {
+        if (!isAssigned()) {
+            return "Request #" + request.requestId() + " for " + request.destination() + " could not be assigned" +
+                   (routeId == null ? " (no route serves this destination)" : " on route " + routeId);
+        }
+        return "Request #" + request.requestId() + " (" + request.priority() + ") assigned to vehicle " +
+               vehicleId + " on route " + routeId;
+    }
+}
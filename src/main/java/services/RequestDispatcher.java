@@ -0,0 +1,154 @@
+package services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * RequestDispatcher class running worker threads that drain the request queue
+ * Each worker takes the highest-priority pending request and turns it into a
+ * vehicle assignment through TransportService. Requests no route or vehicle could
+ * take are queued again after a short delay, so they neither get lost nor keep the
+ * workers spinning on them
+ */
+public class RequestDispatcher {
+    
+    private static final int RECENT_ASSIGNMENTS = 1000;
+    private static final long POLL_TIMEOUT_MILLIS = 100;
+    private static final long RETRY_DELAY_MILLIS = 1000;
+    
+    // Private attributes (Encapsulation)
+    private final TransportService transportService;
+    private final RequestQueue queue;
+    private final int workerCount;
+    private final List<Thread> workers;
+    private final ArrayBlockingQueue<RequestAssignment> recentAssignments;
+    private final LongAdder assigned;
+    private final LongAdder unassigned;
+    private final Set<TransportRequest> awaitingRetry;
+    private ScheduledExecutorService retryTimer;
+    private volatile boolean running;
+    
+    // Constructor
+    public RequestDispatcher(TransportService transportService, RequestQueue queue, int workerCount) {
+        this.transportService = transportService;
+        this.queue = queue;
+        this.workerCount = workerCount;
+        this.workers = new ArrayList<>();
+        this.recentAssignments = new ArrayBlockingQueue<>(RECENT_ASSIGNMENTS);
+        this.assigned = new LongAdder();
+        this.unassigned = new LongAdder();
+        this.awaitingRetry = ConcurrentHashMap.newKeySet();
+    }
+    
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        retryTimer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "request-dispatch-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread(this::work, "request-dispatch-" + (i + 1));
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        }
+    }
+    
+    public synchronized void stop() {
+        running = false;
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+        for (Thread worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        workers.clear();
+        if (retryTimer != null) {
+            retryTimer.shutdownNow();
+            retryTimer = null;
+            // Requests still waiting for a retry go straight back into the queue
+            for (TransportRequest request : awaitingRetry) {
+                requeue(request);
+            }
+        }
+    }
+    
+    private void work() {
+        while (running) {
+            try {
+                TransportRequest request = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (request != null) {
+                    long waitNanos = System.nanoTime() - request.enqueuedNanos();
+                    RequestAssignment assignment = transportService.dispatchRequest(request, waitNanos);
+                    record(assignment);
+                    if (!assignment.isAssigned()) {
+                        retryLater(request);
+                    }
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+    
+    private void retryLater(TransportRequest request) {
+        ScheduledExecutorService timer = retryTimer;
+        if (timer == null) {
+            transportService.requeueRequest(request);
+            return;
+        }
+        awaitingRetry.add(request);
+        timer.schedule(() -> requeue(request), RETRY_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+    }
+    
+    private void requeue(TransportRequest request) {
+        if (awaitingRetry.remove(request)) {
+            transportService.requeueRequest(request);
+        }
+    }
+    
+    private void record(RequestAssignment assignment) {
+        if (assignment.isAssigned()) {
+            assigned.increment();
+        } else {
+            unassigned.increment();
+        }
+        // Keep only the most recent assignments
+        while (!recentAssignments.offer(assignment)) {
+            recentAssignments.poll();
+        }
+    }
+    
+    public List<RequestAssignment> getRecentAssignments() {
+        return new ArrayList<>(recentAssignments);
+    }
+    
+    public long getAssignedCount() { return assigned.sum(); }
+    public long getUnassignedCount() { return unassigned.sum(); }
+    public int getRetryingCount() { return awaitingRetry.size(); }
+    public boolean isRunning() { return running; }
+    
+    public String getDispatchStatus() {
+        return "Request dispatch: " + (running ? "Running" : "Stopped") + " with " + workerCount + " workers" +
+               ", pending=" + queue.size() + "/" + queue.getCapacity() +
+               ", assigned=" + assigned.sum() + ", unassigned=" + unassigned.sum() +
+               ", awaiting retry=" + awaitingRetry.size() +
+               String.format(", avg wait=%.2f ms, max wait=%.2f ms",
+                             queue.getAverageWaitMillis(), queue.getMaxWaitNanos() / 1_000_000.0);
+    }
+}
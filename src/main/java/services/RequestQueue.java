@@ -0,0 +1,189 @@
+package services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * RequestQueue class holding pending transport requests in dispatch order
+ * Ordered by user priority, then requested time of day, then arrival. The queue is
+ * bounded: offers fail instead of growing once capacity is reached. Time spent
+ * waiting in the queue is recorded for every request taken out. Size and version are
+ * published after each change, so they can be read without taking the lock
+ */
+public class RequestQueue {
+    
+    private static final Comparator<TransportRequest> DISPATCH_ORDER =
+            Comparator.comparing(TransportRequest::priority)
+                      .thenComparingInt(request -> request.requestedMinute() < 0 ? Integer.MAX_VALUE : request.requestedMinute())
+                      .thenComparingLong(TransportRequest::requestId);
+    
+    // Private attributes (Encapsulation)
+    private final int capacity;
+    private final PriorityQueue<TransportRequest> pending;
+    private final ReentrantLock lock;
+    private final Condition notEmpty;
+    private final LongAdder dequeued;
+    private final LongAdder rejected;
+    private final LongAdder totalWaitNanos;
+    private final AtomicLong maxWaitNanos;
+    private volatile int pendingCount;
+    private volatile long version;
+    
+    // Constructor
+    public RequestQueue(int capacity) {
+        this.capacity = capacity;
+        this.pending = new PriorityQueue<>(Math.min(capacity, 1024), DISPATCH_ORDER);
+        this.lock = new ReentrantLock();
+        this.notEmpty = lock.newCondition();
+        this.dequeued = new LongAdder();
+        this.rejected = new LongAdder();
+        this.totalWaitNanos = new LongAdder();
+        this.maxWaitNanos = new AtomicLong();
+    }
+    
+    // Returns false when the queue is full
+    public boolean offer(TransportRequest request) {
+        lock.lock();
+        try {
+            if (pending.size() >= capacity) {
+                rejected.increment();
+                return false;
+            }
+            pending.add(request);
+            changed();
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    // Waits up to the timeout for the highest-priority request; null on timeout
+    public TransportRequest poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long remaining = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (pending.isEmpty()) {
+                if (remaining <= 0) {
+                    return null;
+                }
+                remaining = notEmpty.awaitNanos(remaining);
+            }
+            TransportRequest request = recordWait(pending.poll());
+            changed();
+            return request;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    // Removes up to maxRequests requests in dispatch order without waiting
+    public List<TransportRequest> drain(int maxRequests) {
+        List<TransportRequest> drained = new ArrayList<>();
+        lock.lock();
+        try {
+            while (drained.size() < maxRequests && !pending.isEmpty()) {
+                drained.add(recordWait(pending.poll()));
+            }
+            if (!drained.isEmpty()) {
+                changed();
+            }
+        } finally {
+            lock.unlock();
+        }
+        return drained;
+    }
+    
+    // Pending requests in dispatch order, without removing them
+    public List<TransportRequest> snapshot() {
+        lock.lock();
+        try {
+            List<TransportRequest> copy = new ArrayList<>(pending);
+            copy.sort(DISPATCH_ORDER);
+            return copy;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    // Takes the given requests out for dispatch, wherever they are in the queue; returns the ones
+    // still pending, which may be fewer when another consumer took some first
+    public List<TransportRequest> take(Collection<Long> requestIds) {
+        List<TransportRequest> taken = new ArrayList<>();
+        if (requestIds.isEmpty()) {
+            return taken;
+        }
+        Set<Long> ids = requestIds instanceof Set<Long> set ? set : new HashSet<>(requestIds);
+        lock.lock();
+        try {
+            pending.removeIf(request -> ids.contains(request.requestId()) && taken.add(recordWait(request)));
+            if (!taken.isEmpty()) {
+                changed();
+            }
+        } finally {
+            lock.unlock();
+        }
+        return taken;
+    }
+    
+    // Removes the given requests wherever they are in the queue; returns how many were found
+    public int removeAll(Collection<Long> requestIds) {
+        if (requestIds.isEmpty()) {
+            return 0;
+        }
+        Set<Long> ids = requestIds instanceof Set<Long> set ? set : new HashSet<>(requestIds);
+        lock.lock();
+        try {
+            int before = pending.size();
+            if (pending.removeIf(request -> ids.contains(request.requestId()))) {
+                changed();
+            }
+            return before - pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public int size() {
+        return pendingCount;
+    }
+    
+    // Goes up after every change to the pending requests
+    public long getVersion() {
+        return version;
+    }
+    
+    // Called with the lock held; the lock makes the non-atomic increment safe
+    private void changed() {
+        pendingCount = pending.size();
+        version++;
+    }
+    
+    public int getCapacity() { return capacity; }
+    public long getDequeuedCount() { return dequeued.sum(); }
+    public long getRejectedCount() { return rejected.sum(); }
+    public long getMaxWaitNanos() { return maxWaitNanos.get(); }
+    
+    public double getAverageWaitMillis() {
+        long count = dequeued.sum();
+        return count == 0 ? 0.0 : totalWaitNanos.sum() / (count * 1_000_000.0);
+    }
+    
+    private TransportRequest recordWait(TransportRequest request) {
+        long waited = System.nanoTime() - request.enqueuedNanos();
+        dequeued.increment();
+        totalWaitNanos.add(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+        return request;
+    }
+}
@@ -1,26 +1,35 @@
 package services;
 
-import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Route class for managing transport routes
  * Demonstrates Encapsulation and data management
+ * Thread-safe: stop and vehicle lists are guarded by the route's own monitor
+ * Stops and vehicles are insertion-ordered sets, so membership checks are O(1)
+ * Readers get immutable lists that are republished on every change (copy-on-write),
+ * so reading never copies and never takes the monitor
  */
 public class Route {
     
     // Private attributes (Encapsulation)
     private final String routeId;
-    private String routeName;
+    private volatile String routeName;
     private final String startLocation;
     private final String endLocation;
-    private final List<String> stopPoints;
-    private double totalDistance;
-    private int estimatedTravelTime; // in minutes
-    private final List<String> assignedVehicles;
-    private String routeType; // Regular, Express, Emergency
-    private boolean isActive;
-    private int maxCapacity;
+    private final Set<String> stopPoints;
+    private volatile double totalDistance;
+    private volatile int estimatedTravelTime; // in minutes
+    private final Set<String> assignedVehicles;
+    private volatile List<String> stopView;
+    private volatile List<String> vehicleView;
+    private volatile String routeType; // Regular, Express, Emergency
+    private volatile boolean isActive;
+    private volatile int maxCapacity;
+    private final List<RouteListener> listeners;
     
     // Constructor
     public Route(String routeId, String routeName, String startLocation, 
@@ -32,10 +41,13 @@ public class Route {
         this.totalDistance = totalDistance;
         this.estimatedTravelTime = estimatedTravelTime;
         this.routeType = routeType;
-        this.stopPoints = new ArrayList<>();
-        this.assignedVehicles = new ArrayList<>();
+        this.stopPoints = new LinkedHashSet<>();
+        this.assignedVehicles = new LinkedHashSet<>();
+        this.stopView = List.of();
+        this.vehicleView = List.of();
         this.isActive = true;
         this.maxCapacity = 0;
+        this.listeners = new CopyOnWriteArrayList<>();
     }
     
     // Getter methods (Encapsulation)
@@ -55,8 +67,9 @@ public class Route {
         return endLocation;
     }
     
+    // Immutable snapshot of the stops in route order
     public List<String> getStopPoints() {
-        return new ArrayList<>(stopPoints);
+        return stopView;
     }
     
     public double getTotalDistance() {
@@ -68,7 +81,7 @@ public class Route {
     }
     
     public List<String> getAssignedVehicles() {
-        return new ArrayList<>(assignedVehicles);
+        return vehicleView;
     }
     
     public String getRouteType() {
@@ -92,53 +105,95 @@ public class Route {
         this.totalDistance = totalDistance;
     }
     
-    public void setEstimatedTravelTime(int estimatedTravelTime) {
+    public synchronized void setEstimatedTravelTime(int estimatedTravelTime) {
         this.estimatedTravelTime = estimatedTravelTime;
+        for (RouteListener listener : listeners) {
+            listener.onTravelTimeChanged(this, estimatedTravelTime);
+        }
     }
     
     public void setRouteType(String routeType) {
         this.routeType = routeType;
     }
     
-    public void setActive(boolean active) {
+    public synchronized void setActive(boolean active) {
+        boolean changed = this.isActive != active;
         this.isActive = active;
+        if (changed) {
+            for (RouteListener listener : listeners) {
+                listener.onActiveChanged(this, active);
+            }
+        }
+    }
+    
+    // Listener registration for services that index routes
+    public void addRouteListener(RouteListener listener) {
+        listeners.add(listener);
+    }
+    
+    public void removeRouteListener(RouteListener listener) {
+        listeners.remove(listener);
     }
     
     // Route management methods
-    public void addStopPoint(String stopPoint) {
-        if (!stopPoints.contains(stopPoint)) {
-            stopPoints.add(stopPoint);
+    public synchronized void addStopPoint(String stopPoint) {
+        if (stopPoints.add(stopPoint)) {
+            stopView = List.copyOf(stopPoints);
             System.out.println("Stop point '" + stopPoint + "' added to route " + routeId);
+            for (RouteListener listener : listeners) {
+                listener.onStopAdded(this, stopPoint);
+            }
         }
     }
     
-    public void removeStopPoint(String stopPoint) {
+    public synchronized void removeStopPoint(String stopPoint) {
         if (stopPoints.remove(stopPoint)) {
+            stopView = List.copyOf(stopPoints);
             System.out.println("Stop point '" + stopPoint + "' removed from route " + routeId);
+            for (RouteListener listener : listeners) {
+                listener.onStopRemoved(this, stopPoint);
+            }
         }
     }
     
-    public void assignVehicle(String vehicleId) {
-        if (!assignedVehicles.contains(vehicleId)) {
-            assignedVehicles.add(vehicleId);
+    public synchronized void assignVehicle(String vehicleId) {
+        if (assignedVehicles.add(vehicleId)) {
+            vehicleView = List.copyOf(assignedVehicles);
             System.out.println("Vehicle " + vehicleId + " assigned to route " + routeId);
             updateMaxCapacity();
+            for (RouteListener listener : listeners) {
+                listener.onVehicleAssigned(this, vehicleId);
+            }
         }
     }
     
-    public void unassignVehicle(String vehicleId) {
+    public synchronized void unassignVehicle(String vehicleId) {
         if (assignedVehicles.remove(vehicleId)) {
+            vehicleView = List.copyOf(assignedVehicles);
             System.out.println("Vehicle " + vehicleId + " unassigned from route " + routeId);
             updateMaxCapacity();
+            for (RouteListener listener : listeners) {
+                listener.onVehicleUnassigned(this, vehicleId);
+            }
         }
     }
     
+    // Recovery support: restores persisted membership without logging or notifying listeners
+    public synchronized void restoreState(List<String> stops, List<String> vehicleIds, boolean active) {
+        stopPoints.addAll(stops);
+        assignedVehicles.addAll(vehicleIds);
+        stopView = List.copyOf(stopPoints);
+        vehicleView = List.copyOf(assignedVehicles);
+        isActive = active;
+        updateMaxCapacity();
+    }
+    
     private void updateMaxCapacity() {
         // Simplified capacity calculation
         maxCapacity = assignedVehicles.size() * 40; // Assuming average 40 capacity per vehicle
     }
     
-    public String getRouteInfo() {
+    public synchronized String getRouteInfo() {
         StringBuilder info = new StringBuilder();
         info.append("Route Information:\n");
         info.append("Route ID: ").append(routeId).append("\n");
@@ -159,17 +214,17 @@ public class Route {
         return info.toString();
     }
     
-    public boolean hasStopPoint(String location) {
+    public synchronized boolean hasStopPoint(String location) {
         return stopPoints.contains(location) || 
                startLocation.equals(location) || 
                endLocation.equals(location);
     }
     
-    public int getStopPointCount() {
+    public synchronized int getStopPointCount() {
         return stopPoints.size();
     }
     
-    public String getFullRoute() {
+    public synchronized String getFullRoute() {
         StringBuilder route = new StringBuilder();
         route.append(startLocation);
         
@@ -186,7 +241,7 @@ public class Route {
     }
     
     @Override
-    public String toString() {
+    public synchronized String toString() {
         return "Route{" +
                 "routeId='" + routeId + '\'' +
                 ", routeName='" + routeName + '\'' +
@@ -0,0 +1,28 @@
+package services;
+
+/**
+ * Listener interface for route changes
+ * Lets the service keep its route-derived indexes current without rescanning
+ */
+public interface RouteListener {
+    
+    default void onStopAdded(Route route, String stopPoint) {
+    }
+    
+    default void onStopRemoved(Route route, String stopPoint) {
+    }
+    
+    default void onVehicleAssigned(Route route, String vehicleId) {
+    }
+    
+    default void onVehicleUnassigned(Route route, String vehicleId) {
+    }
+    
+    // Called when the route is activated or deactivated
+    default void onActiveChanged(Route route, boolean active) {
+    }
+    
+    // Called when the estimated travel time changes
+    default void onTravelTimeChanged(Route route, int estimatedTravelTime) {
+    }
+}
@@ -0,0 +1,82 @@
+package services;
+
+import user.User;
+import vehicle.Bus;
+import vehicle.ScheduledTrip;
+import vehicle.Van;
+
+import java.util.List;
+
+/**
+ * Journal interface for service state changes
+ * The service reports every mutation here so it can be persisted and replayed.
+ * Methods may be called while a vehicle or route holds its own lock, so
+ * implementations only buffer the change; commit() waits until everything
+ * reported so far is durable and is called once the service has released its locks
+ */
+public interface ServiceJournal {
+    
+    default void userRegistered(User user) {
+    }
+    
+    default void busAdded(Bus bus) {
+    }
+    
+    default void vanAdded(Van van) {
+    }
+    
+    default void routeAdded(Route route) {
+    }
+    
+    default void routeStopAdded(String routeId, String stopPoint) {
+    }
+    
+    default void routeStopRemoved(String routeId, String stopPoint) {
+    }
+    
+    default void routeVehicleAssigned(String routeId, String vehicleId) {
+    }
+    
+    default void routeVehicleUnassigned(String routeId, String vehicleId) {
+    }
+    
+    default void routeActiveChanged(String routeId, boolean active) {
+    }
+    
+    default void routeTravelTimeChanged(String routeId, int estimatedTravelTime) {
+    }
+    
+    default void vehicleStatusChanged(String vehicleId, String status) {
+    }
+    
+    default void vehicleServiced(String vehicleId, long serviceTime) {
+    }
+    
+    default void tripScheduled(String vehicleId, ScheduledTrip trip) {
+    }
+    
+    default void tripUpdated(String vehicleId, ScheduledTrip trip) {
+    }
+    
+    default void tripCancelled(String vehicleId, String tripId) {
+    }
+    
+    default void driverAssigned(String key, String driver) {
+    }
+    
+    default void requestQueued(TransportRequest request) {
+    }
+    
+    // Requests taken out of the queue for dispatch; dispatch workers report these without
+    // calling commit(), so they become durable with the next group commit
+    default void requestsTaken(List<Long> requestIds) {
+    }
+    
+    // Blocks until every change reported so far has been made durable
+    default void commit() {
+    }
+    
+    // Journal used while persistence is disabled
+    ServiceJournal DISABLED = new ServiceJournal() {
+    };
+}
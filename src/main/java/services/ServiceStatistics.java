@@ -0,0 +1,25 @@
+package services;
+
+/**
+ * ServiceStatistics record holding one consistent set of service counters
+ * Built only when something has changed since the previous one, so repeated polls
+ * of an idle service get the same instance and the same report string back
+ */
+public record ServiceStatistics(int registeredUsers, int buses, int vans, int routes, long transportRequests,
+                                int pendingRequests, int driverAssignments, int availableVehicles, String report) {
+    
+    static ServiceStatistics of(int registeredUsers, int buses, int vans, int routes, long transportRequests,
+                                int pendingRequests, int driverAssignments, int availableVehicles) {
+        String report = "Transport Service Statistics:\n"
+                + "Registered Users: " + registeredUsers + "\n"
+                + "Available Buses: " + buses + "\n"
+                + "Available Vans: " + vans + "\n"
+                + "Active Routes: " + routes + "\n"
+                + "Transport Requests: " + transportRequests + "\n"
+                + "Pending Requests: " + pendingRequests + "\n"
+                + "Driver Assignments: " + driverAssignments + "\n"
+                + "Dispatchable Vehicles: " + availableVehicles + "\n";
+        return new ServiceStatistics(registeredUsers, buses, vans, routes, transportRequests,
+                                     pendingRequests, driverAssignments, availableVehicles, report);
+    }
+}
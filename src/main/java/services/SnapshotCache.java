@@ -0,0 +1,38 @@
+package services;
+
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * SnapshotCache class holding an immutable view together with the version it was built from
+ * get() returns the cached view while the source version is unchanged and rebuilds it
+ * otherwise. The version is read before the view is built, so a change that races with a
+ * rebuild leaves an older version behind and the next call builds again; a stale view is
+ * never kept past the next change
+ */
+final class SnapshotCache<T> {
+    
+    private record Versioned<T>(long version, T view) {}
+    
+    // Private attributes (Encapsulation)
+    private final LongSupplier version;
+    private final Supplier<T> builder;
+    private volatile Versioned<T> cached;
+    
+    // Constructor
+    SnapshotCache(LongSupplier version, Supplier<T> builder) {
+        this.version = version;
+        this.builder = builder;
+    }
+    
+    T get() {
+        long current = version.getAsLong();
+        Versioned<T> snapshot = cached;
+        if (snapshot != null && snapshot.version() == current) {
+            return snapshot.view();
+        }
+        T view = builder.get();
+        cached = new Versioned<>(current, view);
+        return view;
+    }
+}
@@ -0,0 +1,207 @@
+package services;
+
+import tracking.GeoDistance;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * SpatialIndex class bucketing live vehicle positions into a uniform lat/lon grid
+ * Location updates move a vehicle between cells in O(1); nearest-vehicle queries
+ * search outward ring by ring and stop as soon as no closer cell can exist
+ * Thread-safe: cells are concurrent sets and each position array is its own lock;
+ * updates for one vehicle are expected to be serialized by that vehicle
+ */
+public class SpatialIndex {
+    
+    // Result of a nearest-vehicle query
+    public record Neighbor(String vehicleId, double distanceKm) {
+    }
+    
+    private static final double DEFAULT_CELL_DEGREES = 0.01; // roughly 1.1 km
+    
+    // Private attributes (Encapsulation)
+    private final double cellDegrees;
+    private final Map<Long, Set<String>> cells;
+    private final Map<String, double[]> positions;
+    private final Map<String, Long> vehicleCells;
+    private final AtomicInteger minCellX;
+    private final AtomicInteger maxCellX;
+    private final AtomicInteger minCellY;
+    private final AtomicInteger maxCellY;
+    
+    // Constructors
+    public SpatialIndex() {
+        this(DEFAULT_CELL_DEGREES);
+    }
+    
+    public SpatialIndex(double cellDegrees) {
+        this.cellDegrees = cellDegrees;
+        this.cells = new ConcurrentHashMap<>();
+        this.positions = new ConcurrentHashMap<>();
+        this.vehicleCells = new ConcurrentHashMap<>();
+        this.minCellX = new AtomicInteger(Integer.MAX_VALUE);
+        this.maxCellX = new AtomicInteger(Integer.MIN_VALUE);
+        this.minCellY = new AtomicInteger(Integer.MAX_VALUE);
+        this.maxCellY = new AtomicInteger(Integer.MIN_VALUE);
+    }
+    
+    public void update(String vehicleId, double latitude, double longitude) {
+        int cellX = cellX(longitude);
+        int cellY = cellY(latitude);
+        long key = cellKey(cellX, cellY);
+        
+        double[] position = positions.get(vehicleId);
+        if (position == null) {
+            positions.put(vehicleId, new double[]{latitude, longitude});
+        } else {
+            synchronized (position) {
+                position[0] = latitude;
+                position[1] = longitude;
+            }
+        }
+        
+        // Most fixes stay inside the same cell; avoid boxing a new key for them
+        Long oldKey = vehicleCells.get(vehicleId);
+        if (oldKey != null && oldKey == key) {
+            return;
+        }
+        vehicleCells.put(vehicleId, key);
+        if (oldKey != null) {
+            removeFromCell(oldKey, vehicleId);
+        }
+        cells.compute(key, (k, cell) -> {
+            Set<String> members = cell != null ? cell : ConcurrentHashMap.newKeySet();
+            members.add(vehicleId);
+            return members;
+        });
+        minCellX.accumulateAndGet(cellX, Math::min);
+        maxCellX.accumulateAndGet(cellX, Math::max);
+        minCellY.accumulateAndGet(cellY, Math::min);
+        maxCellY.accumulateAndGet(cellY, Math::max);
+    }
+    
+    public void remove(String vehicleId) {
+        positions.remove(vehicleId);
+        Long key = vehicleCells.remove(vehicleId);
+        if (key != null) {
+            removeFromCell(key, vehicleId);
+        }
+    }
+    
+    public int size() {
+        return positions.size();
+    }
+    
+    // The k closest vehicles accepted by the filter, nearest first
+    public List<Neighbor> findNearest(double latitude, double longitude, int k, Predicate<String> filter) {
+        List<Neighbor> result = new ArrayList<>();
+        if (k <= 0 || positions.isEmpty()) {
+            return result;
+        }
+        
+        // Max-heap on distance holding the best k candidates seen so far
+        PriorityQueue<Neighbor> best = new PriorityQueue<>(
+                Comparator.comparingDouble(Neighbor::distanceKm).reversed());
+        int centerX = cellX(longitude);
+        int centerY = cellY(latitude);
+        int maxRing = Math.max(
+                Math.max(Math.abs(centerX - minCellX.get()), Math.abs(maxCellX.get() - centerX)),
+                Math.max(Math.abs(centerY - minCellY.get()), Math.abs(maxCellY.get() - centerY)));
+        
+        for (int ring = 0; ring <= maxRing; ring++) {
+            // Once a ring has more cells than the grid has occupied ones, visit the occupied cells instead
+            if (8L * ring > cells.size()) {
+                for (Map.Entry<Long, Set<String>> cell : cells.entrySet()) {
+                    long key = cell.getKey();
+                    int distance = Math.max(Math.abs((int) (key >> 32) - centerX), Math.abs((int) key - centerY));
+                    if (distance >= ring) {
+                        collect(cell.getValue(), latitude, longitude, k, filter, best);
+                    }
+                }
+                break;
+            }
+            for (int dx = -ring; dx <= ring; dx++) {
+                for (int dy = -ring; dy <= ring; dy++) {
+                    if (Math.abs(dx) != ring && Math.abs(dy) != ring) {
+                        continue; // inner cells were covered by earlier rings
+                    }
+                    Set<String> cell = cells.get(cellKey(centerX + dx, centerY + dy));
+                    if (cell != null) {
+                        collect(cell, latitude, longitude, k, filter, best);
+                    }
+                }
+            }
+            // Anything outside this ring is at least ring cells away
+            if (best.size() == k && best.peek().distanceKm() <= minDistanceBeyondRing(latitude, ring)) {
+                break;
+            }
+        }
+        
+        result.addAll(best);
+        result.sort(Comparator.comparingDouble(Neighbor::distanceKm));
+        return result;
+    }
+    
+    // Fast equirectangular distance, accurate over city-scale distances
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        return GeoDistance.equirectangularKm(lat1, lon1, lat2, lon2);
+    }
+    
+    private void collect(Set<String> cell, double latitude, double longitude, int k,
+                         Predicate<String> filter, PriorityQueue<Neighbor> best) {
+        for (String vehicleId : cell) {
+            if (!filter.test(vehicleId)) {
+                continue;
+            }
+            double[] position = positions.get(vehicleId);
+            if (position == null) {
+                continue; // removed while the query was running
+            }
+            double distance;
+            synchronized (position) {
+                distance = distanceKm(latitude, longitude, position[0], position[1]);
+            }
+            if (best.size() < k) {
+                best.add(new Neighbor(vehicleId, distance));
+            } else if (distance < best.peek().distanceKm()) {
+                best.poll();
+                best.add(new Neighbor(vehicleId, distance));
+            }
+        }
+    }
+    
+    private double minDistanceBeyondRing(double latitude, int ring) {
+        // Longitude cells shrink towards the poles, so use the narrower edge of the searched area
+        double edgeLatitude = Math.min(89.0, Math.abs(latitude) + (ring + 1) * cellDegrees);
+        double cellKm = Math.toRadians(cellDegrees) * GeoDistance.EARTH_RADIUS_KM * Math.cos(Math.toRadians(edgeLatitude));
+        return ring * cellKm;
+    }
+    
+    private void removeFromCell(long key, String vehicleId) {
+        // Atomic per cell, so a concurrent add cannot land in a cell that is being dropped
+        cells.computeIfPresent(key, (k, cell) -> {
+            cell.remove(vehicleId);
+            return cell.isEmpty() ? null : cell;
+        });
+    }
+    
+    private int cellX(double longitude) {
+        return (int) Math.floor(longitude / cellDegrees);
+    }
+    
+    private int cellY(double latitude) {
+        return (int) Math.floor(latitude / cellDegrees);
+    }
+    
+    private static long cellKey(int cellX, int cellY) {
+        return ((long) cellX << 32) | (cellY & 0xffffffffL);
+    }
+}
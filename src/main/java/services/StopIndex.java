@@ -0,0 +1,61 @@
+package services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * StopIndex class mapping each stop to the routes that serve it
+ * Includes start and end locations as well as stop points. Maintained incrementally
+ * from route events, so "which routes serve stop X?" is a single lookup
+ */
+public class StopIndex {
+    
+    // Private attributes (Encapsulation)
+    private final Map<String, NavigableSet<String>> routesByStop;
+    
+    // Constructor
+    public StopIndex() {
+        this.routesByStop = new ConcurrentHashMap<>();
+    }
+    
+    public void addRoute(Route route) {
+        add(route.getStartLocation(), route.getRouteId());
+        add(route.getEndLocation(), route.getRouteId());
+        for (String stop : route.getStopPoints()) {
+            add(stop, route.getRouteId());
+        }
+    }
+    
+    public void removeRoute(Route route) {
+        remove(route.getStartLocation(), route.getRouteId());
+        remove(route.getEndLocation(), route.getRouteId());
+        for (String stop : route.getStopPoints()) {
+            remove(stop, route.getRouteId());
+        }
+    }
+    
+    public void add(String stop, String routeId) {
+        routesByStop.computeIfAbsent(stop, s -> new ConcurrentSkipListSet<>()).add(routeId);
+    }
+    
+    public void remove(String stop, String routeId) {
+        routesByStop.computeIfPresent(stop, (s, routeIds) -> {
+            routeIds.remove(routeId);
+            return routeIds.isEmpty() ? null : routeIds;
+        });
+    }
+    
+    // Route ids serving the stop, in id order
+    public List<String> getRouteIds(String stop) {
+        NavigableSet<String> routeIds = routesByStop.get(stop);
+        return routeIds == null ? new ArrayList<>() : new ArrayList<>(routeIds);
+    }
+    
+    public int getStopCount() {
+        return routesByStop.size();
+    }
+}
@@ -0,0 +1,288 @@
+package services;
+
+import vehicle.Bus;
+import vehicle.SchedulingRules;
+import vehicle.Van;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * TimetableOptimizer class building a full-day timetable from per-route demand
+ * Hourly demand is turned into departures spread over each hour, and the departures are
+ * chained onto as few vehicles as the scheduling rules allow (minimum gap between trips,
+ * daily trip limit). Trips are assumed to start and end at the depot, so a vehicle may
+ * move between routes. How demand is split between buses and vans, how routes are phased
+ * within the hour and which free vehicle takes the next trip all change the vehicle count,
+ * so every combination is evaluated as a fork-join task and the best plan wins
+ */
+public class TimetableOptimizer {
+    
+    private static final int HOURS_PER_DAY = 24;
+    private static final long MINUTE_MILLIS = 60_000L;
+    private static final long HOUR_MILLIS = 60 * MINUTE_MILLIS;
+    private static final int[] PHASE_STRIDES = {0, 5, 10, 15, 20, 25, 30, 35, 40, 45, 50, 55};
+    
+    // Passengers expected to board the route in each hour of the day
+    public record RouteDemand(String routeId, int[] passengersPerHour) {}
+    
+    // Trips that found no vehicle in the fleet are counted in unservedTrips
+    public record Plan(List<TimetableValidator.Entry> trips, int busesUsed, int vansUsed,
+                       int unservedTrips, String policy) {
+        
+        public int getVehicleCount() {
+            return busesUsed + vansUsed;
+        }
+    }
+    
+    private enum VehicleMix { BUSES, VANS, MIXED }
+    
+    private enum Pick { EARLIEST_FREE, LATEST_FREE }
+    
+    private record Policy(VehicleMix mix, int phaseStride, Pick pick) {
+        
+        @Override
+        public String toString() {
+            return mix + " vehicles, " + phaseStride + " min phase stride, " + pick + " pick";
+        }
+    }
+    
+    private record Trip(String routeId, long departure, long arrival, boolean bus) {}
+    
+    private record Slot(long readyAt, int index) {}
+    
+    // Vehicle slot per trip for one policy, with the score used to rank policies
+    private record Outcome(int rank, Policy policy, List<Trip> trips, int[] slots,
+                           int busesUsed, int vansUsed, int unserved) {
+        
+        boolean betterThan(Outcome other) {
+            if (unserved != other.unserved) {
+                return unserved < other.unserved;
+            }
+            if (busesUsed + vansUsed != other.busesUsed + other.vansUsed) {
+                return busesUsed + vansUsed < other.busesUsed + other.vansUsed;
+            }
+            if (trips.size() != other.trips.size()) {
+                return trips.size() < other.trips.size();
+            }
+            return rank < other.rank;
+        }
+    }
+    
+    // Private attributes (Encapsulation)
+    private final SchedulingRules rules;
+    private final ForkJoinPool pool;
+    
+    // Constructor
+    public TimetableOptimizer(SchedulingRules rules) {
+        this(rules, ForkJoinPool.commonPool());
+    }
+    
+    public TimetableOptimizer(SchedulingRules rules, ForkJoinPool pool) {
+        this.rules = rules;
+        this.pool = pool;
+    }
+    
+    // dayStart is the first millisecond of the day being planned
+    public Plan optimise(Collection<Route> routes, List<RouteDemand> demand, List<Bus> buses, List<Van> vans,
+                         long dayStart) {
+        Map<String, Route> routesById = new HashMap<>();
+        for (Route route : routes) {
+            routesById.put(route.getRouteId(), route);
+        }
+        List<RouteDemand> served = new ArrayList<>();
+        for (RouteDemand routeDemand : demand) {
+            if (routesById.containsKey(routeDemand.routeId())) {
+                served.add(routeDemand);
+            }
+        }
+        
+        // The smallest vehicle of a class sets how many passengers one trip of that class carries
+        int busSeats = buses.stream().mapToInt(Bus::getCapacity).min().orElse(0);
+        int vanSeats = vans.stream().mapToInt(Van::getCapacity).min().orElse(0);
+        List<Policy> policies = new ArrayList<>();
+        for (VehicleMix mix : VehicleMix.values()) {
+            if ((mix != VehicleMix.VANS && busSeats <= 0) || (mix != VehicleMix.BUSES && vanSeats <= 0)) {
+                continue;
+            }
+            for (int stride : PHASE_STRIDES) {
+                for (Pick pick : Pick.values()) {
+                    policies.add(new Policy(mix, stride, pick));
+                }
+            }
+        }
+        if (policies.isEmpty() || served.isEmpty()) {
+            return new Plan(List.of(), 0, 0, 0, "no demand or no fleet");
+        }
+        
+        Context context = new Context(routesById, served, busSeats, vanSeats, buses.size(), vans.size(), dayStart);
+        Outcome best = pool.invoke(new SearchTask(context, policies, 0, policies.size()));
+        
+        List<TimetableValidator.Entry> entries = new ArrayList<>(best.trips().size());
+        for (int t = 0; t < best.trips().size(); t++) {
+            int slot = best.slots()[t];
+            if (slot < 0) {
+                continue;
+            }
+            Trip trip = best.trips().get(t);
+            String vehicleId = trip.bus() ? buses.get(slot).getVehicleId() : vans.get(slot).getVehicleId();
+            entries.add(new TimetableValidator.Entry(vehicleId, trip.routeId(), new Date(trip.departure()),
+                                                     new Date(trip.arrival()), false));
+        }
+        return new Plan(entries, best.busesUsed(), best.vansUsed(), best.unserved(), best.policy().toString());
+    }
+    
+    // Everything a policy evaluation reads; shared read-only between tasks
+    private record Context(Map<String, Route> routes, List<RouteDemand> demand, int busSeats, int vanSeats,
+                           int busFleet, int vanFleet, long dayStart) {}
+    
+    // Splits the policy list in halves until one policy is left, then keeps the better of each pair.
+    // ForkJoinTask is Serializable, but these tasks never leave the pool they run in
+    @SuppressWarnings("serial")
+    private final class SearchTask extends RecursiveTask<Outcome> {
+        
+        private final Context context;
+        private final List<Policy> policies;
+        private final int from;
+        private final int to;
+        
+        SearchTask(Context context, List<Policy> policies, int from, int to) {
+            this.context = context;
+            this.policies = policies;
+            this.from = from;
+            this.to = to;
+        }
+        
+        @Override
+        protected Outcome compute() {
+            if (to - from == 1) {
+                return evaluate(context, from, policies.get(from));
+            }
+            int middle = (from + to) >>> 1;
+            SearchTask left = new SearchTask(context, policies, from, middle);
+            left.fork();
+            Outcome right = new SearchTask(context, policies, middle, to).compute();
+            Outcome leftBest = left.join();
+            return right.betterThan(leftBest) ? right : leftBest;
+        }
+    }
+    
+    private Outcome evaluate(Context context, int rank, Policy policy) {
+        List<Trip> trips = departures(context, policy);
+        int[] slots = new int[trips.size()];
+        Chains busChains = new Chains(context.busFleet(), policy.pick());
+        Chains vanChains = new Chains(context.vanFleet(), policy.pick());
+        int unserved = 0;
+        for (int t = 0; t < trips.size(); t++) {
+            Trip trip = trips.get(t);
+            slots[t] = (trip.bus() ? busChains : vanChains).assign(trip);
+            if (slots[t] < 0) {
+                unserved++;
+            }
+        }
+        return new Outcome(rank, policy, trips, slots, busChains.used(), vanChains.used(), unserved);
+    }
+    
+    // Departures for the whole day under one policy, sorted by departure time
+    private List<Trip> departures(Context context, Policy policy) {
+        List<Trip> trips = new ArrayList<>();
+        for (int r = 0; r < context.demand().size(); r++) {
+            RouteDemand routeDemand = context.demand().get(r);
+            Route route = context.routes().get(routeDemand.routeId());
+            long travel = Math.max(1, route.getEstimatedTravelTime()) * MINUTE_MILLIS;
+            int[] passengers = routeDemand.passengersPerHour();
+            for (int hour = 0; hour < Math.min(HOURS_PER_DAY, passengers.length); hour++) {
+                int waiting = passengers[hour];
+                if (waiting <= 0) {
+                    continue;
+                }
+                int busTrips;
+                int vanTrips;
+                switch (policy.mix()) {
+                    case BUSES -> {
+                        busTrips = ceilDiv(waiting, context.busSeats());
+                        vanTrips = 0;
+                    }
+                    case VANS -> {
+                        busTrips = 0;
+                        vanTrips = ceilDiv(waiting, context.vanSeats());
+                    }
+                    default -> {
+                        // Full buses, with a van for a remainder small enough to fit one
+                        busTrips = waiting / context.busSeats();
+                        int remainder = waiting % context.busSeats();
+                        vanTrips = remainder > 0 && remainder <= context.vanSeats() ? 1 : 0;
+                        if (remainder > context.vanSeats()) {
+                            busTrips++;
+                        }
+                    }
+                }
+                int count = busTrips + vanTrips;
+                long spacing = HOUR_MILLIS / count;
+                long phase = (r * policy.phaseStride() * MINUTE_MILLIS) % HOUR_MILLIS % spacing;
+                long hourStart = context.dayStart() + hour * HOUR_MILLIS;
+                for (int k = 0; k < count; k++) {
+                    long departure = hourStart + phase + k * spacing;
+                    trips.add(new Trip(routeDemand.routeId(), departure, departure + travel, k < busTrips));
+                }
+            }
+        }
+        trips.sort(Comparator.comparingLong(Trip::departure).thenComparing(Trip::routeId));
+        return trips;
+    }
+    
+    private static int ceilDiv(int value, int divisor) {
+        return (value + divisor - 1) / divisor;
+    }
+    
+    // Vehicles of one class ordered by when they may take their next trip
+    private final class Chains {
+        
+        private final int fleetSize;
+        private final Pick pick;
+        private final TreeSet<Slot> ready;
+        private final List<Integer> tripCounts;
+        
+        Chains(int fleetSize, Pick pick) {
+            this.fleetSize = fleetSize;
+            this.pick = pick;
+            this.ready = new TreeSet<>(Comparator.comparingLong(Slot::readyAt).thenComparingInt(Slot::index));
+            this.tripCounts = new ArrayList<>();
+        }
+        
+        // Returns the vehicle slot for the trip, or -1 when the whole class is busy
+        int assign(Trip trip) {
+            Slot slot = pick == Pick.EARLIEST_FREE
+                    ? ready.isEmpty() || ready.first().readyAt() > trip.departure() ? null : ready.first()
+                    : ready.floor(new Slot(trip.departure(), Integer.MAX_VALUE));
+            int index;
+            if (slot != null) {
+                ready.remove(slot);
+                index = slot.index();
+            } else if (tripCounts.size() < fleetSize) {
+                index = tripCounts.size();
+                tripCounts.add(0);
+            } else {
+                return -1;
+            }
+            int count = tripCounts.get(index) + 1;
+            tripCounts.set(index, count);
+            if (count < rules.maxTripsPerDay()) {
+                ready.add(new Slot(trip.arrival() + rules.minGapMillis(), index));
+            }
+            return index;
+        }
+        
+        int used() {
+            return tripCounts.size();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package services;
+
+import vehicle.ScheduleCheck;
+import vehicle.ScheduledTrip;
+import vehicle.SchedulingRules;
+import vehicle.TripSchedule;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * TimetableValidator class checking an imported timetable against the scheduling rules
+ * Entries are grouped by vehicle and each vehicle is validated on its own scratch schedule,
+ * seeded with the trips it already has, so vehicles are checked in parallel. Within a
+ * vehicle entries are applied in departure order, which makes the verdicts independent
+ * of the order of the import file. Nothing is scheduled on the real vehicles
+ */
+public class TimetableValidator {
+    
+    // One imported trip; route is the route id
+    public record Entry(String vehicleId, String route, Date departureTime, Date arrivalTime, boolean emergency) {}
+    
+    // Verdicts in the same order as the imported entries
+    public record Report(List<Entry> entries, List<ScheduleCheck> results) {
+        
+        public int getAcceptedCount() {
+            return (int) results.stream().filter(ScheduleCheck::isAccepted).count();
+        }
+        
+        public int getRejectedCount() {
+            return results.size() - getAcceptedCount();
+        }
+        
+        public List<Entry> getRejectedEntries() {
+            List<Entry> rejected = new ArrayList<>();
+            for (int i = 0; i < results.size(); i++) {
+                if (!results.get(i).isAccepted()) {
+                    rejected.add(entries.get(i));
+                }
+            }
+            return rejected;
+        }
+        
+        public boolean isValid() {
+            return getRejectedCount() == 0;
+        }
+    }
+    
+    // Private attributes (Encapsulation)
+    private final SchedulingRules rules;
+    
+    // Constructor
+    public TimetableValidator(SchedulingRules rules) {
+        this.rules = rules;
+    }
+    
+    public Report validate(List<Entry> timetable) {
+        return validate(timetable, vehicleId -> List.of());
+    }
+    
+    public Report validate(List<Entry> timetable, Function<String, List<ScheduledTrip>> existingTrips) {
+        ScheduleCheck[] results = new ScheduleCheck[timetable.size()];
+        Map<String, List<Integer>> byVehicle = IntStream.range(0, timetable.size()).boxed()
+                .collect(Collectors.groupingBy(i -> timetable.get(i).vehicleId()));
+        
+        // Each vehicle writes only its own slots of results
+        byVehicle.entrySet().parallelStream().forEach(group -> {
+            TripSchedule schedule = new TripSchedule(group.getKey(), rules);
+            for (ScheduledTrip trip : existingTrips.apply(group.getKey())) {
+                schedule.restore(trip);
+            }
+            List<Integer> indexes = group.getValue();
+            indexes.sort(Comparator.comparing(i -> timetable.get(i).departureTime()));
+            for (int i : indexes) {
+                Entry entry = timetable.get(i);
+                results[i] = schedule.add(entry.route(), entry.departureTime(), entry.arrivalTime(), entry.emergency());
+            }
+        });
+        return new Report(List.copyOf(timetable), List.of(results));
+    }
+}
@@ -0,0 +1,44 @@
+package services;
+
+import user.TransportPriority;
+
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+
+/**
+ * TransportRequest record for one queued transport request
+ * requestedMinute is the requested time as minutes after midnight, or -1 when
+ * the free-form time could not be parsed
+ */
+public record TransportRequest(long requestId, String userId, TransportPriority priority, String destination,
+                               String requestedTime, int requestedMinute, int passengerCount,
+                               String description, long createdAt, long enqueuedNanos) {
+    
+    private static final DateTimeFormatter[] TIME_FORMATS = {
+            DateTimeFormatter.ofPattern("h:mm a", Locale.ENGLISH),
+            DateTimeFormatter.ofPattern("H:mm", Locale.ENGLISH)
+    };
+    
+    public boolean isUrgent() {
+        return priority == TransportPriority.EMERGENCY || priority == TransportPriority.URGENT;
+    }
+    
+    // Accepts times such as "09:00 AM", "9:30 pm" or "14:30"
+    public static int parseMinuteOfDay(String time) {
+        if (time == null) {
+            return -1;
+        }
+        String normalized = time.trim().toUpperCase(Locale.ENGLISH);
+        for (DateTimeFormatter format : TIME_FORMATS) {
+            try {
+                LocalTime parsed = LocalTime.parse(normalized, format);
+                return parsed.getHour() * 60 + parsed.getMinute();
+            } catch (DateTimeParseException e) {
+                // try the next format
+            }
+        }
+        return -1;
+    }
+}
@@ -1,14 +1,40 @@
 package services;
 
+import diagnostics.DriverAssignmentEvent;
+import diagnostics.VehicleSelectionEvent;
+import metrics.Counter;
+import metrics.LatencyHistogram;
+import metrics.MetricsRegistry;
+import tracking.LocationHistoryStore;
+import tracking.LocationIngestionPipeline;
+import tracking.TrackPoint;
+import user.Lecturer;
+import user.TransportPriority;
 import user.User;
 import vehicle.Bus;
+import vehicle.FleetStore;
+import vehicle.ScheduleCheck;
+import vehicle.ScheduledTrip;
+import vehicle.SchedulingRules;
 import vehicle.Van;
+import vehicle.Vehicle;
+import vehicle.VehicleListener;
+import vehicle.VehicleStatus;
 
+import java.time.Instant;
+import java.time.ZoneId;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
 
 /**
  * TransportService class handling transport requests and driver assignments
  * Demonstrates Method Overloading and service management
+ * Thread-safe without a global lock: state lives in concurrent collections and
+ * vehicles and routes guard their own mutations
  */
 public class TransportService {
     
@@ -17,220 +43,1106 @@ public class TransportService {
     private final Map<String, Bus> availableBuses;
     private final Map<String, Van> availableVans;
     private final Map<String, Route> routes;
-    private final List<String> transportRequests;
+    private final RequestQueue transportRequests;
+    private final AtomicLong requestSequence;
+    private final LongAdder receivedRequests;
     private final Map<String, String> driverAssignments;
+    private final FleetIndex fleetIndex;
+    private final FleetStore fleetStore;
+    private final SpatialIndex spatialIndex;
+    private final JourneyPlanner journeyPlanner;
+    private final StopIndex stopIndex;
+    private final RouteListener routeIndexUpdater;
+    private final MaintenanceScheduler maintenanceScheduler;
+    private volatile LocationIngestionPipeline locationPipeline;
+    private volatile LocationHistoryStore locationHistory;
+    private volatile RequestDispatcher requestDispatcher;
+    private volatile ServiceJournal journal;
+    private final MetricsRegistry metrics;
+    private final LatencyHistogram requestLatency;
+    private final LatencyHistogram bestVehicleLatency;
+    private final LatencyHistogram scheduleLatency;
+    private final LatencyHistogram emergencyLatency;
+    private final Counter requestsRejected;
+    private final Counter tripsRejected;
+    private final Counter emergenciesUnserved;
+    private final AtomicLong modelVersion;
+    private final AtomicLong assignmentVersion;
+    private final SnapshotCache<ServiceStatistics> statisticsView;
+    private final SnapshotCache<Map<String, String>> assignmentView;
+    private final SnapshotCache<List<String>> requestView;
     
-    // Constructor
+    // Number of nearby candidates reported for an emergency
+    private static final int EMERGENCY_CANDIDATES = 3;
+    
+    // Pending requests kept before new ones are rejected
+    public static final int DEFAULT_REQUEST_QUEUE_CAPACITY = 10_000;
+    
+    // Constructors
     public TransportService() {
-        this.registeredUsers = new HashMap<>();
-        this.availableBuses = new HashMap<>();
-        this.availableVans = new HashMap<>();
-        this.routes = new HashMap<>();
-        this.transportRequests = new ArrayList<>();
-        this.driverAssignments = new HashMap<>();
+        this(DEFAULT_REQUEST_QUEUE_CAPACITY);
+    }
+    
+    public TransportService(int requestQueueCapacity) {
+        this(requestQueueCapacity, 16, 16, 16);
+    }
+    
+    // Presized for a model of known size, such as one loaded from a snapshot
+    public TransportService(int requestQueueCapacity, int expectedUsers, int expectedVehicles, int expectedRoutes) {
+        this.registeredUsers = new ConcurrentHashMap<>(expectedUsers);
+        this.availableBuses = new ConcurrentHashMap<>(expectedVehicles);
+        this.availableVans = new ConcurrentHashMap<>(expectedVehicles);
+        this.routes = new ConcurrentHashMap<>(expectedRoutes);
+        this.transportRequests = new RequestQueue(requestQueueCapacity);
+        this.requestSequence = new AtomicLong();
+        this.receivedRequests = new LongAdder();
+        this.driverAssignments = new ConcurrentHashMap<>();
+        this.fleetIndex = new FleetIndex();
+        this.fleetStore = new FleetStore();
+        this.spatialIndex = new SpatialIndex();
+        this.journal = ServiceJournal.DISABLED;
+        this.maintenanceScheduler = new MaintenanceScheduler();
+        this.modelVersion = new AtomicLong();
+        this.assignmentVersion = new AtomicLong();
+        // Each version only ever grows, so their sum changes whenever any of them does
+        this.statisticsView = new SnapshotCache<>(
+                () -> modelVersion.get() + fleetIndex.getVersion() + transportRequests.getVersion(),
+                this::buildStatistics);
+        this.assignmentView = new SnapshotCache<>(assignmentVersion::get, () -> Map.copyOf(driverAssignments));
+        this.requestView = new SnapshotCache<>(transportRequests::getVersion, this::buildTransportRequests);
+        this.metrics = new MetricsRegistry();
+        this.requestLatency = operationLatency("processTransportRequest");
+        this.bestVehicleLatency = operationLatency("findBestVehicle");
+        this.scheduleLatency = operationLatency("scheduleTransport");
+        this.emergencyLatency = operationLatency("handleEmergencyTransport");
+        this.requestsRejected = metrics.counter("transport_requests_rejected_total",
+                                                "Transport requests rejected because the dispatch queue was full");
+        this.tripsRejected = metrics.counter("transport_trips_rejected_total",
+                                             "Trips refused by the scheduling rules");
+        this.emergenciesUnserved = metrics.counter("transport_emergencies_unserved_total",
+                                                   "Emergency requests for which no vehicle could be found");
+        metrics.gauge("transport_dispatch_queue_depth", "Transport requests waiting for dispatch",
+                      () -> transportRequests.size());
+        metrics.gauge("transport_available_vehicles", "Vehicles that can currently be dispatched",
+                      () -> fleetIndex.getAvailableCount());
+        metrics.gauge("transport_fleet_vehicles", "Buses and vans in the fleet", () -> fleetIndex.size());
+        metrics.gauge("transport_registered_users", "Registered users", () -> registeredUsers.size());
+        // Derived indexes follow the fleet through events on the store's bus rather than rescanning it
+        fleetStore.getEventBus().subscribe(new VehicleListener() {
+            @Override
+            public void onStatusChanged(String vehicleId, VehicleStatus oldStatus, VehicleStatus newStatus) {
+                fleetIndex.setAvailable(vehicleId, isDispatchable(vehicleId, newStatus));
+            }
+        });
+        fleetStore.getEventBus().subscribe(new VehicleListener() {
+            @Override
+            public void onLocationChanged(String vehicleId, double latitude, double longitude) {
+                spatialIndex.update(vehicleId, latitude, longitude);
+            }
+        });
+        fleetStore.getEventBus().subscribe(new VehicleListener() {
+            @Override
+            public void onServiced(String vehicleId, long serviceTime) {
+                Vehicle vehicle = getVehicle(vehicleId);
+                if (vehicle != null) {
+                    maintenanceScheduler.recordService(vehicleId, vehicle.getServiceDueTime());
+                }
+            }
+            
+            @Override
+            public void onServiceDueChanged(String vehicleId, long serviceDueTime) {
+                maintenanceScheduler.updateDueTime(vehicleId, serviceDueTime);
+            }
+        });
+        fleetStore.getEventBus().subscribe(new VehicleListener() {
+            @Override
+            public void onStatusChanged(String vehicleId, VehicleStatus oldStatus, VehicleStatus newStatus) {
+                journal.vehicleStatusChanged(vehicleId, newStatus.getLabel());
+            }
+            
+            @Override
+            public void onServiced(String vehicleId, long serviceTime) {
+                journal.vehicleServiced(vehicleId, serviceTime);
+            }
+            
+            @Override
+            public void onTripScheduled(String vehicleId, ScheduledTrip trip) {
+                journal.tripScheduled(vehicleId, trip);
+            }
+            
+            @Override
+            public void onTripUpdated(String vehicleId, ScheduledTrip trip) {
+                journal.tripUpdated(vehicleId, trip);
+            }
+            
+            @Override
+            public void onTripCancelled(String vehicleId, String tripId) {
+                journal.tripCancelled(vehicleId, tripId);
+            }
+        });
+        this.journeyPlanner = new JourneyPlanner(routes::values);
+        this.stopIndex = new StopIndex();
+        this.routeIndexUpdater = new RouteListener() {
+            @Override
+            public void onStopAdded(Route route, String stopPoint) {
+                stopIndex.add(stopPoint, route.getRouteId());
+                journeyPlanner.invalidate();
+                journal.routeStopAdded(route.getRouteId(), stopPoint);
+            }
+            
+            @Override
+            public void onStopRemoved(Route route, String stopPoint) {
+                // The stop may still be the route's start or end location
+                if (!route.hasStopPoint(stopPoint)) {
+                    stopIndex.remove(stopPoint, route.getRouteId());
+                }
+                journeyPlanner.invalidate();
+                journal.routeStopRemoved(route.getRouteId(), stopPoint);
+            }
+            
+            @Override
+            public void onVehicleAssigned(Route route, String vehicleId) {
+                journal.routeVehicleAssigned(route.getRouteId(), vehicleId);
+            }
+            
+            @Override
+            public void onVehicleUnassigned(Route route, String vehicleId) {
+                journal.routeVehicleUnassigned(route.getRouteId(), vehicleId);
+            }
+            
+            @Override
+            public void onActiveChanged(Route route, boolean active) {
+                journeyPlanner.invalidate();
+                journal.routeActiveChanged(route.getRouteId(), active);
+            }
+            
+            @Override
+            public void onTravelTimeChanged(Route route, int estimatedTravelTime) {
+                journeyPlanner.invalidate();
+                journal.routeTravelTimeChanged(route.getRouteId(), estimatedTravelTime);
+            }
+        };
+        // Due vehicles leave the dispatch pool until they are serviced
+        this.maintenanceScheduler.addMaintenanceListener(new MaintenanceListener() {
+            @Override
+            public void onServiceDue(String vehicleId, long dueTime) {
+                fleetIndex.setAvailable(vehicleId, false);
+                Vehicle vehicle = getVehicle(vehicleId);
+                if (vehicle != null) {
+                    vehicle.compareAndTransition(VehicleStatus.AVAILABLE, VehicleStatus.IN_MAINTENANCE);
+                }
+                System.out.println("Service due for vehicle " + vehicleId + " - withdrawn from dispatch");
+            }
+            
+            @Override
+            public void onServiceCompleted(String vehicleId, long nextDueTime) {
+                Vehicle vehicle = getVehicle(vehicleId);
+                if (vehicle != null
+                        && !vehicle.compareAndTransition(VehicleStatus.IN_MAINTENANCE, VehicleStatus.AVAILABLE)) {
+                    fleetIndex.setAvailable(vehicleId, isDispatchable(vehicleId, vehicle.getStatus()));
+                }
+                System.out.println("Vehicle " + vehicleId + " serviced - next service due " + new Date(nextDueTime));
+            }
+        });
     }
     
     // Method Overloading - Different ways to assign drivers
     
     // 1. Assign driver by vehicle type only
     public String assignDriver(String vehicleType) {
+        DriverAssignmentEvent event = new DriverAssignmentEvent();
+        event.begin();
         String assignment = "Driver assigned to " + vehicleType + " - Auto-assignment based on availability";
-        driverAssignments.put(vehicleType + "_" + System.currentTimeMillis(), "Auto-assigned driver");
+        recordDriverAssignment(event, "byType", vehicleType + "_" + System.currentTimeMillis(), "Auto-assigned driver");
         System.out.println("Method Overloading Demo: " + assignment);
         return assignment;
     }
     
     // 2. Assign driver by vehicle type and shift time
     public String assignDriver(String vehicleType, String shiftTime) {
+        DriverAssignmentEvent event = new DriverAssignmentEvent();
+        event.begin();
         String assignment = "Driver assigned to " + vehicleType + " for " + shiftTime + " shift";
         String key = vehicleType + "_" + shiftTime;
-        driverAssignments.put(key, "Driver for " + shiftTime + " shift");
+        recordDriverAssignment(event, "byShift", key, "Driver for " + shiftTime + " shift");
         System.out.println("Method Overloading Demo: " + assignment);
         return assignment;
     }
     
     // 3. Assign specific driver to specific vehicle
     public String assignDriver(String vehicleId, String driverName, String driverLicense) {
+        DriverAssignmentEvent event = new DriverAssignmentEvent();
+        event.begin();
         String assignment = "Driver " + driverName + " (License: " + driverLicense + 
                            ") assigned to vehicle " + vehicleId;
-        driverAssignments.put(vehicleId, driverName);
+        recordDriverAssignment(event, "byDriver", vehicleId, driverName);
         System.out.println("Method Overloading Demo: " + assignment);
         return assignment;
     }
     
     // 4. Assign driver with priority and special requirements
     public String assignDriver(String vehicleType, String shiftTime, String priority, String[] specialRequirements) {
+        DriverAssignmentEvent event = new DriverAssignmentEvent();
+        event.begin();
         String assignment = "Priority " + priority + " driver assigned to " + vehicleType + 
                            " for " + shiftTime + " shift with special requirements: " + 
                            Arrays.toString(specialRequirements);
         String key = vehicleType + "_" + shiftTime + "_" + priority;
-        driverAssignments.put(key, "Specialized driver");
+        recordDriverAssignment(event, "withRequirements", key, "Specialized driver");
         System.out.println("Method Overloading Demo: " + assignment);
         return assignment;
     }
     
     // 5. Emergency driver assignment
     public String assignDriver(String vehicleId, String emergencyType, boolean isUrgent) {
+        DriverAssignmentEvent event = new DriverAssignmentEvent();
+        event.begin();
         String assignment = (isUrgent ? "URGENT " : "") + "Emergency driver assigned to vehicle " + 
                            vehicleId + " for " + emergencyType;
-        driverAssignments.put(vehicleId + "_emergency", "Emergency driver");
+        recordDriverAssignment(event, "emergency", vehicleId + "_emergency", "Emergency driver");
         System.out.println("Method Overloading Demo: " + assignment);
         return assignment;
     }
     
-    // Vehicle management methods
+    private void recordDriverAssignment(DriverAssignmentEvent event, String overload, String key, String driver) {
+        driverAssignments.put(key, driver);
+        assignmentVersion.incrementAndGet();
+        modelVersion.incrementAndGet();
+        journal.driverAssigned(key, driver);
+        journal.commit();
+        event.complete(overload, key, driver);
+    }
+    
+    // Vehicle management methods; ids are unique across buses and vans
     public void addBus(Bus bus) {
-        availableBuses.put(bus.getVehicleId(), bus);
+        indexBus(bus);
+        journal.busAdded(bus);
+        journal.commit();
         System.out.println("Bus " + bus.getVehicleId() + " added to transport service");
     }
     
     public void addVan(Van van) {
-        availableVans.put(van.getVehicleId(), van);
+        indexVan(van);
+        journal.vanAdded(van);
+        journal.commit();
         System.out.println("Van " + van.getVehicleId() + " added to transport service");
     }
     
     public void addRoute(Route route) {
-        routes.put(route.getRouteId(), route);
+        indexRoute(route);
+        journeyPlanner.invalidate();
+        journal.routeAdded(route);
+        journal.commit();
         System.out.println("Route " + route.getRouteId() + " added to transport service");
     }
     
+    // Bulk loading: adds a whole model at once, without console output or journaling
+    public void restoreModel(Collection<User> users, Collection<Bus> buses, Collection<Van> vans,
+                             Collection<Route> routeList, Map<String, String> assignments,
+                             Collection<TransportRequest> pendingRequests) {
+        for (User user : users) {
+            registeredUsers.put(user.getUserId(), user);
+        }
+        for (Bus bus : buses) {
+            indexBus(bus);
+        }
+        for (Van van : vans) {
+            indexVan(van);
+        }
+        for (Route route : routeList) {
+            indexRoute(route);
+        }
+        journeyPlanner.invalidate();
+        driverAssignments.putAll(assignments);
+        assignmentVersion.incrementAndGet();
+        for (TransportRequest request : pendingRequests) {
+            restoreTransportRequest(request);
+        }
+        modelVersion.incrementAndGet();
+    }
+    
+    private void indexBus(Bus bus) {
+        // Claims the id first, so a van cannot take over the entry of a bus with the same id
+        fleetIndex.add("Bus", bus.getVehicleId(), bus.getCapacity(),
+                       isDispatchable(bus.getVehicleId(), bus.getStatus()));
+        bus.attachTo(fleetStore);
+        Bus replaced = availableBuses.put(bus.getVehicleId(), bus);
+        if (replaced != null && replaced != bus) {
+            // The old object must stop publishing events under the id it no longer owns
+            replaced.detach();
+        }
+        modelVersion.incrementAndGet();
+        maintenanceScheduler.register(bus.getVehicleId(), bus);
+        spatialIndex.update(bus.getVehicleId(), bus.getLatitude(), bus.getLongitude());
+        if (locationPipeline != null) {
+            locationPipeline.register(bus.getVehicleId(), bus);
+        }
+    }
+    
+    private void indexVan(Van van) {
+        fleetIndex.add("Van", van.getVehicleId(), van.getCapacity(),
+                       isDispatchable(van.getVehicleId(), van.getStatus()));
+        van.attachTo(fleetStore);
+        Van replaced = availableVans.put(van.getVehicleId(), van);
+        if (replaced != null && replaced != van) {
+            // The old object must stop publishing events under the id it no longer owns
+            replaced.detach();
+        }
+        modelVersion.incrementAndGet();
+        maintenanceScheduler.register(van.getVehicleId(), van);
+        spatialIndex.update(van.getVehicleId(), van.getLatitude(), van.getLongitude());
+        if (locationPipeline != null) {
+            locationPipeline.register(van.getVehicleId(), van);
+        }
+    }
+    
+    private void indexRoute(Route route) {
+        Route replaced = routes.put(route.getRouteId(), route);
+        if (replaced != null && replaced != route) {
+            replaced.removeRouteListener(routeIndexUpdater);
+            stopIndex.removeRoute(replaced);
+        }
+        route.addRouteListener(routeIndexUpdater);
+        stopIndex.addRoute(route);
+        modelVersion.incrementAndGet();
+    }
+    
+    // Lookups by id; null when unknown
+    public Bus getBus(String vehicleId) {
+        return availableBuses.get(vehicleId);
+    }
+    
+    public Van getVan(String vehicleId) {
+        return availableVans.get(vehicleId);
+    }
+    
+    public Route getRoute(String routeId) {
+        return routes.get(routeId);
+    }
+    
+    // Live read-only views of the model, used for snapshots
+    public Collection<User> getRegisteredUsers() {
+        return Collections.unmodifiableCollection(registeredUsers.values());
+    }
+    
+    public Collection<Bus> getBuses() {
+        return Collections.unmodifiableCollection(availableBuses.values());
+    }
+    
+    public Collection<Van> getVans() {
+        return Collections.unmodifiableCollection(availableVans.values());
+    }
+    
+    public Collection<Route> getRoutes() {
+        return Collections.unmodifiableCollection(routes.values());
+    }
+    
+    // Maintenance: vehicles past their service due time are withdrawn from dispatch
+    public MaintenanceScheduler getMaintenanceScheduler() {
+        return maintenanceScheduler;
+    }
+    
+    public List<MaintenanceScheduler.DueEntry> checkMaintenance() {
+        return maintenanceScheduler.checkDue(System.currentTimeMillis());
+    }
+    
+    private boolean isDispatchable(String vehicleId, VehicleStatus status) {
+        return status.isDispatchable() && !maintenanceScheduler.isDue(vehicleId);
+    }
+    
+    private Vehicle getVehicle(String vehicleId) {
+        Bus bus = availableBuses.get(vehicleId);
+        return bus != null ? bus : availableVans.get(vehicleId);
+    }
+    
+    // Moves a vehicle along its lifecycle, e.g. into a trip and back; invalid transitions are refused
+    public String updateVehicleStatus(String vehicleId, VehicleStatus status) {
+        Vehicle vehicle = getVehicle(vehicleId);
+        if (vehicle == null) {
+            return "Vehicle not found";
+        }
+        try {
+            vehicle.transitionTo(status);
+        } catch (IllegalStateException e) {
+            return e.getMessage();
+        }
+        journal.commit();
+        return "Vehicle " + vehicleId + " is now " + status;
+    }
+    
+    // Moves a vehicle only while it is still in the expected status, so a stale update cannot
+    // undo a later claim, such as an emergency taking the vehicle before its trip ends
+    public String updateVehicleStatus(String vehicleId, VehicleStatus expected, VehicleStatus status) {
+        Vehicle vehicle = getVehicle(vehicleId);
+        if (vehicle == null) {
+            return "Vehicle not found";
+        }
+        if (!vehicle.compareAndTransition(expected, status)) {
+            return "Vehicle " + vehicleId + " is " + vehicle.getStatus() + ", not " + expected;
+        }
+        journal.commit();
+        return "Vehicle " + vehicleId + " is now " + status;
+    }
+    
     public void registerUser(User user) {
         registeredUsers.put(user.getUserId(), user);
+        modelVersion.incrementAndGet();
+        journal.userRegistered(user);
+        journal.commit();
         System.out.println("User " + user.getName() + " registered in transport service");
     }
     
+    // GPS ingestion: starts a pipeline that applies batched fixes to every registered vehicle
+    public synchronized LocationIngestionPipeline startLocationIngestion(int bufferCapacity) {
+        if (locationPipeline == null) {
+            locationPipeline = new LocationIngestionPipeline(bufferCapacity);
+            for (Bus bus : availableBuses.values()) {
+                locationPipeline.register(bus.getVehicleId(), bus);
+            }
+            for (Van van : availableVans.values()) {
+                locationPipeline.register(van.getVehicleId(), van);
+            }
+        }
+        locationPipeline.setHistoryStore(locationHistory);
+        locationPipeline.start();
+        return locationPipeline;
+    }
+    
+    // Keeps ingested fixes in a memory-mapped store for the retention period in the tracking guidelines;
+    // expired day segments are deleted once a day
+    public synchronized void enableLocationHistory(LocationHistoryStore historyStore) {
+        this.locationHistory = historyStore;
+        if (historyStore != null) {
+            historyStore.startRetention(1, TimeUnit.DAYS);
+        }
+        if (locationPipeline != null) {
+            locationPipeline.setHistoryStore(historyStore);
+        }
+    }
+    
+    public TrackPoint getVehiclePositionAt(String vehicleId, Date time) {
+        return locationHistory == null ? null : locationHistory.positionAt(vehicleId, time.getTime());
+    }
+    
+    public List<TrackPoint> getVehicleTrack(String vehicleId, Date from, Date to) {
+        return locationHistory == null ? new ArrayList<>() : locationHistory.track(vehicleId, from.getTime(), to.getTime());
+    }
+    
+    public synchronized void stopLocationIngestion() {
+        if (locationPipeline != null) {
+            locationPipeline.stop();
+        }
+    }
+    
+    public LocationIngestionPipeline getLocationIngestion() {
+        return locationPipeline;
+    }
+    
     // Transport request processing
     public String processTransportRequest(String userId, String destination, String time) {
+        return processTransportRequest(userId, destination, time, 1);
+    }
+    
+    public String processTransportRequest(String userId, String destination, String time, int passengerCount) {
+        long start = System.nanoTime();
+        try {
+            User user = registeredUsers.get(userId);
+            if (user != null) {
+                String description = user.requestTransport(destination, time);
+                TransportRequest request = createRequest(user, user.getTransportPriority(), destination, time,
+                                                         passengerCount, description);
+                if (!enqueue(request)) {
+                    requestsRejected.increment();
+                    return "Transport request rejected, dispatch queue is full: " + description;
+                }
+                return "Transport request processed: " + description;
+            }
+            return "User not found: " + userId;
+        } finally {
+            requestLatency.recordSince(start);
+        }
+    }
+    
+    // Urgent requests jump the queue for lecturers with transport privileges
+    public String processUrgentTransportRequest(String userId, String destination, String reason) {
         User user = registeredUsers.get(userId);
+        if (user instanceof Lecturer lecturer && lecturer.hasSpecialTransportPrivileges()) {
+            String description = lecturer.requestUrgentTransport(destination, reason);
+            TransportRequest request = createRequest(lecturer, TransportPriority.URGENT, destination, "now", 1, description);
+            if (!enqueue(request)) {
+                return "Transport request rejected, dispatch queue is full: " + description;
+            }
+            return "Urgent transport request processed: " + description;
+        }
         if (user != null) {
-            String request = user.requestTransport(destination, time);
-            transportRequests.add(request);
-            return "Transport request processed: " + request;
+            return processTransportRequest(userId, destination, "now");
         }
         return "User not found: " + userId;
     }
     
-    // Find best vehicle for request
-    public String findBestVehicle(String routeId, int passengerCount) {
-        Route route = routes.get(routeId);
+    private TransportRequest createRequest(User user, TransportPriority priority, String destination, String time,
+                                           int passengerCount, String description) {
+        return new TransportRequest(requestSequence.incrementAndGet(), user.getUserId(), priority, destination,
+                                    time, TransportRequest.parseMinuteOfDay(time), passengerCount, description,
+                                    System.currentTimeMillis(), System.nanoTime());
+    }
+    
+    private boolean enqueue(TransportRequest request) {
+        if (!transportRequests.offer(request)) {
+            return false;
+        }
+        receivedRequests.increment();
+        modelVersion.incrementAndGet();
+        journal.requestQueued(request);
+        journal.commit();
+        return true;
+    }
+    
+    // Persistence: every later mutation is reported to the journal; null disables journaling
+    public void setJournal(ServiceJournal journal) {
+        this.journal = journal != null ? journal : ServiceJournal.DISABLED;
+    }
+    
+    // Recovery support: restores state recorded by a journal without journaling it again
+    public void restoreDriverAssignment(String key, String driver) {
+        driverAssignments.put(key, driver);
+        assignmentVersion.incrementAndGet();
+        modelVersion.incrementAndGet();
+    }
+    
+    public boolean restoreTransportRequest(TransportRequest request) {
+        requestSequence.accumulateAndGet(request.requestId(), Math::max);
+        if (!transportRequests.offer(request)) {
+            return false;
+        }
+        receivedRequests.increment();
+        modelVersion.incrementAndGet();
+        return true;
+    }
+    
+    public void removePendingRequests(Collection<Long> requestIds) {
+        transportRequests.removeAll(requestIds);
+    }
+    
+    // Request dispatch: worker threads drain the queue into vehicle assignments
+    public synchronized RequestDispatcher startRequestDispatch(int workerCount) {
+        if (requestDispatcher == null) {
+            requestDispatcher = new RequestDispatcher(this, transportRequests, workerCount);
+        }
+        requestDispatcher.start();
+        return requestDispatcher;
+    }
+    
+    public synchronized void stopRequestDispatch() {
+        if (requestDispatcher != null) {
+            requestDispatcher.stop();
+        }
+    }
+    
+    public RequestQueue getRequestQueue() {
+        return transportRequests;
+    }
+    
+    // Picks a route serving the destination and claims the smallest available vehicle for the group,
+    // preferring vehicles already assigned to that route. A claim books the request's trip window on
+    // the vehicle, from the requested time (or now) for the route's travel time: concurrent workers can
+    // never book the same window twice, and the vehicle stays Available for other windows and is free
+    // again once the trip has ended. The request is journaled as taken only once a vehicle is claimed;
+    // with no route or no vehicle it is reported unassigned and left for the caller to queue again.
+    // The take is journaled but not committed: workers never wait for the disk, and the next group
+    // commit makes it durable
+    public RequestAssignment dispatchRequest(TransportRequest request, long queueWaitNanos) {
+        Route route = findRouteServing(request.destination());
         if (route == null) {
-            return "Route not found: " + routeId;
+            return new RequestAssignment(request, null, null, queueWaitNanos);
         }
-        
-        // Check buses first
-        for (Bus bus : availableBuses.values()) {
-            if (bus.getCapacity() >= passengerCount && bus.getScheduleStatus().equals("Available")) {
-                return "Bus " + bus.getVehicleId() + " recommended (Capacity: " + bus.getCapacity() + ")";
+        long departure = requestedDeparture(request, System.currentTimeMillis());
+        String vehicleId = claimRouteVehicle(route, request.passengerCount(), departure);
+        if (vehicleId == null) {
+            for (FleetIndex.Entry vehicle : fleetIndex.availableWithCapacity(request.passengerCount())) {
+                if (claimTrip(vehicle.vehicleId(), route, departure) != null) {
+                    vehicleId = vehicle.vehicleId();
+                    break;
+                }
             }
         }
-        
-        // Check vans
-        for (Van van : availableVans.values()) {
-            if (van.getCapacity() >= passengerCount && van.getScheduleStatus().equals("Available")) {
-                return "Van " + van.getVehicleId() + " recommended (Capacity: " + van.getCapacity() + ")";
+        if (vehicleId != null) {
+            journal.requestsTaken(List.of(request.requestId()));
+        }
+        return new RequestAssignment(request, route.getRouteId(), vehicleId, queueWaitNanos);
+    }
+    
+    // Puts back a request dispatch could not assign; false when the queue has filled up meanwhile,
+    // in which case the request is dropped and journaled as taken so recovery does not revive it
+    public boolean requeueRequest(TransportRequest request) {
+        if (transportRequests.offer(request)) {
+            modelVersion.incrementAndGet();
+            return true;
+        }
+        journal.requestsTaken(List.of(request.requestId()));
+        System.out.println("Request #" + request.requestId() + " dropped: request queue is full");
+        return false;
+    }
+    
+    // Smallest vehicle on the route that fits the group and could be claimed, or null
+    private String claimRouteVehicle(Route route, int passengerCount, long departure) {
+        List<String> candidates = new ArrayList<>();
+        for (String assignedId : route.getAssignedVehicles()) {
+            if (getVehicleCapacity(assignedId) >= passengerCount && fleetIndex.isAvailable(assignedId)) {
+                candidates.add(assignedId);
+            }
+        }
+        candidates.sort(Comparator.comparingInt(this::getVehicleCapacity).thenComparing(Comparator.naturalOrder()));
+        for (String candidate : candidates) {
+            if (claimTrip(candidate, route, departure) != null) {
+                return candidate;
             }
         }
+        return null;
+    }
+    
+    // Books the route's trip window from departure on the vehicle; null when the vehicle is gone,
+    // not Available, or the window is taken or breaks a scheduling rule
+    private ScheduledTrip claimTrip(String vehicleId, Route route, long departure) {
+        Vehicle vehicle = getVehicle(vehicleId);
+        if (vehicle == null) {
+            return null;
+        }
+        Date departureTime = new Date(departure);
+        Date arrivalTime = new Date(departure + TimeUnit.MINUTES.toMillis(Math.max(1, route.getEstimatedTravelTime())));
+        // Checked first so busy candidates are skipped quietly; scheduleTrip re-checks under the vehicle's lock
+        if (!vehicle.isAvailable(departureTime, arrivalTime)) {
+            return null;
+        }
+        return vehicle.scheduleTrip(route.getRouteName(), departureTime, arrivalTime, false).trip();
+    }
+    
+    // The requested time of day today, or now when it has passed or could not be parsed
+    private static long requestedDeparture(TransportRequest request, long now) {
+        if (request.requestedMinute() < 0) {
+            return now;
+        }
+        ZoneId zone = SchedulingRules.DEFAULT.zone();
+        long requested = Instant.ofEpochMilli(now).atZone(zone).toLocalDate().atStartOfDay(zone)
+                                .plusMinutes(request.requestedMinute()).toInstant().toEpochMilli();
+        return Math.max(now, requested);
+    }
+    
+    // Batch dispatch: plans the first maxRequests pending requests together, then applies the plan.
+    // Each planned vehicle is claimed with one trip for its requests, departing at the earliest time
+    // among them, and only then are the requests taken out of the queue; requests left unrouted or
+    // unassigned, or whose vehicle could not be claimed, stay queued. The plan returned reports what
+    // was actually applied
+    public DispatchPlan dispatchPendingRequests(int maxRequests) {
+        List<TransportRequest> pending = transportRequests.snapshot();
+        DispatchPlan plan = planBatchDispatch(pending.subList(0, Math.min(maxRequests, pending.size())));
         
-        return "No suitable vehicle available for " + passengerCount + " passengers";
+        Map<String, List<RequestAssignment>> requestsByVehicle = new LinkedHashMap<>();
+        for (RequestAssignment assignment : plan.assignments()) {
+            if (assignment.isAssigned()) {
+                requestsByVehicle.computeIfAbsent(assignment.vehicleId(), id -> new ArrayList<>()).add(assignment);
+            }
+        }
+        long now = System.currentTimeMillis();
+        List<Long> taken = new ArrayList<>();
+        for (Map.Entry<String, List<RequestAssignment>> planned : requestsByVehicle.entrySet()) {
+            String vehicleId = planned.getKey();
+            Route route = routes.get(planned.getValue().get(0).routeId());
+            List<Long> requestIds = new ArrayList<>();
+            long departure = Long.MAX_VALUE;
+            for (RequestAssignment assignment : planned.getValue()) {
+                requestIds.add(assignment.request().requestId());
+                departure = Math.min(departure, requestedDeparture(assignment.request(), now));
+            }
+            ScheduledTrip trip = route != null ? claimTrip(vehicleId, route, departure) : null;
+            if (trip == null) {
+                continue;
+            }
+            List<TransportRequest> requests = transportRequests.take(requestIds);
+            if (requests.isEmpty()) {
+                // Every request went to another consumer first; the trip is not needed after all
+                getVehicle(vehicleId).cancelScheduledTrip(trip.tripId());
+            }
+            for (TransportRequest request : requests) {
+                taken.add(request.requestId());
+            }
+        }
+        journal.requestsTaken(taken);
+        journal.commit();
+        return appliedPlan(plan, new HashSet<>(taken));
     }
     
-    // Schedule management
-    public String scheduleTransport(String vehicleId, String routeId, Date departureTime, Date arrivalTime) {
-        // Check if it's a bus
-        if (availableBuses.containsKey(vehicleId)) {
-            Bus bus = availableBuses.get(vehicleId);
+    // The plan with assignments that were not applied turned into unassigned ones
+    private DispatchPlan appliedPlan(DispatchPlan plan, Set<Long> dispatched) {
+        List<RequestAssignment> assignments = new ArrayList<>(plan.assignments().size());
+        Map<String, Integer> seatsUsed = new LinkedHashMap<>();
+        for (RequestAssignment assignment : plan.assignments()) {
+            TransportRequest request = assignment.request();
+            if (assignment.isAssigned() && dispatched.contains(request.requestId())) {
+                assignments.add(assignment);
+                seatsUsed.merge(assignment.vehicleId(), request.passengerCount(), Integer::sum);
+            } else {
+                assignments.add(new RequestAssignment(request, assignment.routeId(), null, 0));
+            }
+        }
+        int passengers = 0;
+        int seatsOffered = 0;
+        for (Map.Entry<String, Integer> vehicle : seatsUsed.entrySet()) {
+            passengers += vehicle.getValue();
+            seatsOffered += getVehicleCapacity(vehicle.getKey());
+        }
+        DispatchPlan.Outcome applied = new DispatchPlan.Outcome(passengers, seatsOffered, seatsUsed.size(),
+                                                                assignments.size() - dispatched.size());
+        return new DispatchPlan(assignments, seatsUsed, applied, plan.firstFit());
+    }
+    
+    // Plans a window without claiming vehicles or touching the queue
+    public DispatchPlan planBatchDispatch(List<TransportRequest> window) {
+        return new BatchDispatchSolver(this).solve(window);
+    }
+    
+    FleetIndex getFleetIndex() {
+        return fleetIndex;
+    }
+    
+    // Column store holding the state of every bus and van in the fleet, for fleet-wide scans
+    public FleetStore getFleetStore() {
+        return fleetStore;
+    }
+    
+    // Active routes that stop at the location, looked up in the stop index
+    public List<Route> findRoutesServing(String stop) {
+        List<Route> serving = new ArrayList<>();
+        for (String routeId : stopIndex.getRouteIds(stop)) {
             Route route = routes.get(routeId);
-            if (route != null) {
-                bus.scheduleTrip(route.getRouteName(), departureTime, arrivalTime);
-                return "Transport scheduled: Bus " + vehicleId + " on route " + routeId;
+            if (route != null && route.isActive()) {
+                serving.add(route);
             }
         }
-        
-        // Check if it's a van
-        if (availableVans.containsKey(vehicleId)) {
-            Van van = availableVans.get(vehicleId);
+        return serving;
+    }
+    
+    Route findRouteServing(String destination) {
+        for (String routeId : stopIndex.getRouteIds(destination)) {
             Route route = routes.get(routeId);
-            if (route != null) {
-                van.scheduleTrip(route.getRouteName(), departureTime, arrivalTime);
-                return "Transport scheduled: Van " + vehicleId + " on route " + routeId;
+            if (route != null && route.isActive()) {
+                return route;
             }
         }
-        
-        return "Vehicle or route not found";
+        return null;
     }
     
-    // Service statistics
-    public String getServiceStatistics() {
-        StringBuilder stats = new StringBuilder();
-        stats.append("Transport Service Statistics:\n");
-        stats.append("Registered Users: ").append(registeredUsers.size()).append("\n");
-        stats.append("Available Buses: ").append(availableBuses.size()).append("\n");
-        stats.append("Available Vans: ").append(availableVans.size()).append("\n");
-        stats.append("Active Routes: ").append(routes.size()).append("\n");
-        stats.append("Transport Requests: ").append(transportRequests.size()).append("\n");
-        stats.append("Driver Assignments: ").append(driverAssignments.size()).append("\n");
-        
-        return stats.toString();
+    private int getVehicleCapacity(String vehicleId) {
+        Bus bus = availableBuses.get(vehicleId);
+        if (bus != null) {
+            return bus.getCapacity();
+        }
+        Van van = availableVans.get(vehicleId);
+        return van != null ? van.getCapacity() : -1;
     }
     
-    // Get all available vehicles
-    public List<String> getAvailableVehicles() {
-        List<String> vehicles = new ArrayList<>();
-        
+    // Journey planning across routes, with transfers where needed
+    public Journey planJourney(String origin, String destination) {
+        return journeyPlanner.plan(origin, destination);
+    }
+    
+    // Find best vehicle for request
+    public String findBestVehicle(String routeId, int passengerCount) {
+        long start = System.nanoTime();
+        try {
+            Route route = routes.get(routeId);
+            if (route == null) {
+                return "Route not found: " + routeId;
+            }
+            
+            // Smallest available bus or van that fits the group
+            VehicleSelectionEvent event = new VehicleSelectionEvent();
+            event.begin();
+            FleetIndex.Entry vehicle = fleetIndex.findSmallestAvailable(passengerCount);
+            event.complete("smallestFit", routeId, passengerCount, fleetIndex.getAvailableCount(),
+                           vehicle != null ? vehicle.vehicleId() : null);
+            if (vehicle != null) {
+                return vehicle.vehicleType() + " " + vehicle.vehicleId() + 
+                       " recommended (Capacity: " + vehicle.capacity() + ")";
+            }
+            
+            return "No suitable vehicle available for " + passengerCount + " passengers";
+        } finally {
+            bestVehicleLatency.recordSince(start);
+        }
+    }
+    
+    // Schedule management
+    public String scheduleTransport(String vehicleId, String routeId, Date departureTime, Date arrivalTime) {
+        return scheduleTransport(vehicleId, routeId, departureTime, arrivalTime, false);
+    }
+    
+    // Emergency trips are exempt from the gap and daily limit rules
+    public String scheduleTransport(String vehicleId, String routeId, Date departureTime, Date arrivalTime,
+                                    boolean emergency) {
+        long start = System.nanoTime();
+        try {
+            // Check if it's a bus
+            if (availableBuses.containsKey(vehicleId)) {
+                Bus bus = availableBuses.get(vehicleId);
+                Route route = routes.get(routeId);
+                if (route != null) {
+                    if (bus.getStatus() != VehicleStatus.AVAILABLE) {
+                        return "Bus " + vehicleId + " is not available between " + departureTime + 
+                               " and " + arrivalTime;
+                    }
+                    ScheduleCheck check = bus.scheduleTrip(route.getRouteName(), departureTime, arrivalTime, emergency);
+                    if (!check.isAccepted()) {
+                        tripsRejected.increment();
+                        return "Bus " + vehicleId + " cannot take a trip between " + departureTime + 
+                               " and " + arrivalTime + " - " + check.describe();
+                    }
+                    journal.commit();
+                    return "Transport scheduled: Bus " + vehicleId + " on route " + routeId;
+                }
+            }
+            
+            // Check if it's a van
+            if (availableVans.containsKey(vehicleId)) {
+                Van van = availableVans.get(vehicleId);
+                Route route = routes.get(routeId);
+                if (route != null) {
+                    if (van.getStatus() != VehicleStatus.AVAILABLE) {
+                        return "Van " + vehicleId + " is not available between " + departureTime + 
+                               " and " + arrivalTime;
+                    }
+                    ScheduleCheck check = van.scheduleTrip(route.getRouteName(), departureTime, arrivalTime, emergency);
+                    if (!check.isAccepted()) {
+                        tripsRejected.increment();
+                        return "Van " + vehicleId + " cannot take a trip between " + departureTime + 
+                               " and " + arrivalTime + " - " + check.describe();
+                    }
+                    journal.commit();
+                    return "Transport scheduled: Van " + vehicleId + " on route " + routeId;
+                }
+            }
+            
+            return "Vehicle or route not found";
+        } finally {
+            scheduleLatency.recordSince(start);
+        }
+    }
+    
+    // Plans a full day on the dispatchable fleet; nothing is scheduled until the plan is applied
+    public TimetableOptimizer.Plan optimiseTimetable(List<TimetableOptimizer.RouteDemand> demand, Date day) {
+        List<Bus> buses = new ArrayList<>();
         for (Bus bus : availableBuses.values()) {
-            if (bus.getScheduleStatus().equals("Available")) {
-                vehicles.add("Bus: " + bus.getVehicleId() + " (Capacity: " + bus.getCapacity() + ")");
+            if (isDispatchable(bus.getVehicleId(), bus.getStatus())) {
+                buses.add(bus);
             }
         }
-        
+        List<Van> vans = new ArrayList<>();
         for (Van van : availableVans.values()) {
-            if (van.getScheduleStatus().equals("Available")) {
-                vehicles.add("Van: " + van.getVehicleId() + " (Capacity: " + van.getCapacity() + ")");
+            if (isDispatchable(van.getVehicleId(), van.getStatus())) {
+                vans.add(van);
             }
         }
-        
+        buses.sort(Comparator.comparing(Bus::getVehicleId));
+        vans.sort(Comparator.comparing(Van::getVehicleId));
+        return new TimetableOptimizer(SchedulingRules.DEFAULT)
+                .optimise(routes.values(), demand, buses, vans, day.getTime());
+    }
+    
+    // Schedules every entry of a timetable; returns how many trips were accepted
+    public int applyTimetable(List<TimetableValidator.Entry> timetable) {
+        int scheduled = 0;
+        for (TimetableValidator.Entry entry : timetable) {
+            String result = scheduleTransport(entry.vehicleId(), entry.route(), entry.departureTime(),
+                                              entry.arrivalTime(), entry.emergency());
+            if (result.startsWith("Transport scheduled")) {
+                scheduled++;
+            }
+        }
+        return scheduled;
+    }
+    
+    // Checks an imported timetable against the rules and the trips already on each vehicle
+    public TimetableValidator.Report validateTimetable(List<TimetableValidator.Entry> timetable) {
+        return new TimetableValidator(SchedulingRules.DEFAULT).validate(timetable, vehicleId -> {
+            Bus bus = availableBuses.get(vehicleId);
+            if (bus != null) {
+                return bus.getTrips();
+            }
+            Van van = availableVans.get(vehicleId);
+            return van != null ? van.getTrips() : List.of();
+        });
+    }
+    
+    public MetricsRegistry getMetrics() {
+        return metrics;
+    }
+    
+    private LatencyHistogram operationLatency(String operation) {
+        return metrics.histogram("transport_operation_duration_seconds",
+                                 "Time spent in TransportService operations", "operation", operation);
+    }
+    
+    // Service statistics; rebuilt only after a change, otherwise the previous report is returned
+    public String getServiceStatistics() {
+        return getStatisticsSnapshot().report();
+    }
+    
+    public ServiceStatistics getStatisticsSnapshot() {
+        return statisticsView.get();
+    }
+    
+    private ServiceStatistics buildStatistics() {
+        return ServiceStatistics.of(
+                registeredUsers.size(), availableBuses.size(), availableVans.size(), routes.size(),
+                receivedRequests.sum(), transportRequests.size(), driverAssignments.size(),
+                fleetIndex.getAvailableCount());
+    }
+    
+    // Latency percentiles come from the live histograms, so this report is built on every call
+    public String getOperationLatencies() {
+        StringBuilder stats = new StringBuilder();
+        appendLatency(stats, "processTransportRequest", requestLatency);
+        appendLatency(stats, "findBestVehicle", bestVehicleLatency);
+        appendLatency(stats, "scheduleTransport", scheduleLatency);
+        appendLatency(stats, "handleEmergencyTransport", emergencyLatency);
+        return stats.toString();
+    }
+    
+    private static void appendLatency(StringBuilder stats, String operation, LatencyHistogram histogram) {
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        stats.append(operation).append(": ").append(snapshot.count()).append(" calls");
+        if (snapshot.count() > 0) {
+            stats.append(String.format(", p50 %.3f ms, p99 %.3f ms, max %.3f ms",
+                                       snapshot.valueAt(0.5) / 1e6, snapshot.valueAt(0.99) / 1e6, snapshot.max() / 1e6));
+        }
+        stats.append("\n");
+    }
+    
+    // Get all available vehicles; an immutable list the fleet index patches on every change
+    public List<String> getAvailableVehicles() {
+        return fleetIndex.getAvailableLabels();
+    }
+    
+    // Ids of the vehicles currently in the given status, read from the fleet store columns
+    public List<String> getVehiclesInStatus(VehicleStatus status) {
+        List<String> vehicles = new ArrayList<>();
+        fleetStore.forEachWithStatus(status, vehicle -> vehicles.add(vehicle.getVehicleId()));
         return vehicles;
     }
     
-    // Get driver assignments
+    // Get driver assignments as an immutable snapshot
     public Map<String, String> getDriverAssignments() {
-        return new HashMap<>(driverAssignments);
+        return assignmentView.get();
     }
     
-    // Get transport requests
+    // Get pending transport requests in dispatch order, shared until the queue changes
     public List<String> getTransportRequests() {
-        return new ArrayList<>(transportRequests);
+        return requestView.get();
+    }
+    
+    private List<String> buildTransportRequests() {
+        List<String> requests = new ArrayList<>();
+        for (TransportRequest request : transportRequests.snapshot()) {
+            requests.add(request.description());
+        }
+        return List.copyOf(requests);
     }
     
     // Emergency transport handling
     public String handleEmergencyTransport(String userId, String destination, String emergencyType) {
-        User user = registeredUsers.get(userId);
-        if (user != null) {
-            // Find nearest available vehicle
-            String vehicleId = findEmergencyVehicle();
-            if (vehicleId != null) {
-                String assignment = assignDriver(vehicleId, emergencyType, true);
-                return "Emergency transport arranged: " + user.getName() + " to " + destination + 
-                       " using " + vehicleId + ". " + assignment;
+        return dispatchEmergency(userId, destination, emergencyType).message();
+    }
+    
+    // Emergency transport handling with the caller's position
+    public String handleEmergencyTransport(String userId, String destination, String emergencyType, 
+                                           double latitude, double longitude) {
+        return dispatchEmergency(userId, destination, emergencyType, latitude, longitude).message();
+    }
+    
+    // As handleEmergencyTransport, also reporting which vehicle was claimed
+    public EmergencyDispatch dispatchEmergency(String userId, String destination, String emergencyType) {
+        long start = System.nanoTime();
+        try {
+            User user = registeredUsers.get(userId);
+            if (user != null) {
+                // Find nearest available vehicle
+                String vehicleId = findEmergencyVehicle();
+                if (vehicleId != null) {
+                    String assignment = assignDriver(vehicleId, emergencyType, true);
+                    return new EmergencyDispatch(vehicleId, List.of(),
+                            "Emergency transport arranged: " + user.getName() + " to " + destination + 
+                            " using " + vehicleId + ". " + assignment);
+                }
             }
+            emergenciesUnserved.increment();
+            return new EmergencyDispatch(null, List.of(), "Emergency transport could not be arranged");
+        } finally {
+            emergencyLatency.recordSince(start);
         }
-        return "Emergency transport could not be arranged";
     }
     
-    private String findEmergencyVehicle() {
-        // Priority: Special purpose vans, then any available vehicle
-        for (Van van : availableVans.values()) {
-            if (van.isSpecialPurpose() && van.getScheduleStatus().equals("Available")) {
-                return van.getVehicleId();
+    // As handleEmergencyTransport with a position, also reporting the candidates the choice was made from
+    public EmergencyDispatch dispatchEmergency(String userId, String destination, String emergencyType,
+                                               double latitude, double longitude) {
+        long start = System.nanoTime();
+        try {
+            User user = registeredUsers.get(userId);
+            List<SpatialIndex.Neighbor> nearest = List.of();
+            if (user != null) {
+                VehicleSelectionEvent event = new VehicleSelectionEvent();
+                event.begin();
+                nearest = findNearestAvailableVehicles(latitude, longitude, EMERGENCY_CANDIDATES);
+                // The closest candidate that can still be claimed takes the emergency
+                SpatialIndex.Neighbor closest = null;
+                for (SpatialIndex.Neighbor neighbor : nearest) {
+                    Vehicle vehicle = getVehicle(neighbor.vehicleId());
+                    if (vehicle != null && vehicle.compareAndTransition(VehicleStatus.AVAILABLE, VehicleStatus.EMERGENCY)) {
+                        closest = neighbor;
+                        break;
+                    }
+                }
+                event.complete("nearest", null, 1, nearest.size(), closest == null ? null : closest.vehicleId());
+                if (closest != null) {
+                    String assignment = assignDriver(closest.vehicleId(), emergencyType, true);
+                    StringBuilder result = new StringBuilder();
+                    result.append("Emergency transport arranged: ").append(user.getName()).append(" to ")
+                          .append(destination).append(" using ").append(closest.vehicleId()).append(". ")
+                          .append(assignment).append(". Nearest vehicles:");
+                    for (SpatialIndex.Neighbor neighbor : nearest) {
+                        result.append(" ").append(neighbor.vehicleId())
+                              .append(String.format(" (%.2f km)", neighbor.distanceKm()));
+                    }
+                    return new EmergencyDispatch(closest.vehicleId(), nearest, result.toString());
+                }
             }
+            emergenciesUnserved.increment();
+            return new EmergencyDispatch(null, nearest, "Emergency transport could not be arranged");
+        } finally {
+            emergencyLatency.recordSince(start);
         }
-        
-        for (Bus bus : availableBuses.values()) {
-            if (bus.getScheduleStatus().equals("Available")) {
-                return bus.getVehicleId();
+    }
+    
+    // k nearest vehicles that are currently available, closest first
+    public List<SpatialIndex.Neighbor> findNearestAvailableVehicles(double latitude, double longitude, int k) {
+        return spatialIndex.findNearest(latitude, longitude, k, fleetIndex::isAvailable);
+    }
+    
+    private String findEmergencyVehicle() {
+        VehicleSelectionEvent event = new VehicleSelectionEvent();
+        event.begin();
+        // Priority: Special purpose vans, then any available bus; both are scans of the status and flag columns,
+        // skipping vehicles due for service as dispatch does. The vehicle found is claimed for the emergency,
+        // and a vehicle claimed by someone else meanwhile is skipped
+        Predicate<Vehicle> inService = candidate -> !maintenanceScheduler.isDue(candidate.getVehicleId());
+        Vehicle vehicle;
+        do {
+            vehicle = fleetStore.findFirst(VehicleStatus.AVAILABLE, FleetStore.SPECIAL_PURPOSE, (byte) 0, inService);
+            if (vehicle == null) {
+                vehicle = fleetStore.findFirst(VehicleStatus.AVAILABLE, (byte) 0, FleetStore.VAN, inService);
             }
-        }
-        
-        return null;
+        } while (vehicle != null && !vehicle.compareAndTransition(VehicleStatus.AVAILABLE, VehicleStatus.EMERGENCY));
+        String vehicleId = vehicle == null ? null : vehicle.getVehicleId();
+        event.complete("emergency", null, 1, fleetStore.size(), vehicleId);
+        return vehicleId;
     }
 }
\ No newline at end of file
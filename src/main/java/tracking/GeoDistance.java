@@ -0,0 +1,108 @@
+package tracking;
+
+/**
+ * GeoDistance class for great-circle distances between GPS fixes
+ * Haversine is exact on a spherical earth; the equirectangular projection is within
+ * a fraction of a percent for hops of a few kilometres and needs a single cosine.
+ * distanceKm picks the projection for short hops and Haversine otherwise. The batch
+ * methods work on primitive arrays in plain loops, for callers that have whole
+ * columns of fixes at once; they save per-fix call and allocation overhead, but the
+ * trigonometric calls in the loop body keep them scalar
+ */
+public final class GeoDistance {
+    
+    public static final double EARTH_RADIUS_KM = 6371.0088;
+    
+    // Hops shorter than this in both latitude and longitude use the projection (~11 km)
+    public static final double SHORT_HOP_DEGREES = 0.1;
+    
+    private static final double RADIANS_PER_DEGREE = Math.PI / 180.0;
+    
+    private GeoDistance() {
+    }
+    
+    public static double haversineKm(double latitude1, double longitude1, double latitude2, double longitude2) {
+        double phi1 = latitude1 * RADIANS_PER_DEGREE;
+        double phi2 = latitude2 * RADIANS_PER_DEGREE;
+        double sinHalfDLat = Math.sin((phi2 - phi1) * 0.5);
+        double sinHalfDLon = Math.sin((longitude2 - longitude1) * RADIANS_PER_DEGREE * 0.5);
+        double h = sinHalfDLat * sinHalfDLat + Math.cos(phi1) * Math.cos(phi2) * sinHalfDLon * sinHalfDLon;
+        return 2.0 * EARTH_RADIUS_KM * Math.asin(Math.sqrt(Math.min(1.0, h)));
+    }
+    
+    public static double equirectangularKm(double latitude1, double longitude1, double latitude2, double longitude2) {
+        double x = (longitude2 - longitude1) * Math.cos((latitude1 + latitude2) * 0.5 * RADIANS_PER_DEGREE);
+        double y = latitude2 - latitude1;
+        return Math.sqrt(x * x + y * y) * RADIANS_PER_DEGREE * EARTH_RADIUS_KM;
+    }
+    
+    public static double distanceKm(double latitude1, double longitude1, double latitude2, double longitude2) {
+        if (isShortHop(latitude1, longitude1, latitude2, longitude2)) {
+            return equirectangularKm(latitude1, longitude1, latitude2, longitude2);
+        }
+        return haversineKm(latitude1, longitude1, latitude2, longitude2);
+    }
+    
+    // Batch APIs: distances[i] = distance from (fromLat[i], fromLon[i]) to (toLat[i], toLon[i]) for i in [offset, offset + length)
+    
+    public static void haversineKm(double[] fromLatitudes, double[] fromLongitudes, double[] toLatitudes,
+                                   double[] toLongitudes, double[] distances, int offset, int length) {
+        checkBounds(fromLatitudes, fromLongitudes, toLatitudes, toLongitudes, distances, offset, length);
+        int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            double phi1 = fromLatitudes[i] * RADIANS_PER_DEGREE;
+            double phi2 = toLatitudes[i] * RADIANS_PER_DEGREE;
+            double sinHalfDLat = Math.sin((phi2 - phi1) * 0.5);
+            double sinHalfDLon = Math.sin((toLongitudes[i] - fromLongitudes[i]) * RADIANS_PER_DEGREE * 0.5);
+            double h = sinHalfDLat * sinHalfDLat + Math.cos(phi1) * Math.cos(phi2) * sinHalfDLon * sinHalfDLon;
+            distances[i] = 2.0 * EARTH_RADIUS_KM * Math.asin(Math.sqrt(Math.min(1.0, h)));
+        }
+    }
+    
+    public static void equirectangularKm(double[] fromLatitudes, double[] fromLongitudes, double[] toLatitudes,
+                                         double[] toLongitudes, double[] distances, int offset, int length) {
+        checkBounds(fromLatitudes, fromLongitudes, toLatitudes, toLongitudes, distances, offset, length);
+        int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            double x = (toLongitudes[i] - fromLongitudes[i])
+                       * Math.cos((fromLatitudes[i] + toLatitudes[i]) * 0.5 * RADIANS_PER_DEGREE);
+            double y = toLatitudes[i] - fromLatitudes[i];
+            distances[i] = Math.sqrt(x * x + y * y) * RADIANS_PER_DEGREE * EARTH_RADIUS_KM;
+        }
+    }
+    
+    // Projection for every hop in one pass, then Haversine only for the rare long ones
+    public static void distancesKm(double[] fromLatitudes, double[] fromLongitudes, double[] toLatitudes,
+                                   double[] toLongitudes, double[] distances, int offset, int length) {
+        equirectangularKm(fromLatitudes, fromLongitudes, toLatitudes, toLongitudes, distances, offset, length);
+        int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            if (!isShortHop(fromLatitudes[i], fromLongitudes[i], toLatitudes[i], toLongitudes[i])) {
+                distances[i] = haversineKm(fromLatitudes[i], fromLongitudes[i], toLatitudes[i], toLongitudes[i]);
+            }
+        }
+    }
+    
+    // Length of the path through consecutive fixes
+    public static double pathLengthKm(double[] latitudes, double[] longitudes, int offset, int length) {
+        double total = 0.0;
+        int end = offset + length;
+        for (int i = offset + 1; i < end; i++) {
+            total += distanceKm(latitudes[i - 1], longitudes[i - 1], latitudes[i], longitudes[i]);
+        }
+        return total;
+    }
+    
+    private static boolean isShortHop(double latitude1, double longitude1, double latitude2, double longitude2) {
+        return Math.abs(latitude2 - latitude1) < SHORT_HOP_DEGREES && Math.abs(longitude2 - longitude1) < SHORT_HOP_DEGREES;
+    }
+    
+    private static void checkBounds(double[] fromLatitudes, double[] fromLongitudes, double[] toLatitudes,
+                                    double[] toLongitudes, double[] distances, int offset, int length) {
+        int end = offset + length;
+        if (offset < 0 || length < 0 || end > fromLatitudes.length || end > fromLongitudes.length
+                || end > toLatitudes.length || end > toLongitudes.length || end > distances.length) {
+            throw new IndexOutOfBoundsException("Range [" + offset + ", " + end + ") outside the fix arrays");
+        }
+    }
+}
@@ -0,0 +1,496 @@
+package tracking;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LocationHistoryStore class keeping each vehicle's position history off-heap
+ * History is append-only and split into day segments under root/vehicleId/ (escaped
+ * where the id is not a safe file name), each holding timestamp, latitude and longitude
+ * as primitive columns. Only the segment being written stays memory-mapped; older ones
+ * are sealed to the rows written and mapped read-only while a query binary-searches
+ * their timestamp column. Segments older than the retention period are deleted by a
+ * background timer once it is started
+ */
+public class LocationHistoryStore implements AutoCloseable {
+    
+    public static final int DEFAULT_RETENTION_DAYS = 90;
+    public static final int DEFAULT_ROWS_PER_SEGMENT = 1 << 16;
+    
+    private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+    private static final int MAGIC = 0x55544c48; // "UTLH"
+    private static final int HEADER_BYTES = 16;
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+    
+    // Private attributes (Encapsulation)
+    private final Path root;
+    private final int retentionDays;
+    private final int rowsPerSegment;
+    private final Map<String, VehicleHistory> histories;
+    private ScheduledExecutorService retentionTimer;
+    
+    // Constructors
+    public LocationHistoryStore(Path root) {
+        this(root, DEFAULT_RETENTION_DAYS, DEFAULT_ROWS_PER_SEGMENT);
+    }
+    
+    public LocationHistoryStore(Path root, int retentionDays, int rowsPerSegment) {
+        this.root = root;
+        this.retentionDays = retentionDays;
+        this.rowsPerSegment = rowsPerSegment;
+        this.histories = new ConcurrentHashMap<>();
+        try {
+            Files.createDirectories(root);
+            try (DirectoryStream<Path> vehicleDirs = Files.newDirectoryStream(root, Files::isDirectory)) {
+                for (Path dir : vehicleDirs) {
+                    VehicleHistory history = new VehicleHistory(dir);
+                    history.load();
+                    histories.put(dir.getFileName().toString(), history);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open location history at " + root, e);
+        }
+    }
+    
+    // Appends a fix; fixes older than the vehicle's latest stored fix are rejected
+    public boolean append(String vehicleId, long timestamp, double latitude, double longitude) {
+        return history(vehicleId).append(timestamp, latitude, longitude);
+    }
+    
+    // The vehicle's history, created on first use; hot paths resolve it once and append to it directly
+    VehicleHistory history(String vehicleId) {
+        return histories.computeIfAbsent(directoryName(vehicleId), name -> new VehicleHistory(root.resolve(name)));
+    }
+    
+    // Last known position at or before the given time, or null when nothing is stored
+    public TrackPoint positionAt(String vehicleId, long time) {
+        VehicleHistory history = histories.get(directoryName(vehicleId));
+        return history == null ? null : history.positionAt(time);
+    }
+    
+    // All stored positions with from <= timestamp <= to, oldest first
+    public List<TrackPoint> track(String vehicleId, long from, long to) {
+        VehicleHistory history = histories.get(directoryName(vehicleId));
+        return history == null ? new ArrayList<>() : history.track(from, to);
+    }
+    
+    // Deletes every segment whose day ended before the retention window; returns the count removed
+    public int applyRetention(long now) {
+        long oldestKeptDay = Math.floorDiv(now, MILLIS_PER_DAY) - retentionDays;
+        int removed = 0;
+        for (VehicleHistory history : histories.values()) {
+            removed += history.dropBefore(oldestKeptDay);
+        }
+        return removed;
+    }
+    
+    public int getRetentionDays() {
+        return retentionDays;
+    }
+    
+    // Applies retention now and then on a background timer until the store is closed
+    public synchronized void startRetention(long checkInterval, TimeUnit unit) {
+        if (retentionTimer != null) {
+            return;
+        }
+        retentionTimer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "location-history-retention");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // A failed delete is retried on the next check rather than ending the timer
+        retentionTimer.scheduleWithFixedDelay(() -> {
+            try {
+                applyRetention(System.currentTimeMillis());
+            } catch (UncheckedIOException e) {
+                System.out.println("Location history retention failed: " + e.getMessage());
+            }
+        }, 0, checkInterval, unit);
+    }
+    
+    public synchronized void stopRetention() {
+        if (retentionTimer != null) {
+            retentionTimer.shutdownNow();
+            retentionTimer = null;
+        }
+    }
+    
+    @Override
+    public void close() {
+        stopRetention();
+        for (VehicleHistory history : histories.values()) {
+            history.close();
+        }
+        histories.clear();
+    }
+    
+    // Letters, digits, '_' and '-' are kept; every other character becomes %XX per UTF-8 byte.
+    // '%' is always escaped, so distinct ids never share a directory
+    static String directoryName(String vehicleId) {
+        int length = vehicleId.length();
+        int safe = 0;
+        while (safe < length && isSafe(vehicleId.charAt(safe))) {
+            safe++;
+        }
+        if (safe == length && length > 0) {
+            return vehicleId;
+        }
+        StringBuilder name = new StringBuilder(length + 8).append(vehicleId, 0, safe);
+        for (byte b : vehicleId.substring(safe).getBytes(StandardCharsets.UTF_8)) {
+            if (b >= 0 && isSafe((char) b)) {
+                name.append((char) b);
+            } else {
+                name.append('%').append(HEX_DIGITS[(b >> 4) & 0xF]).append(HEX_DIGITS[b & 0xF]);
+            }
+        }
+        // An empty id still needs a directory of its own
+        return name.isEmpty() ? "%" : name.toString();
+    }
+    
+    private static boolean isSafe(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '_' || c == '-';
+    }
+    
+    // Segments of one vehicle keyed by their first timestamp
+    final class VehicleHistory {
+        
+        private final Path directory;
+        private final NavigableMap<Long, Segment> segments;
+        private Segment current;
+        
+        VehicleHistory(Path directory) {
+            this.directory = directory;
+            this.segments = new TreeMap<>();
+        }
+        
+        // Segments are read without being mapped; one left unsealed by a crash is sealed here.
+        // Appends after a restart always start a new segment
+        synchronized void load() throws IOException {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+                for (Path file : files) {
+                    Segment segment = Segment.load(file);
+                    if (segment.rowCount() > 0) {
+                        segment.seal();
+                        segments.put(segment.firstTimestamp(), segment);
+                    }
+                }
+            }
+            current = segments.isEmpty() ? null : segments.lastEntry().getValue();
+        }
+        
+        synchronized boolean append(long timestamp, double latitude, double longitude) {
+            if (current != null && timestamp < current.lastTimestamp()) {
+                return false;
+            }
+            long day = Math.floorDiv(timestamp, MILLIS_PER_DAY);
+            if (current == null || !current.isWritable() || current.day != day || current.isFull()) {
+                if (current != null && current.isWritable()) {
+                    current.seal();
+                }
+                current = createSegment(day, timestamp);
+                segments.put(timestamp, current);
+            }
+            current.append(timestamp, latitude, longitude);
+            return true;
+        }
+        
+        synchronized TrackPoint positionAt(long time) {
+            Map.Entry<Long, Segment> entry = segments.floorEntry(time);
+            if (entry == null) {
+                return null;
+            }
+            Segment segment = entry.getValue();
+            ByteBuffer columns = segment.columns();
+            return segment.pointAt(columns, segment.lastRowAtOrBefore(columns, time));
+        }
+        
+        synchronized List<TrackPoint> track(long from, long to) {
+            List<TrackPoint> points = new ArrayList<>();
+            Long firstKey = segments.floorKey(from);
+            NavigableMap<Long, Segment> range = firstKey == null
+                    ? segments.headMap(to, true)
+                    : segments.subMap(firstKey, true, to, true);
+            for (Segment segment : range.values()) {
+                if (segment.lastTimestamp() < from) {
+                    continue;
+                }
+                ByteBuffer columns = segment.columns();
+                int row = segment.firstRowAtOrAfter(columns, from);
+                for (int count = segment.rowCount(); row < count; row++) {
+                    long timestamp = segment.timestampAt(columns, row);
+                    if (timestamp > to) {
+                        break;
+                    }
+                    points.add(segment.pointAt(columns, row));
+                }
+            }
+            return points;
+        }
+        
+        synchronized int dropBefore(long oldestKeptDay) {
+            int removed = 0;
+            Iterator<Segment> iterator = segments.values().iterator();
+            while (iterator.hasNext()) {
+                Segment segment = iterator.next();
+                if (segment.day >= oldestKeptDay) {
+                    break; // segments are ordered by time
+                }
+                segment.delete(); // stays listed when the delete fails
+                iterator.remove();
+                removed++;
+            }
+            if (segments.isEmpty()) {
+                current = null;
+            }
+            return removed;
+        }
+        
+        synchronized void close() {
+            if (current != null && current.isWritable()) {
+                current.seal();
+            }
+            segments.clear();
+            current = null;
+        }
+        
+        private Segment createSegment(long day, long firstTimestamp) {
+            try {
+                Files.createDirectories(directory);
+                Path file = directory.resolve(day + "-" + firstTimestamp + SEGMENT_SUFFIX);
+                for (int part = 1; Files.exists(file); part++) {
+                    file = directory.resolve(day + "-" + firstTimestamp + "-" + part + SEGMENT_SUFFIX);
+                }
+                return Segment.create(file, rowsPerSegment);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot create history segment in " + directory, e);
+            }
+        }
+    }
+    
+    // One file: header (magic, capacity, row count) followed by three column blocks. Only the
+    // segment being written is kept mapped; sealing shrinks it to the rows written and unmaps it,
+    // and a sealed segment is mapped read-only for the length of a query
+    private static final class Segment {
+        
+        private final Path file;
+        private final long day;
+        private MappedByteBuffer buffer;
+        private int capacity;
+        private int rowCount;
+        private long firstTimestamp;
+        private long lastTimestamp;
+        
+        private Segment(Path file, MappedByteBuffer buffer, int capacity, int rowCount) {
+            this.file = file;
+            this.buffer = buffer;
+            this.capacity = capacity;
+            this.rowCount = rowCount;
+            String name = file.getFileName().toString();
+            this.day = Long.parseLong(name.substring(0, name.indexOf('-')));
+        }
+        
+        // Creates a segment with the given capacity, mapped for writing
+        static Segment create(Path file, int capacity) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize(capacity));
+                buffer.putInt(0, MAGIC);
+                buffer.putInt(4, capacity);
+                buffer.putInt(8, 0);
+                return new Segment(file, buffer, capacity, 0);
+            }
+        }
+        
+        // Reads an existing segment's header and first and last timestamps without mapping it
+        static Segment load(Path file) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                ByteBuffer header = readAt(channel, 0, HEADER_BYTES);
+                if (header.getInt(0) != MAGIC) {
+                    throw new IOException("Not a location history segment: " + file);
+                }
+                Segment segment = new Segment(file, null, header.getInt(4), header.getInt(8));
+                if (segment.rowCount > 0) {
+                    segment.firstTimestamp = readAt(channel, HEADER_BYTES, Long.BYTES).getLong(0);
+                    segment.lastTimestamp = readAt(channel, HEADER_BYTES + (long) (segment.rowCount - 1) * Long.BYTES,
+                                                   Long.BYTES).getLong(0);
+                }
+                return segment;
+            }
+        }
+        
+        boolean isWritable() {
+            return buffer != null;
+        }
+        
+        boolean isFull() {
+            return rowCount == capacity;
+        }
+        
+        int rowCount() {
+            return rowCount;
+        }
+        
+        long firstTimestamp() {
+            return firstTimestamp;
+        }
+        
+        long lastTimestamp() {
+            return rowCount == 0 ? Long.MIN_VALUE : lastTimestamp;
+        }
+        
+        void append(long timestamp, double latitude, double longitude) {
+            int row = rowCount;
+            buffer.putLong(HEADER_BYTES + row * Long.BYTES, timestamp);
+            buffer.putDouble(latitudeOffset() + row * Double.BYTES, latitude);
+            buffer.putDouble(longitudeOffset() + row * Double.BYTES, longitude);
+            rowCount = row + 1;
+            buffer.putInt(8, rowCount); // publish the row only after its columns are written
+            if (row == 0) {
+                firstTimestamp = timestamp;
+            }
+            lastTimestamp = timestamp;
+        }
+        
+        // The column data for reads: the live mapping while writable, otherwise a read-only
+        // mapping the caller drops once its query is done
+        ByteBuffer columns() {
+            if (buffer != null) {
+                return buffer;
+            }
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize(capacity));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read history segment " + file, e);
+            }
+        }
+        
+        long timestampAt(ByteBuffer columns, int row) {
+            return columns.getLong(HEADER_BYTES + row * Long.BYTES);
+        }
+        
+        TrackPoint pointAt(ByteBuffer columns, int row) {
+            if (row < 0) {
+                return null;
+            }
+            return new TrackPoint(timestampAt(columns, row),
+                    columns.getDouble(latitudeOffset() + row * Double.BYTES),
+                    columns.getDouble(longitudeOffset() + row * Double.BYTES));
+        }
+        
+        // Binary search over the timestamp column; -1 when every row is later than time
+        int lastRowAtOrBefore(ByteBuffer columns, long time) {
+            int low = 0;
+            int high = rowCount - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (timestampAt(columns, mid) <= time) {
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return high;
+        }
+        
+        // Binary search for the first row at or after time, compared directly so that
+        // from = Long.MIN_VALUE cannot overflow; rowCount when every row is earlier
+        int firstRowAtOrAfter(ByteBuffer columns, long time) {
+            int low = 0;
+            int high = rowCount;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (timestampAt(columns, mid) < time) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+        
+        // Flushes and unmaps the segment, then rewrites it with its capacity cut to the rows
+        // written; the rewrite replaces the file atomically, so a crash leaves one of the two
+        void seal() {
+            if (buffer != null) {
+                buffer.force();
+                buffer = null;
+            }
+            if (rowCount == capacity) {
+                return;
+            }
+            long columnBytes = (long) rowCount * Long.BYTES;
+            Path sealedFile = file.resolveSibling(file.getFileName() + ".tmp");
+            try (FileChannel source = FileChannel.open(file, StandardOpenOption.READ)) {
+                ByteBuffer sealed = ByteBuffer.allocate((int) fileSize(rowCount));
+                sealed.putInt(MAGIC).putInt(rowCount).putInt(rowCount).putInt(0);
+                sealed.put(readAt(source, HEADER_BYTES, columnBytes));
+                sealed.put(readAt(source, latitudeOffset(), columnBytes));
+                sealed.put(readAt(source, longitudeOffset(), columnBytes));
+                sealed.flip();
+                try (FileChannel target = FileChannel.open(sealedFile, StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                    while (sealed.hasRemaining()) {
+                        target.write(sealed);
+                    }
+                    target.force(true);
+                }
+                Files.move(sealedFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot seal history segment " + file, e);
+            }
+            capacity = rowCount;
+        }
+        
+        void delete() {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot delete history segment " + file, e);
+            }
+            buffer = null;
+        }
+        
+        private int latitudeOffset() {
+            return HEADER_BYTES + capacity * Long.BYTES;
+        }
+        
+        private int longitudeOffset() {
+            return latitudeOffset() + capacity * Double.BYTES;
+        }
+        
+        private static long fileSize(int capacity) {
+            return HEADER_BYTES + (long) capacity * (Long.BYTES + 2 * Double.BYTES);
+        }
+        
+        private static ByteBuffer readAt(FileChannel channel, long position, long length) throws IOException {
+            ByteBuffer bytes = ByteBuffer.allocate((int) length);
+            while (bytes.hasRemaining()) {
+                if (channel.read(bytes, position + bytes.position()) < 0) {
+                    throw new IOException("Truncated history segment");
+                }
+            }
+            return bytes.flip();
+        }
+    }
+}
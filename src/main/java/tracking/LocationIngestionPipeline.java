@@ -0,0 +1,328 @@
+package tracking;
+
+import diagnostics.LocationBatchEvent;
+import interfaces.Trackable;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * LocationIngestionPipeline class for high-rate GPS fixes
+ * Producers copy batches of (vehicle, lat, lon, timestamp) fixes into a bounded ring of
+ * primitive arrays; a single consumer thread applies them to the registered vehicles
+ * without allocating or printing per fix. The consumer works through the ring in
+ * batches, measuring every hop of a batch with one GeoDistance array call
+ */
+public class LocationIngestionPipeline {
+    
+    private static final long IDLE_PARK_NANOS = 50_000;
+    private static final long FULL_PARK_NANOS = 10_000;
+    private static final int BATCH_SIZE = 1024;
+    
+    // Ring buffer columns (capacity is a power of two)
+    private final int capacity;
+    private final int mask;
+    private final int[] ringHandles;
+    private final double[] ringLatitudes;
+    private final double[] ringLongitudes;
+    private final long[] ringTimestamps;
+    
+    // Producer/consumer positions; each slot is written before writeSequence is published
+    private final ReentrantLock producerLock;
+    private volatile long writeSequence;
+    private volatile long readSequence;
+    
+    // Registered vehicles, copied on registration so the consumer reads without locking
+    private final Map<String, Integer> handlesById;
+    private volatile Trackable[] vehicles;
+    private volatile String[] vehicleIds;
+    private volatile LocationHistoryStore historyStore;
+    // Each vehicle's history in the store, resolved once rather than looked up per fix
+    private volatile LocationHistoryStore.VehicleHistory[] vehicleHistories;
+    
+    // Consumer-owned state: per-vehicle last fix, and the current batch as columns
+    private long[] lastTimestamps;
+    private double[] lastLatitudes;
+    private double[] lastLongitudes;
+    private long[] positionEpochs;
+    private long drainEpoch;
+    private final int[] batchHandles;
+    private final long[] batchTimestamps;
+    private final double[] batchFromLatitudes;
+    private final double[] batchFromLongitudes;
+    private final double[] batchLatitudes;
+    private final double[] batchLongitudes;
+    private final double[] batchDistances;
+    
+    // Consumer statistics
+    private volatile long appliedFixes;
+    private volatile long staleFixes;
+    private volatile long rejectedFixes; // written only under producerLock
+    private volatile long busyNanos;
+    private volatile boolean running;
+    private Thread consumer;
+    
+    // Constructor
+    public LocationIngestionPipeline(int requestedCapacity) {
+        this.capacity = Integer.highestOneBit(Math.max(2, requestedCapacity - 1)) << 1;
+        this.mask = capacity - 1;
+        this.ringHandles = new int[capacity];
+        this.ringLatitudes = new double[capacity];
+        this.ringLongitudes = new double[capacity];
+        this.ringTimestamps = new long[capacity];
+        this.producerLock = new ReentrantLock();
+        this.handlesById = new ConcurrentHashMap<>();
+        this.vehicles = new Trackable[0];
+        this.vehicleIds = new String[0];
+        this.vehicleHistories = new LocationHistoryStore.VehicleHistory[0];
+        this.lastTimestamps = new long[0];
+        this.lastLatitudes = new double[0];
+        this.lastLongitudes = new double[0];
+        this.positionEpochs = new long[0];
+        this.batchHandles = new int[BATCH_SIZE];
+        this.batchTimestamps = new long[BATCH_SIZE];
+        this.batchFromLatitudes = new double[BATCH_SIZE];
+        this.batchFromLongitudes = new double[BATCH_SIZE];
+        this.batchLatitudes = new double[BATCH_SIZE];
+        this.batchLongitudes = new double[BATCH_SIZE];
+        this.batchDistances = new double[BATCH_SIZE];
+    }
+    
+    // Registers a vehicle and returns the handle producers use to address it
+    public synchronized int register(String vehicleId, Trackable vehicle) {
+        Integer existing = handlesById.get(vehicleId);
+        if (existing != null) {
+            Trackable[] replaced = vehicles.clone();
+            replaced[existing] = vehicle;
+            vehicles = replaced;
+            return existing;
+        }
+        Trackable[] grown = Arrays.copyOf(vehicles, vehicles.length + 1);
+        int handle = grown.length - 1;
+        grown[handle] = vehicle;
+        handlesById.put(vehicleId, handle);
+        String[] grownIds = Arrays.copyOf(vehicleIds, grown.length);
+        grownIds[handle] = vehicleId;
+        LocationHistoryStore.VehicleHistory[] grownHistories = Arrays.copyOf(vehicleHistories, grown.length);
+        grownHistories[handle] = historyStore == null ? null : historyStore.history(vehicleId);
+        // Published before vehicles, so a consumer that sees a handle also sees its history
+        vehicleHistories = grownHistories;
+        vehicleIds = grownIds;
+        vehicles = grown;
+        return handle;
+    }
+    
+    // Optional sink that keeps every applied fix in the location history
+    public synchronized void setHistoryStore(LocationHistoryStore historyStore) {
+        String[] ids = vehicleIds;
+        LocationHistoryStore.VehicleHistory[] resolved = new LocationHistoryStore.VehicleHistory[ids.length];
+        if (historyStore != null) {
+            for (int handle = 0; handle < ids.length; handle++) {
+                resolved[handle] = historyStore.history(ids[handle]);
+            }
+        }
+        this.historyStore = historyStore;
+        this.vehicleHistories = resolved;
+    }
+    
+    // Handle for a registered vehicle, or -1 when it is unknown
+    public int getHandle(String vehicleId) {
+        Integer handle = handlesById.get(vehicleId);
+        return handle == null ? -1 : handle;
+    }
+    
+    // Returns false, dropping the fix, when the ring is full and no consumer is running to empty it
+    public boolean publish(int handle, double latitude, double longitude, long timestamp) {
+        producerLock.lock();
+        try {
+            long sequence = writeSequence;
+            if (!awaitSpace(sequence, 1)) {
+                rejectedFixes++;
+                return false;
+            }
+            int slot = (int) (sequence & mask);
+            ringHandles[slot] = handle;
+            ringLatitudes[slot] = latitude;
+            ringLongitudes[slot] = longitude;
+            ringTimestamps[slot] = timestamp;
+            writeSequence = sequence + 1;
+            return true;
+        } finally {
+            producerLock.unlock();
+        }
+    }
+    
+    // Copies a batch of fixes into the ring, waiting for space when the consumer falls behind;
+    // returns how many were published, fewer than length once the ring is full and ingestion is stopped
+    public int publishBatch(int[] handles, double[] latitudes, double[] longitudes, long[] timestamps,
+                            int offset, int length) {
+        producerLock.lock();
+        try {
+            int published = 0;
+            while (published < length) {
+                long sequence = writeSequence;
+                int chunk = Math.min(length - published, capacity);
+                if (!awaitSpace(sequence, chunk)) {
+                    rejectedFixes += length - published;
+                    break;
+                }
+                for (int i = 0; i < chunk; i++) {
+                    int source = offset + published + i;
+                    int slot = (int) ((sequence + i) & mask);
+                    ringHandles[slot] = handles[source];
+                    ringLatitudes[slot] = latitudes[source];
+                    ringLongitudes[slot] = longitudes[source];
+                    ringTimestamps[slot] = timestamps[source];
+                }
+                writeSequence = sequence + chunk;
+                published += chunk;
+            }
+            return published;
+        } finally {
+            producerLock.unlock();
+        }
+    }
+    
+    // Applies every published fix; only one thread may consume at a time
+    public int drain() {
+        long read = readSequence;
+        long available = writeSequence;
+        if (available == read) {
+            return 0;
+        }
+        long start = System.nanoTime();
+        LocationBatchEvent event = new LocationBatchEvent();
+        event.begin();
+        Trackable[] targets = vehicles;
+        LocationHistoryStore.VehicleHistory[] histories = vehicleHistories;
+        if (lastTimestamps.length < targets.length) {
+            lastTimestamps = Arrays.copyOf(lastTimestamps, targets.length);
+            lastLatitudes = Arrays.copyOf(lastLatitudes, targets.length);
+            lastLongitudes = Arrays.copyOf(lastLongitudes, targets.length);
+            positionEpochs = Arrays.copyOf(positionEpochs, targets.length);
+        }
+        // Positions cached from an earlier drain may be stale; re-read each vehicle once per drain
+        long epoch = ++drainEpoch;
+        long applied = 0;
+        long stale = 0;
+        long sequence = read;
+        int batches = 0;
+        while (sequence < available) {
+            batches++;
+            // Gather: drop stale fixes and pair each fix with the vehicle's previous position
+            int count = 0;
+            for (; sequence < available && count < BATCH_SIZE; sequence++) {
+                int slot = (int) (sequence & mask);
+                int handle = ringHandles[slot];
+                long timestamp = ringTimestamps[slot];
+                if (handle < 0 || handle >= targets.length || timestamp < lastTimestamps[handle]) {
+                    stale++; // unknown vehicle or out-of-order fix
+                    continue;
+                }
+                lastTimestamps[handle] = timestamp;
+                if (positionEpochs[handle] != epoch) {
+                    positionEpochs[handle] = epoch;
+                    lastLatitudes[handle] = targets[handle].getLatitude();
+                    lastLongitudes[handle] = targets[handle].getLongitude();
+                }
+                batchFromLatitudes[count] = lastLatitudes[handle];
+                batchFromLongitudes[count] = lastLongitudes[handle];
+                batchLatitudes[count] = ringLatitudes[slot];
+                batchLongitudes[count] = ringLongitudes[slot];
+                batchHandles[count] = handle;
+                batchTimestamps[count] = timestamp;
+                lastLatitudes[handle] = ringLatitudes[slot];
+                lastLongitudes[handle] = ringLongitudes[slot];
+                count++;
+            }
+            
+            GeoDistance.distancesKm(batchFromLatitudes, batchFromLongitudes, batchLatitudes, batchLongitudes,
+                                    batchDistances, 0, count);
+            
+            // Apply in arrival order
+            for (int i = 0; i < count; i++) {
+                int handle = batchHandles[i];
+                targets[handle].recordLocationFix(batchLatitudes[i], batchLongitudes[i], batchTimestamps[i],
+                                                  batchDistances[i]);
+                LocationHistoryStore.VehicleHistory history = histories[handle];
+                if (history != null) {
+                    history.append(batchTimestamps[i], batchLatitudes[i], batchLongitudes[i]);
+                }
+            }
+            applied += count;
+        }
+        readSequence = available;
+        appliedFixes += applied;
+        staleFixes += stale;
+        busyNanos += System.nanoTime() - start;
+        event.complete((int) (available - read), (int) applied, (int) stale, batches, writeSequence - available);
+        return (int) (available - read);
+    }
+    
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        consumer = new Thread(this::consume, "location-ingestion");
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+    
+    public synchronized void stop() {
+        running = false;
+        if (consumer != null) {
+            LockSupport.unpark(consumer);
+            try {
+                consumer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            consumer = null;
+        }
+        drain();
+    }
+    
+    private void consume() {
+        while (running) {
+            if (drain() == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+    }
+    
+    // Waits while the consumer frees space; gives up when there is no consumer to wait for
+    private boolean awaitSpace(long sequence, int needed) {
+        while (sequence + needed - readSequence > capacity) {
+            if (!running) {
+                return false;
+            }
+            LockSupport.parkNanos(FULL_PARK_NANOS);
+        }
+        return true;
+    }
+    
+    // Statistics
+    public int getCapacity() { return capacity; }
+    public long getPendingFixes() { return writeSequence - readSequence; }
+    public long getAppliedFixes() { return appliedFixes; }
+    public long getStaleFixes() { return staleFixes; }
+    public long getRejectedFixes() { return rejectedFixes; }
+    
+    // Consumer throughput on its single core, counting only time spent applying fixes
+    public double getFixesPerSecond() {
+        long nanos = busyNanos;
+        return nanos == 0 ? 0.0 : appliedFixes * 1_000_000_000.0 / nanos;
+    }
+    
+    public String getIngestionStatus() {
+        return "Location ingestion: " + (running ? "Running" : "Stopped") +
+               ", applied=" + appliedFixes + ", stale=" + staleFixes +
+               ", rejected=" + rejectedFixes +
+               ", pending=" + getPendingFixes() +
+               String.format(", throughput=%.0f fixes/s", getFixesPerSecond());
+    }
+}
@@ -0,0 +1,7 @@
+package tracking;
+
+/**
+ * TrackPoint record for one stored position of a vehicle
+ */
+public record TrackPoint(long timestamp, double latitude, double longitude) {
+}
@@ -58,6 +58,12 @@ public class Lecturer extends User {
                " at " + time + " - PRIORITY: High (Staff Priority)";
     }
     
+    // Staff priority, matching the "PRIORITY: High" label on lecturer requests
+    @Override
+    public TransportPriority getTransportPriority() {
+        return TransportPriority.STAFF;
+    }
+    
     // Override abstract method from User
     @Override
     public String getUserInfo() {
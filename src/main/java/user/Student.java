@@ -64,6 +64,12 @@ public class Student extends User {
         }
     }
     
+    // Subscribers are served ahead of pay-per-ride students
+    @Override
+    public TransportPriority getTransportPriority() {
+        return hasTransportSubscription ? TransportPriority.STUDENT : TransportPriority.STUDENT_UNSUBSCRIBED;
+    }
+    
     // Override abstract method from User
     @Override
     public String getUserInfo() {
@@ -59,6 +59,12 @@ public class TransportOfficer extends User {
                " - PRIORITY: Administrative/Official Business";
     }
     
+    // Official business is served ahead of staff and students
+    @Override
+    public TransportPriority getTransportPriority() {
+        return TransportPriority.OFFICIAL;
+    }
+    
     // Override abstract method from User
     @Override
     public String getUserInfo() {
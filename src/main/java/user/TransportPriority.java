@@ -0,0 +1,14 @@
+package user;
+
+/**
+ * TransportPriority enum ranking transport requests for dispatch
+ * Declared in dispatch order: earlier constants are served first
+ */
+public enum TransportPriority {
+    EMERGENCY,
+    URGENT,
+    OFFICIAL,
+    STAFF,
+    STUDENT,
+    STUDENT_UNSUBSCRIBED
+}
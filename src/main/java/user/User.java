@@ -10,7 +10,7 @@ public abstract class User {
     private String name;
     private String email;
     private String phoneNumber;
-    private String password;
+    private String passwordHash;
     
     // Constructor
     public User(String userId, String name, String email, String phoneNumber, String password) {
@@ -18,7 +18,7 @@ public abstract class User {
         this.name = name;
         this.email = email;
         this.phoneNumber = phoneNumber;
-        this.password = password;
+        this.passwordHash = PasswordHash.of(password);
     }
     
     // Getter methods (Encapsulation)
@@ -52,12 +52,22 @@ public abstract class User {
     }
     
     public void setPassword(String password) {
-        this.password = password;
+        this.passwordHash = PasswordHash.of(password);
+    }
+    
+    // Only the user package sees the stored hash, for persistence; the password itself is never kept
+    String getPasswordHash() {
+        return passwordHash;
+    }
+    
+    // Restores a persisted hash; plain-text values from older files are hashed on the way in
+    void restorePasswordHash(String stored) {
+        this.passwordHash = stored == null || PasswordHash.isEncoded(stored) ? stored : PasswordHash.of(stored);
     }
     
     // Password validation (keeping password private)
     public boolean validatePassword(String inputPassword) {
-        return this.password.equals(inputPassword);
+        return PasswordHash.matches(passwordHash, inputPassword);
     }
     
     // Abstract method to be overridden by subclasses (Polymorphism)
@@ -66,6 +76,9 @@ public abstract class User {
     // Abstract method for user-specific information
     public abstract String getUserInfo();
     
+    // Abstract method ranking this user's requests in the dispatch queue (Polymorphism)
+    public abstract TransportPriority getTransportPriority();
+    
     // Common method for all users
     public void updateProfile(String name, String email, String phoneNumber) {
         setName(name);
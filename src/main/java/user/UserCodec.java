@@ -0,0 +1,127 @@
+package user;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * UserCodec class for writing users to a binary stream and reading them back
+ * Lives in the user package so password hashes can be persisted without a public getter;
+ * the password itself is never written.
+ * Text fields go through a StringCodec, so formats with a shared string table can
+ * store each distinct value once
+ */
+public final class UserCodec {
+    
+    // How text fields are written; values may be null
+    public interface StringCodec {
+        void write(String value, DataOutput out) throws IOException;
+        String read(DataInput in) throws IOException;
+    }
+    
+    // Strings written in place, prefixed with a presence flag
+    public static final StringCodec INLINE_STRINGS = new StringCodec() {
+        @Override
+        public void write(String value, DataOutput out) throws IOException {
+            out.writeBoolean(value != null);
+            if (value != null) {
+                out.writeUTF(value);
+            }
+        }
+        
+        @Override
+        public String read(DataInput in) throws IOException {
+            return in.readBoolean() ? in.readUTF() : null;
+        }
+    };
+    
+    private static final byte STUDENT = 1;
+    private static final byte LECTURER = 2;
+    private static final byte TRANSPORT_OFFICER = 3;
+    
+    private UserCodec() {
+    }
+    
+    public static void write(User user, DataOutput out) throws IOException {
+        write(user, out, INLINE_STRINGS);
+    }
+    
+    public static User read(DataInput in) throws IOException {
+        return read(in, INLINE_STRINGS);
+    }
+    
+    public static void write(User user, DataOutput out, StringCodec strings) throws IOException {
+        if (user instanceof Student student) {
+            out.writeByte(STUDENT);
+            writeCommon(user, out, strings);
+            strings.write(student.getStudentId(), out);
+            strings.write(student.getProgram(), out);
+            out.writeInt(student.getYear());
+            out.writeBoolean(student.hasTransportSubscription());
+        } else if (user instanceof Lecturer lecturer) {
+            out.writeByte(LECTURER);
+            writeCommon(user, out, strings);
+            strings.write(lecturer.getEmployeeId(), out);
+            strings.write(lecturer.getDepartment(), out);
+            strings.write(lecturer.getPosition(), out);
+            out.writeBoolean(lecturer.hasSpecialTransportPrivileges());
+        } else if (user instanceof TransportOfficer officer) {
+            out.writeByte(TRANSPORT_OFFICER);
+            writeCommon(user, out, strings);
+            strings.write(officer.getOfficerId(), out);
+            strings.write(officer.getDepartment(), out);
+            String[] permissions = officer.getPermissions() != null ? officer.getPermissions() : new String[0];
+            out.writeInt(permissions.length);
+            for (String permission : permissions) {
+                strings.write(permission, out);
+            }
+            out.writeInt(officer.getYearsOfExperience());
+        } else {
+            throw new IOException("Unsupported user type: " + user.getClass().getName());
+        }
+    }
+    
+    public static User read(DataInput in, StringCodec strings) throws IOException {
+        byte type = in.readByte();
+        String userId = strings.read(in);
+        String name = strings.read(in);
+        String email = strings.read(in);
+        String phoneNumber = strings.read(in);
+        String passwordHash = strings.read(in);
+        User user = switch (type) {
+            case STUDENT -> {
+                Student student = new Student(userId, name, email, phoneNumber, null,
+                                              strings.read(in), strings.read(in), in.readInt());
+                student.setTransportSubscription(in.readBoolean());
+                yield student;
+            }
+            case LECTURER -> {
+                Lecturer lecturer = new Lecturer(userId, name, email, phoneNumber, null,
+                                                 strings.read(in), strings.read(in), strings.read(in));
+                lecturer.setSpecialTransportPrivileges(in.readBoolean());
+                yield lecturer;
+            }
+            case TRANSPORT_OFFICER -> {
+                String officerId = strings.read(in);
+                String department = strings.read(in);
+                String[] permissions = new String[in.readInt()];
+                for (int i = 0; i < permissions.length; i++) {
+                    permissions[i] = strings.read(in);
+                }
+                yield new TransportOfficer(userId, name, email, phoneNumber, null,
+                                           officerId, department, permissions, in.readInt());
+            }
+            default -> throw new IOException("Unknown user type: " + type);
+        };
+        user.restorePasswordHash(passwordHash);
+        return user;
+    }
+    
+    private static void writeCommon(User user, DataOutput out, StringCodec strings) throws IOException {
+        strings.write(user.getUserId(), out);
+        strings.write(user.getName(), out);
+        strings.write(user.getEmail(), out);
+        strings.write(user.getPhoneNumber(), out);
+        strings.write(user.getPasswordHash(), out);
+    }
+}
@@ -0,0 +1,345 @@
+package vehicle;
+
+import tracking.GeoDistance;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * FleetStore class holding per-vehicle state in primitive columns
+ * Every vehicle owns an int handle into parallel arrays for capacity, status code,
+ * position, distance and service times, so fleet-wide scans walk a few dense arrays
+ * instead of one object graph per vehicle. Columns grow in fixed-size pages that never
+ * move, so a write through a handle is never lost to a concurrent resize.
+ * Slots are written under the owning vehicle's monitor; scans read without locking
+ * and may see a value that is a moment old
+ */
+public final class FleetStore {
+    
+    public static final int DEFAULT_PAGE_SIZE = 1024;
+    
+    // Holds vehicles that have not joined a fleet; it keeps no owner references, so they can still be collected
+    static final FleetStore DETACHED = new FleetStore(DEFAULT_PAGE_SIZE, false);
+    
+    // Status code 0 marks a handle that is not in use; a status is stored as its ordinal plus one
+    private static final byte FREE = 0;
+    private static final VehicleStatus[] STATUSES = VehicleStatus.values();
+    
+    // Flag bits kept per vehicle
+    public static final byte TRACKING = 1;
+    public static final byte SPECIAL_PURPOSE = 2;
+    public static final byte VAN = 4;
+    
+    // Status, flags and timestamps are read lock-free by getters, so they are published with release/acquire
+    private static final VarHandle BYTES = MethodHandles.arrayElementVarHandle(byte[].class);
+    private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+    
+    // Private attributes (Encapsulation)
+    private final int pageShift;
+    private final int pageMask;
+    private final boolean keepsOwners;
+    private final VehicleEventBus eventBus;
+    private volatile int[][] capacity;
+    private volatile byte[][] status;
+    private volatile byte[][] flags;
+    private volatile double[][] latitude;
+    private volatile double[][] longitude;
+    private volatile double[][] distance;
+    private volatile long[][] lastService;
+    private volatile long[][] serviceDue;
+    private volatile long[][] lastFix;
+    private volatile Vehicle[][] owners;
+    private volatile int highWater;
+    private int[] freeHandles;
+    private int freeCount;
+    private int liveCount;
+    
+    // Constructors
+    public FleetStore() {
+        this(DEFAULT_PAGE_SIZE);
+    }
+    
+    // pageSize is rounded up to a power of two
+    public FleetStore(int pageSize) {
+        this(pageSize, true);
+    }
+    
+    private FleetStore(int pageSize, boolean keepsOwners) {
+        int size = pageSize <= 1 ? 1 : Integer.highestOneBit(pageSize - 1) << 1;
+        this.pageShift = Integer.numberOfTrailingZeros(size);
+        this.pageMask = size - 1;
+        this.keepsOwners = keepsOwners;
+        this.eventBus = new VehicleEventBus();
+        this.capacity = new int[0][];
+        this.status = new byte[0][];
+        this.flags = new byte[0][];
+        this.latitude = new double[0][];
+        this.longitude = new double[0][];
+        this.distance = new double[0][];
+        this.lastService = new long[0][];
+        this.serviceDue = new long[0][];
+        this.lastFix = new long[0][];
+        this.owners = new Vehicle[0][];
+        this.freeHandles = new int[0];
+    }
+    
+    static byte statusCode(VehicleStatus status) {
+        return (byte) (status.ordinal() + 1);
+    }
+    
+    // Null for a free handle, which a reader can still hold for a moment after the vehicle moved stores
+    static VehicleStatus statusOf(byte code) {
+        return code == FREE ? null : STATUSES[code - 1];
+    }
+    
+    // Handle management
+    // A handle with no owner recorded, for stores that keep none; lets a vehicle take a slot
+    // in its constructor without publishing itself before it is fully built
+    int allocate() {
+        return allocate(null);
+    }
+    
+    synchronized int allocate(Vehicle owner) {
+        int handle;
+        if (freeCount > 0) {
+            handle = freeHandles[--freeCount];
+        } else {
+            handle = highWater;
+            if ((handle >>> pageShift) == status.length) {
+                addPage();
+            }
+        }
+        // The status stays free until the owner has filled in its columns
+        if (keepsOwners) {
+            owners[handle >>> pageShift][handle & pageMask] = owner;
+        }
+        liveCount++;
+        if (handle == highWater) {
+            highWater = handle + 1;
+        }
+        return handle;
+    }
+    
+    // The handle can be reused at once; lock-free readers detect that by re-reading the vehicle's slot
+    synchronized void release(int handle) {
+        setStatus(handle, FREE);
+        owners[handle >>> pageShift][handle & pageMask] = null;
+        if (freeCount == freeHandles.length) {
+            freeHandles = Arrays.copyOf(freeHandles, Math.max(8, freeCount * 2));
+        }
+        freeHandles[freeCount++] = handle;
+        liveCount--;
+    }
+    
+    // Copies one vehicle's columns from another store, used when a vehicle joins a fleet
+    void copyFrom(FleetStore source, int sourceHandle, int handle) {
+        setCapacity(handle, source.getCapacity(sourceHandle));
+        setFlags(handle, source.getFlags(sourceHandle));
+        setPosition(handle, source.getLatitude(sourceHandle), source.getLongitude(sourceHandle));
+        setDistance(handle, source.getDistance(sourceHandle));
+        setLastService(handle, source.getLastService(sourceHandle), source.getServiceDue(sourceHandle));
+        setLastFix(handle, source.getLastFix(sourceHandle));
+        setStatus(handle, source.getStatus(sourceHandle));
+    }
+    
+    // Every column gains a page together, and the page tables are republished before the handle is used
+    private void addPage() {
+        int pages = status.length + 1;
+        int pageSize = pageMask + 1;
+        int[][] grownCapacity = Arrays.copyOf(capacity, pages);
+        grownCapacity[pages - 1] = new int[pageSize];
+        byte[][] grownStatus = Arrays.copyOf(status, pages);
+        grownStatus[pages - 1] = new byte[pageSize];
+        byte[][] grownFlags = Arrays.copyOf(flags, pages);
+        grownFlags[pages - 1] = new byte[pageSize];
+        double[][] grownLatitude = Arrays.copyOf(latitude, pages);
+        grownLatitude[pages - 1] = new double[pageSize];
+        double[][] grownLongitude = Arrays.copyOf(longitude, pages);
+        grownLongitude[pages - 1] = new double[pageSize];
+        double[][] grownDistance = Arrays.copyOf(distance, pages);
+        grownDistance[pages - 1] = new double[pageSize];
+        long[][] grownLastService = Arrays.copyOf(lastService, pages);
+        grownLastService[pages - 1] = new long[pageSize];
+        long[][] grownServiceDue = Arrays.copyOf(serviceDue, pages);
+        grownServiceDue[pages - 1] = new long[pageSize];
+        long[][] grownLastFix = Arrays.copyOf(lastFix, pages);
+        grownLastFix[pages - 1] = new long[pageSize];
+        Vehicle[][] grownOwners = Arrays.copyOf(owners, pages);
+        grownOwners[pages - 1] = new Vehicle[pageSize];
+        capacity = grownCapacity;
+        flags = grownFlags;
+        latitude = grownLatitude;
+        longitude = grownLongitude;
+        distance = grownDistance;
+        lastService = grownLastService;
+        serviceDue = grownServiceDue;
+        lastFix = grownLastFix;
+        owners = grownOwners;
+        // Scans read the status table first, so it is published last
+        status = grownStatus;
+    }
+    
+    // Every vehicle in the store publishes its changes here
+    public VehicleEventBus getEventBus() {
+        return eventBus;
+    }
+    
+    // Vehicles currently holding a handle
+    public synchronized int size() {
+        return liveCount;
+    }
+    
+    // Column accessors by handle
+    int getCapacity(int handle) { return capacity[handle >>> pageShift][handle & pageMask]; }
+    byte getStatus(int handle) { return (byte) BYTES.getAcquire(status[handle >>> pageShift], handle & pageMask); }
+    byte getFlags(int handle) { return (byte) BYTES.getAcquire(flags[handle >>> pageShift], handle & pageMask); }
+    double getLatitude(int handle) { return latitude[handle >>> pageShift][handle & pageMask]; }
+    double getLongitude(int handle) { return longitude[handle >>> pageShift][handle & pageMask]; }
+    double getDistance(int handle) { return distance[handle >>> pageShift][handle & pageMask]; }
+    long getLastService(int handle) { return (long) LONGS.getAcquire(lastService[handle >>> pageShift], handle & pageMask); }
+    long getServiceDue(int handle) { return (long) LONGS.getAcquire(serviceDue[handle >>> pageShift], handle & pageMask); }
+    long getLastFix(int handle) { return (long) LONGS.getAcquire(lastFix[handle >>> pageShift], handle & pageMask); }
+    
+    void setCapacity(int handle, int value) { capacity[handle >>> pageShift][handle & pageMask] = value; }
+    void setStatus(int handle, byte code) { BYTES.setRelease(status[handle >>> pageShift], handle & pageMask, code); }
+    void setFlags(int handle, byte value) { BYTES.setRelease(flags[handle >>> pageShift], handle & pageMask, value); }
+    void setDistance(int handle, double value) { distance[handle >>> pageShift][handle & pageMask] = value; }
+    void setLastFix(int handle, long time) { LONGS.setRelease(lastFix[handle >>> pageShift], handle & pageMask, time); }
+    
+    // Read-modify-write, so callers hold the owning vehicle's monitor
+    void setFlag(int handle, byte flag, boolean on) {
+        byte bits = getFlags(handle);
+        setFlags(handle, (byte) (on ? bits | flag : bits & ~flag));
+    }
+    
+    void setPosition(int handle, double lat, double lon) {
+        latitude[handle >>> pageShift][handle & pageMask] = lat;
+        longitude[handle >>> pageShift][handle & pageMask] = lon;
+    }
+    
+    void setLastService(int handle, long time, long dueTime) {
+        LONGS.setRelease(lastService[handle >>> pageShift], handle & pageMask, time);
+        LONGS.setRelease(serviceDue[handle >>> pageShift], handle & pageMask, dueTime);
+    }
+    
+    // Fleet-wide scans over the columns
+    public int countWithStatus(VehicleStatus vehicleStatus) {
+        byte code = statusCode(vehicleStatus);
+        byte[][] statusPages = status;
+        int limit = highWater;
+        int count = 0;
+        for (int page = 0; page < statusPages.length; page++) {
+            byte[] codes = statusPages[page];
+            int end = Math.min(codes.length, limit - (page << pageShift));
+            for (int slot = 0; slot < end; slot++) {
+                if (codes[slot] == code) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+    
+    public void forEachWithStatus(VehicleStatus vehicleStatus, Consumer<Vehicle> action) {
+        byte code = statusCode(vehicleStatus);
+        byte[][] statusPages = status;
+        int limit = highWater;
+        for (int page = 0; page < statusPages.length; page++) {
+            byte[] codes = statusPages[page];
+            int end = Math.min(codes.length, limit - (page << pageShift));
+            for (int slot = 0; slot < end; slot++) {
+                if (codes[slot] == code) {
+                    Vehicle owner = owners[page][slot];
+                    if (owner != null) {
+                        action.accept(owner);
+                    }
+                }
+            }
+        }
+    }
+    
+    // First vehicle with the status whose flags include all of required and none of excluded
+    public Vehicle findFirst(VehicleStatus vehicleStatus, byte required, byte excluded) {
+        return findFirst(vehicleStatus, required, excluded, vehicle -> true);
+    }
+    
+    // As above, skipping vehicles the filter turns down; the filter only sees column matches
+    public Vehicle findFirst(VehicleStatus vehicleStatus, byte required, byte excluded, Predicate<Vehicle> filter) {
+        byte code = statusCode(vehicleStatus);
+        byte[][] statusPages = status;
+        byte[][] flagPages = flags;
+        int limit = highWater;
+        for (int page = 0; page < statusPages.length; page++) {
+            byte[] codes = statusPages[page];
+            byte[] bits = flagPages[page];
+            int end = Math.min(codes.length, limit - (page << pageShift));
+            for (int slot = 0; slot < end; slot++) {
+                if (codes[slot] == code && (bits[slot] & required) == required && (bits[slot] & excluded) == 0) {
+                    Vehicle owner = owners[page][slot];
+                    if (owner != null && filter.test(owner)) {
+                        return owner;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+    
+    // Vehicles whose service due time has passed, in handle order
+    public List<Vehicle> findServiceDue(long now) {
+        List<Vehicle> due = new ArrayList<>();
+        forEachServiceDue(now, due::add);
+        return due;
+    }
+    
+    public void forEachServiceDue(long now, Consumer<Vehicle> action) {
+        byte[][] statusPages = status;
+        long[][] duePages = serviceDue;
+        int limit = highWater;
+        for (int page = 0; page < statusPages.length; page++) {
+            byte[] codes = statusPages[page];
+            long[] dueTimes = duePages[page];
+            int end = Math.min(codes.length, limit - (page << pageShift));
+            for (int slot = 0; slot < end; slot++) {
+                if (codes[slot] != FREE && dueTimes[slot] <= now) {
+                    Vehicle owner = owners[page][slot];
+                    if (owner != null) {
+                        action.accept(owner);
+                    }
+                }
+            }
+        }
+    }
+    
+    // Closest vehicle with the status, or null; distances are great-circle
+    public Vehicle findNearest(double lat, double lon, VehicleStatus vehicleStatus) {
+        byte code = statusCode(vehicleStatus);
+        byte[][] statusPages = status;
+        double[][] latitudePages = latitude;
+        double[][] longitudePages = longitude;
+        int limit = highWater;
+        int bestHandle = -1;
+        double bestDistance = Double.MAX_VALUE;
+        for (int page = 0; page < statusPages.length; page++) {
+            byte[] codes = statusPages[page];
+            double[] lats = latitudePages[page];
+            double[] lons = longitudePages[page];
+            int end = Math.min(codes.length, limit - (page << pageShift));
+            for (int slot = 0; slot < end; slot++) {
+                if (codes[slot] == code) {
+                    double d = GeoDistance.distanceKm(lat, lon, lats[slot], lons[slot]);
+                    if (d < bestDistance) {
+                        bestDistance = d;
+                        bestHandle = (page << pageShift) | slot;
+                    }
+                }
+            }
+        }
+        return bestHandle < 0 ? null : owners[bestHandle >>> pageShift][bestHandle & pageMask];
+    }
+}
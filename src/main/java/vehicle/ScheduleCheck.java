@@ -0,0 +1,39 @@
+package vehicle;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.StringJoiner;
+
+/**
+ * ScheduleCheck record for the outcome of one scheduling change
+ * trip is the trip as scheduled, or null when a rule rejected the change
+ */
+public record ScheduleCheck(ScheduledTrip trip, Set<ScheduleViolation> violations) {
+    
+    static ScheduleCheck accepted(ScheduledTrip trip, Set<ScheduleViolation> flags) {
+        return new ScheduleCheck(trip, flags.isEmpty() ? Set.of() : EnumSet.copyOf(flags));
+    }
+    
+    static ScheduleCheck rejected(Set<ScheduleViolation> violations) {
+        return new ScheduleCheck(null, EnumSet.copyOf(violations));
+    }
+    
+    public boolean isAccepted() {
+        return trip != null;
+    }
+    
+    public boolean isFlagged() {
+        return isAccepted() && !violations.isEmpty();
+    }
+    
+    public String describe() {
+        if (violations.isEmpty()) {
+            return "no rule violations";
+        }
+        StringJoiner joined = new StringJoiner(", ");
+        for (ScheduleViolation violation : violations) {
+            joined.add(violation.getDescription());
+        }
+        return joined.toString();
+    }
+}
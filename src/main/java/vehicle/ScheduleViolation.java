@@ -0,0 +1,29 @@
+package vehicle;
+
+/**
+ * ScheduleViolation enum for the scheduling rules a trip can break
+ * Overlaps and invalid windows are always rejected; gap and daily limit are waived
+ * for emergency trips; short notice only flags an update
+ */
+public enum ScheduleViolation {
+    INVALID_WINDOW("arrival is not after departure"),
+    OVERLAP("overlaps an existing trip"),
+    MIN_GAP("less than the minimum gap to a neighbouring trip"),
+    DAILY_LIMIT("exceeds the daily trip limit"),
+    SHORT_NOTICE("changed with less than the required notice");
+    
+    private final String description;
+    
+    ScheduleViolation(String description) {
+        this.description = description;
+    }
+    
+    public String getDescription() {
+        return description;
+    }
+    
+    // Flags are recorded but do not stop the change
+    public boolean isFlagOnly() {
+        return this == SHORT_NOTICE;
+    }
+}
@@ -0,0 +1,20 @@
+package vehicle;
+
+import java.util.Date;
+
+/**
+ * ScheduledTrip record describing one trip in a vehicle's timetable
+ * Times are epoch milliseconds and the trip occupies the half-open window [departure, arrival)
+ */
+public record ScheduledTrip(String tripId, String route, long departureTime, long arrivalTime) {
+    
+    public boolean overlaps(long startTime, long endTime) {
+        return departureTime < endTime && startTime < arrivalTime;
+    }
+    
+    @Override
+    public String toString() {
+        return "Trip " + tripId + " - Route: " + route + ", Departure: " + new Date(departureTime) +
+               ", Arrival: " + new Date(arrivalTime);
+    }
+}
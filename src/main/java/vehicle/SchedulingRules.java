@@ -0,0 +1,21 @@
+package vehicle;
+
+import java.time.ZoneId;
+
+/**
+ * SchedulingRules record holding the limits from the scheduling guidelines
+ * Days are counted in the given zone, so the daily limit resets at local midnight
+ */
+public record SchedulingRules(int minGapMinutes, int maxTripsPerDay, int updateNoticeHours, ZoneId zone) {
+    
+    // 30 minutes between trips, 12 trips a day, 24 hours' notice for updates
+    public static final SchedulingRules DEFAULT = new SchedulingRules(30, 12, 24, ZoneId.systemDefault());
+    
+    public long minGapMillis() {
+        return minGapMinutes * 60_000L;
+    }
+    
+    public long updateNoticeMillis() {
+        return updateNoticeHours * 3_600_000L;
+    }
+}
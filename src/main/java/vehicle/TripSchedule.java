@@ -0,0 +1,236 @@
+package vehicle;
+
+import java.util.ArrayList;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * TripSchedule class indexing a vehicle's trips as sorted, non-overlapping time spans
+ * Overlap checks, next-trip lookups and cancellations by trip id run in O(log n)
+ * Scheduling rules are checked incrementally: the gap against the two neighbouring trips
+ * and the per-day trip count kept alongside the index
+ * Not thread-safe on its own; the owning vehicle guards it with its monitor
+ */
+public class TripSchedule {
+    
+    // Private attributes (Encapsulation)
+    private final String vehicleId;
+    private final NavigableMap<Long, ScheduledTrip> tripsByDeparture;
+    private final Map<String, ScheduledTrip> tripsById;
+    private final Map<Long, Integer> tripsPerDay;
+    private final SchedulingRules rules;
+    private int tripSequence;
+    private long version;
+    private List<ScheduledTrip> tripView;
+    
+    // Constructor
+    public TripSchedule(String vehicleId) {
+        this(vehicleId, SchedulingRules.DEFAULT);
+    }
+    
+    public TripSchedule(String vehicleId, SchedulingRules rules) {
+        this.vehicleId = vehicleId;
+        this.tripsByDeparture = new TreeMap<>();
+        this.tripsById = new HashMap<>();
+        this.tripsPerDay = new HashMap<>();
+        this.rules = rules;
+        this.tripSequence = 0;
+    }
+    
+    // Spans never overlap, so only the neighbours around startTime need checking
+    public boolean overlaps(long startTime, long endTime) {
+        Map.Entry<Long, ScheduledTrip> before = tripsByDeparture.floorEntry(startTime);
+        if (before != null && before.getValue().arrivalTime() > startTime) {
+            return true;
+        }
+        Map.Entry<Long, ScheduledTrip> after = tripsByDeparture.higherEntry(startTime);
+        return after != null && after.getKey() < endTime;
+    }
+    
+    // Free means a regular trip could be scheduled there without breaking any rule
+    public boolean isFree(Date startTime, Date endTime) {
+        return violations(startTime.getTime(), endTime.getTime(), false).isEmpty();
+    }
+    
+    // Rules a new trip in this window would break, in O(log n); emergencies skip gap and daily limit
+    public Set<ScheduleViolation> violations(long departure, long arrival, boolean emergency) {
+        Set<ScheduleViolation> found = EnumSet.noneOf(ScheduleViolation.class);
+        if (arrival <= departure) {
+            found.add(ScheduleViolation.INVALID_WINDOW);
+            return found;
+        }
+        if (overlaps(departure, arrival)) {
+            found.add(ScheduleViolation.OVERLAP);
+            return found;
+        }
+        if (emergency) {
+            return found;
+        }
+        long gap = rules.minGapMillis();
+        Map.Entry<Long, ScheduledTrip> before = tripsByDeparture.floorEntry(departure);
+        Map.Entry<Long, ScheduledTrip> after = tripsByDeparture.higherEntry(departure);
+        if ((before != null && before.getValue().arrivalTime() + gap > departure)
+                || (after != null && arrival + gap > after.getKey())) {
+            found.add(ScheduleViolation.MIN_GAP);
+        }
+        if (tripsOnDay(dayOf(departure)) >= rules.maxTripsPerDay()) {
+            found.add(ScheduleViolation.DAILY_LIMIT);
+        }
+        return found;
+    }
+    
+    // Returns the new trip, or null when the window is invalid or breaks a rule
+    public ScheduledTrip add(String route, Date departureTime, Date arrivalTime) {
+        return add(route, departureTime, arrivalTime, false).trip();
+    }
+    
+    public ScheduleCheck add(String route, Date departureTime, Date arrivalTime, boolean emergency) {
+        long departure = departureTime.getTime();
+        long arrival = arrivalTime.getTime();
+        Set<ScheduleViolation> found = violations(departure, arrival, emergency);
+        if (!found.isEmpty()) {
+            return ScheduleCheck.rejected(found);
+        }
+        tripSequence++;
+        ScheduledTrip trip = new ScheduledTrip(vehicleId + "-T" + tripSequence, route, departure, arrival);
+        index(trip);
+        return ScheduleCheck.accepted(trip, found);
+    }
+    
+    // Re-inserts a persisted trip with its original id, replacing an older copy of it;
+    // returns false if its window is taken by another trip. Gap and daily limit are not
+    // re-checked, the trip was accepted when it was first scheduled
+    public boolean restore(ScheduledTrip trip) {
+        ScheduledTrip previous = remove(trip.tripId());
+        if (overlaps(trip.departureTime(), trip.arrivalTime())) {
+            if (previous != null) {
+                index(previous);
+            }
+            return false;
+        }
+        index(trip);
+        String prefix = vehicleId + "-T";
+        if (trip.tripId().startsWith(prefix)) {
+            try {
+                tripSequence = Math.max(tripSequence, Integer.parseInt(trip.tripId().substring(prefix.length())));
+            } catch (NumberFormatException e) {
+                // foreign id format; keep the current sequence
+            }
+        }
+        return true;
+    }
+    
+    public ScheduledTrip remove(String tripId) {
+        ScheduledTrip trip = tripsById.remove(tripId);
+        if (trip != null) {
+            tripsByDeparture.remove(trip.departureTime());
+            tripsPerDay.computeIfPresent(dayOf(trip.departureTime()), (day, count) -> count > 1 ? count - 1 : null);
+            changed();
+        }
+        return trip;
+    }
+    
+    // Fallback used when callers cancel by route name instead of trip id
+    public List<ScheduledTrip> removeByRoute(String route) {
+        List<ScheduledTrip> removed = new ArrayList<>();
+        for (ScheduledTrip trip : tripsByDeparture.values()) {
+            if (trip.route().equals(route)) {
+                removed.add(trip);
+            }
+        }
+        for (ScheduledTrip trip : removed) {
+            remove(trip.tripId());
+        }
+        return removed;
+    }
+    
+    // Moves a trip to a new window; the original trip is kept when the new window conflicts
+    public ScheduledTrip reschedule(String tripId, Date newDepartureTime, Date newArrivalTime) {
+        return reschedule(tripId, newDepartureTime, newArrivalTime, false, System.currentTimeMillis()).trip();
+    }
+    
+    // Updates departing within the notice period are let through but flagged
+    public ScheduleCheck reschedule(String tripId, Date newDepartureTime, Date newArrivalTime,
+                                    boolean emergency, long now) {
+        ScheduledTrip existing = remove(tripId);
+        if (existing == null) {
+            return ScheduleCheck.rejected(EnumSet.noneOf(ScheduleViolation.class));
+        }
+        long departure = newDepartureTime.getTime();
+        long arrival = newArrivalTime.getTime();
+        Set<ScheduleViolation> found = violations(departure, arrival, emergency);
+        if (!found.isEmpty()) {
+            index(existing);
+            return ScheduleCheck.rejected(found);
+        }
+        if (!emergency && Math.min(existing.departureTime(), departure) - now < rules.updateNoticeMillis()) {
+            found.add(ScheduleViolation.SHORT_NOTICE);
+        }
+        ScheduledTrip updated = new ScheduledTrip(tripId, existing.route(), departure, arrival);
+        index(updated);
+        return ScheduleCheck.accepted(updated, found);
+    }
+    
+    // The trip in progress at the given time, otherwise the first one departing after it
+    public ScheduledTrip nextTrip(long time) {
+        Map.Entry<Long, ScheduledTrip> current = tripsByDeparture.floorEntry(time);
+        if (current != null && current.getValue().arrivalTime() > time) {
+            return current.getValue();
+        }
+        Map.Entry<Long, ScheduledTrip> next = tripsByDeparture.higherEntry(time);
+        return next != null ? next.getValue() : null;
+    }
+    
+    public ScheduledTrip getTrip(String tripId) {
+        return tripsById.get(tripId);
+    }
+    
+    // Immutable and shared between callers until the schedule next changes
+    public List<ScheduledTrip> getTrips() {
+        if (tripView == null) {
+            tripView = List.copyOf(tripsByDeparture.values());
+        }
+        return tripView;
+    }
+    
+    // Goes up on every insertion or removal
+    public long getVersion() {
+        return version;
+    }
+    
+    public int size() {
+        return tripsByDeparture.size();
+    }
+    
+    public int tripsOnDay(long epochDay) {
+        return tripsPerDay.getOrDefault(epochDay, 0);
+    }
+    
+    public long dayOf(long time) {
+        return LocalDate.ofInstant(Instant.ofEpochMilli(time), rules.zone()).toEpochDay();
+    }
+    
+    public SchedulingRules getRules() {
+        return rules;
+    }
+    
+    private void index(ScheduledTrip trip) {
+        tripsByDeparture.put(trip.departureTime(), trip);
+        tripsById.put(trip.tripId(), trip);
+        tripsPerDay.merge(dayOf(trip.departureTime()), 1, Integer::sum);
+        changed();
+    }
+    
+    private void changed() {
+        version++;
+        tripView = null;
+    }
+}
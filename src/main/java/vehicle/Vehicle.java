@@ -0,0 +1,593 @@
+package vehicle;
+
+import diagnostics.TripCancelEvent;
+import diagnostics.TripScheduleEvent;
+import interfaces.Serviceable;
+import interfaces.Trackable;
+import interfaces.Schedulable;
+import tracking.GeoDistance;
+
+import java.lang.ref.Cleaner;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Vehicle class holding the behaviour buses and vans share
+ * Capacity, status, position, distance and service times live in a FleetStore slot
+ * rather than in fields, so the object itself only keeps identity, driver details,
+ * listeners and the trip schedule, which is created with the first trip.
+ * Changes are published on the store's event bus, then to listeners registered on the vehicle itself.
+ * Thread-safe: mutable state is guarded by the vehicle's own monitor, so each vehicle is its own lock stripe
+ */
+public abstract class Vehicle implements Serviceable, Trackable, Schedulable {
+    
+    private static final long DAY_MILLIS = 24 * 60 * 60 * 1000L;
+    
+    // Stands in for the schedule of a vehicle with no trips yet; only ever read
+    private static final TripSchedule NO_TRIPS = new TripSchedule("");
+    
+    // Returns the handles of detached vehicles that are collected without joining a fleet
+    private static final Cleaner HANDLE_CLEANER = Cleaner.create();
+    
+    // Store and handle change together when the vehicle joins a fleet; release is set while detached
+    private record Slot(FleetStore store, int handle, Cleaner.Cleanable release) {}
+    
+    // Column reads for the lock-free getters
+    private interface IntColumn {
+        int read(FleetStore store, int handle);
+    }
+    
+    private interface LongColumn {
+        long read(FleetStore store, int handle);
+    }
+    
+    // Private attributes (Encapsulation)
+    private final String vehicleId;
+    private final String model;
+    private volatile String driverName;
+    private volatile String driverLicense;
+    private volatile Slot slot;
+    private List<String> serviceHistory;
+    private TripSchedule tripSchedule;
+    private List<String> scheduledTripView;
+    private long scheduledTripViewVersion;
+    private volatile VehicleEventBus listeners;
+    
+    // Constructor
+    // The slot is allocated without an owner, so no other thread can reach the vehicle through its store
+    // before it is built. What remains of the escape is deliberate: the Cleaner keeps only a phantom
+    // reference, and refreshServiceDue asks getServiceIntervalDays, which subclasses answer from the
+    // store columns set here rather than from their own fields
+    @SuppressWarnings("this-escape")
+    protected Vehicle(String vehicleId, String model, int capacity, String driverName, String driverLicense,
+                      byte kind) {
+        this.vehicleId = vehicleId;
+        this.model = model;
+        this.driverName = driverName;
+        this.driverLicense = driverLicense;
+        // Until it joins a fleet the vehicle keeps its columns in the shared detached store
+        FleetStore store = FleetStore.DETACHED;
+        int handle = store.allocate();
+        store.setCapacity(handle, capacity);
+        store.setFlags(handle, kind);
+        store.setLastService(handle, System.currentTimeMillis(), 0L);
+        store.setStatus(handle, FleetStore.statusCode(VehicleStatus.AVAILABLE));
+        this.slot = new Slot(store, handle, HANDLE_CLEANER.register(this, () -> store.release(handle)));
+        refreshServiceDue();
+    }
+    
+    // Name used in console messages, such as "Bus"
+    protected abstract String getVehicleType();
+    
+    // Getter and Setter methods (Encapsulation)
+    public String getVehicleId() { return vehicleId; }
+    public String getModel() { return model; }
+    public int getCapacity() { return readInt(FleetStore::getCapacity); }
+    public String getDriverName() { return driverName; }
+    public String getDriverLicense() { return driverLicense; }
+    public synchronized double getLatitude() { return slot.store().getLatitude(slot.handle()); }
+    public synchronized double getLongitude() { return slot.store().getLongitude(slot.handle()); }
+    
+    public void setDriverName(String driverName) { this.driverName = driverName; }
+    public void setDriverLicense(String driverLicense) { this.driverLicense = driverLicense; }
+    
+    // Listener registration for services that index vehicle state
+    public synchronized void addVehicleListener(VehicleListener listener) {
+        if (listeners == null) {
+            listeners = new VehicleEventBus();
+        }
+        listeners.subscribe(listener);
+    }
+    
+    public synchronized void removeVehicleListener(VehicleListener listener) {
+        if (listeners != null) {
+            listeners.unsubscribe(listener);
+        }
+    }
+    
+    private void publish(Consumer<VehicleListener> event) {
+        event.accept(slot.store().getEventBus());
+        VehicleEventBus own = listeners;
+        if (own != null) {
+            event.accept(own);
+        }
+    }
+    
+    // Location fixes are the most frequent event, so they skip the capturing lambda publish takes,
+    // and a bus nobody listens to is not called at all
+    private void publishLocation(double latitude, double longitude) {
+        VehicleEventBus bus = slot.store().getEventBus();
+        if (bus.hasSubscribers()) {
+            bus.onLocationChanged(vehicleId, latitude, longitude);
+        }
+        VehicleEventBus own = listeners;
+        if (own != null && own.hasSubscribers()) {
+            own.onLocationChanged(vehicleId, latitude, longitude);
+        }
+    }
+    
+    // Moves the vehicle's columns into a fleet's store; a no-op when they already live there.
+    // Every write to the columns holds this monitor, so none can land on the old slot during the copy
+    public synchronized void attachTo(FleetStore fleet) {
+        Slot current = slot;
+        if (current.store() == fleet) {
+            return;
+        }
+        int handle = fleet.allocate(this);
+        fleet.copyFrom(current.store(), current.handle(), handle);
+        slot = new Slot(fleet, handle, null);
+        if (current.release() != null) {
+            current.release().clean();
+        } else {
+            current.store().release(current.handle());
+        }
+    }
+    
+    // Moves the vehicle's columns out of its fleet, used when the fleet drops or replaces it;
+    // from then on its changes reach only listeners registered on the vehicle itself
+    public synchronized void detach() {
+        Slot current = slot;
+        if (current.store() == FleetStore.DETACHED) {
+            return;
+        }
+        FleetStore store = FleetStore.DETACHED;
+        int handle = store.allocate();
+        store.copyFrom(current.store(), current.handle(), handle);
+        slot = new Slot(store, handle, HANDLE_CLEANER.register(this, () -> store.release(handle)));
+        current.store().release(current.handle());
+    }
+    
+    // Getters that do not take the monitor read through the slot they saw and retry when it has
+    // changed since: the old handle is freed once the vehicle has moved and may already belong to
+    // another vehicle. The slot is published before the old handle is released, so a read that saw
+    // the released or reused handle also sees the new slot
+    private int readInt(IntColumn column) {
+        Slot s;
+        int value;
+        do {
+            s = slot;
+            value = column.read(s.store(), s.handle());
+        } while (s != slot);
+        return value;
+    }
+    
+    private long readLong(LongColumn column) {
+        Slot s;
+        long value;
+        do {
+            s = slot;
+            value = column.read(s.store(), s.handle());
+        } while (s != slot);
+        return value;
+    }
+    
+    public FleetStore getFleetStore() {
+        return slot.store();
+    }
+    
+    protected boolean hasFlag(byte flag) {
+        return (readInt(FleetStore::getFlags) & flag) != 0;
+    }
+    
+    protected synchronized void setFlag(byte flag, boolean on) {
+        slot.store().setFlag(slot.handle(), flag, on);
+    }
+    
+    // Recomputes the stored due time after the last service or the service interval changes
+    protected synchronized void refreshServiceDue() {
+        Slot s = slot;
+        long lastService = s.store().getLastService(s.handle());
+        s.store().setLastService(s.handle(), lastService, lastService + (getServiceIntervalDays() + 1L) * DAY_MILLIS);
+    }
+    
+    // For subclasses whose service interval just changed: moves the due time and reports it
+    protected synchronized void serviceIntervalChanged() {
+        refreshServiceDue();
+        long dueTime = getServiceDueTime();
+        publish(listener -> listener.onServiceDueChanged(vehicleId, dueTime));
+    }
+    
+    private void setLastService(long time) {
+        slot.store().setLastService(slot.handle(), time, time + (getServiceIntervalDays() + 1L) * DAY_MILLIS);
+    }
+    
+    private List<String> history() {
+        if (serviceHistory == null) {
+            serviceHistory = new ArrayList<>();
+        }
+        return serviceHistory;
+    }
+    
+    private TripSchedule schedule() {
+        if (tripSchedule == null) {
+            tripSchedule = new TripSchedule(vehicleId);
+        }
+        return tripSchedule;
+    }
+    
+    private TripSchedule readSchedule() {
+        return tripSchedule != null ? tripSchedule : NO_TRIPS;
+    }
+    
+    // Implementation of Serviceable interface
+    @Override
+    public synchronized void performMaintenance() {
+        System.out.println("Performing maintenance on " + describe());
+        Date serviceDate = new Date();
+        setLastService(serviceDate.getTime());
+        history().add("Maintenance performed on " + serviceDate);
+        publish(listener -> listener.onServiced(vehicleId, serviceDate.getTime()));
+    }
+    
+    // Vehicle named in maintenance messages
+    protected String describe() {
+        return getVehicleType() + " " + vehicleId;
+    }
+    
+    @Override
+    public boolean needsService() {
+        return System.currentTimeMillis() >= getServiceDueTime();
+    }
+    
+    // Due once more than the interval in whole days has passed since the last service
+    @Override
+    public long getServiceDueTime() {
+        return readLong(FleetStore::getServiceDue);
+    }
+    
+    @Override
+    public synchronized void scheduleService(Date serviceDate) {
+        System.out.println("Service scheduled for " + getVehicleType() + " " + vehicleId + " on " + serviceDate);
+        history().add("Service scheduled for " + serviceDate);
+    }
+    
+    @Override
+    public synchronized String getServiceHistory() {
+        return serviceHistory == null ? "" : String.join("; ", serviceHistory);
+    }
+    
+    @Override
+    public synchronized void updateServiceRecord(String serviceDetails) {
+        history().add(serviceDetails + " - " + new Date());
+        System.out.println("Service record updated for " + getVehicleType() + " " + vehicleId);
+    }
+    
+    @Override
+    public int getDaysSinceLastService() {
+        long diffInMillies = Math.abs(System.currentTimeMillis() - getLastServiceTime());
+        return (int) (diffInMillies / DAY_MILLIS);
+    }
+    
+    @Override
+    public String getMaintenanceStatus() {
+        if (needsService()) {
+            return "Maintenance Required";
+        } else {
+            return "Good Condition";
+        }
+    }
+    
+    // Implementation of Trackable interface
+    @Override
+    public synchronized String getCurrentLocation() {
+        return describe() + " location: (" + getLatitude() + ", " + getLongitude() + ")";
+    }
+    
+    @Override
+    public synchronized void updateLocation(double latitude, double longitude) {
+        FleetStore store = slot.store();
+        int handle = slot.handle();
+        // Calculate distance traveled
+        if (hasFlag(FleetStore.TRACKING)) {
+            double distance = calculateDistance(store.getLatitude(handle), store.getLongitude(handle), latitude, longitude);
+            store.setDistance(handle, store.getDistance(handle) + distance);
+        }
+        store.setPosition(handle, latitude, longitude);
+        System.out.println(getVehicleType() + " " + vehicleId + " location updated to: (" + latitude + ", " + longitude + ")");
+        publishLocation(latitude, longitude);
+    }
+    
+    @Override
+    public synchronized void recordLocationFix(double latitude, double longitude, long timestamp) {
+        // Quiet variant of updateLocation used by the GPS ingestion pipeline
+        FleetStore store = slot.store();
+        int handle = slot.handle();
+        if (hasFlag(FleetStore.TRACKING)) {
+            store.setDistance(handle, store.getDistance(handle)
+                    + calculateDistance(store.getLatitude(handle), store.getLongitude(handle), latitude, longitude));
+        }
+        store.setPosition(handle, latitude, longitude);
+        store.setLastFix(handle, timestamp);
+        publishLocation(latitude, longitude);
+    }
+    
+    @Override
+    public synchronized void recordLocationFix(double latitude, double longitude, long timestamp, double distanceKm) {
+        FleetStore store = slot.store();
+        int handle = slot.handle();
+        if (hasFlag(FleetStore.TRACKING)) {
+            store.setDistance(handle, store.getDistance(handle) + distanceKm);
+        }
+        store.setPosition(handle, latitude, longitude);
+        store.setLastFix(handle, timestamp);
+        publishLocation(latitude, longitude);
+    }
+    
+    public long getLastLocationFixTime() {
+        return readLong(FleetStore::getLastFix);
+    }
+    
+    @Override
+    public synchronized String getLocationHistory() {
+        return getVehicleType() + " " + vehicleId + " has traveled " + getDistanceTraveled() + " km";
+    }
+    
+    @Override
+    public synchronized double getDistanceTraveled() {
+        return slot.store().getDistance(slot.handle());
+    }
+    
+    @Override
+    public void startTracking() {
+        setFlag(FleetStore.TRACKING, true);
+        System.out.println("GPS tracking started for " + getVehicleType() + " " + vehicleId);
+    }
+    
+    @Override
+    public void stopTracking() {
+        setFlag(FleetStore.TRACKING, false);
+        System.out.println("GPS tracking stopped for " + getVehicleType() + " " + vehicleId);
+    }
+    
+    @Override
+    public boolean isCurrentlyTracked() {
+        return hasFlag(FleetStore.TRACKING);
+    }
+    
+    @Override
+    public String getTrackingStatus() {
+        return isCurrentlyTracked() ? "Active" : "Inactive";
+    }
+    
+    @Override
+    public void setTrackingEnabled(boolean enabled) {
+        setFlag(FleetStore.TRACKING, enabled);
+    }
+    
+    // Implementation of Schedulable interface
+    @Override
+    public void scheduleTrip(String route, Date departureTime, Date arrivalTime) {
+        scheduleTrip(route, departureTime, arrivalTime, false);
+    }
+    
+    // Emergency trips skip the gap and daily limit rules but still cannot overlap another trip
+    public ScheduleCheck scheduleEmergencyTrip(String route, Date departureTime, Date arrivalTime) {
+        return scheduleTrip(route, departureTime, arrivalTime, true);
+    }
+    
+    public synchronized ScheduleCheck scheduleTrip(String route, Date departureTime, Date arrivalTime, boolean emergency) {
+        TripScheduleEvent event = new TripScheduleEvent();
+        event.begin();
+        TripSchedule trips = schedule();
+        ScheduleCheck check = trips.add(route, departureTime, arrivalTime, emergency);
+        event.complete("schedule", vehicleId, check.isAccepted() ? check.trip().tripId() : null, route,
+                       departureTime.getTime(), arrivalTime.getTime(), emergency, check.isAccepted(),
+                       check.violations(), trips.size());
+        if (!check.isAccepted()) {
+            System.out.println("Trip rejected for " + getVehicleType() + " " + vehicleId + " - " + departureTime +
+                             " to " + arrivalTime + " " + check.describe());
+            return check;
+        }
+        ScheduledTrip trip = check.trip();
+        System.out.println((emergency ? "Emergency trip" : "Trip") + " scheduled for " + getVehicleType() + " "
+                           + vehicleId + " - " + trip);
+        publish(listener -> listener.onTripScheduled(vehicleId, trip));
+        return check;
+    }
+    
+    @Override
+    public synchronized void cancelScheduledTrip(String tripId) {
+        TripCancelEvent event = new TripCancelEvent();
+        event.begin();
+        List<ScheduledTrip> removed = new ArrayList<>();
+        if (tripSchedule != null) {
+            ScheduledTrip trip = tripSchedule.remove(tripId);
+            if (trip != null) {
+                removed.add(trip);
+            } else {
+                removed.addAll(tripSchedule.removeByRoute(tripId));
+            }
+        }
+        for (ScheduledTrip cancelled : removed) {
+            publish(listener -> listener.onTripCancelled(vehicleId, cancelled.tripId()));
+        }
+        event.complete(vehicleId, tripId, removed.size(), readSchedule().size());
+        System.out.println("Trip " + tripId + " cancelled for " + getVehicleType() + " " + vehicleId);
+    }
+    
+    @Override
+    public void updateSchedule(String tripId, Date newDepartureTime, Date newArrivalTime) {
+        updateSchedule(tripId, newDepartureTime, newArrivalTime, false);
+    }
+    
+    public synchronized ScheduleCheck updateSchedule(String tripId, Date newDepartureTime, Date newArrivalTime,
+                                                     boolean emergency) {
+        TripScheduleEvent event = new TripScheduleEvent();
+        event.begin();
+        TripSchedule trips = schedule();
+        ScheduleCheck check = trips.reschedule(tripId, newDepartureTime, newArrivalTime,
+                                               emergency, System.currentTimeMillis());
+        event.complete("update", vehicleId, tripId, check.isAccepted() ? check.trip().route() : null,
+                       newDepartureTime.getTime(), newArrivalTime.getTime(), emergency, check.isAccepted(),
+                       check.violations(), trips.size());
+        if (check.isAccepted()) {
+            System.out.println("Schedule updated for " + getVehicleType() + " " + vehicleId + " - Trip: " + tripId
+                             + (check.isFlagged() ? " (flagged: " + check.describe() + ")" : ""));
+            publish(listener -> listener.onTripUpdated(vehicleId, check.trip()));
+        } else {
+            System.out.println("Schedule update rejected for " + getVehicleType() + " " + vehicleId + " - Trip: " + tripId
+                             + (check.violations().isEmpty() ? " not found" : " " + check.describe()));
+        }
+        return check;
+    }
+    
+    @Override
+    public synchronized List<String> getScheduledTrips() {
+        if (tripSchedule == null) {
+            return List.of();
+        }
+        // Rendered once per schedule version and shared until the schedule changes
+        if (scheduledTripView == null || scheduledTripViewVersion != tripSchedule.getVersion()) {
+            List<String> trips = new ArrayList<>();
+            for (ScheduledTrip trip : tripSchedule.getTrips()) {
+                trips.add(trip.toString());
+            }
+            scheduledTripView = List.copyOf(trips);
+            scheduledTripViewVersion = tripSchedule.getVersion();
+        }
+        return scheduledTripView;
+    }
+    
+    @Override
+    public synchronized boolean isAvailable(Date startTime, Date endTime) {
+        return getStatus() == VehicleStatus.AVAILABLE && readSchedule().isFree(startTime, endTime);
+    }
+    
+    @Override
+    public synchronized String getNextScheduledTrip() {
+        ScheduledTrip next = readSchedule().nextTrip(System.currentTimeMillis());
+        return next == null ? "No scheduled trips" : next.toString();
+    }
+    
+    // Moves the vehicle along its lifecycle; a transition the lifecycle does not allow throws IllegalStateException
+    public synchronized void transitionTo(VehicleStatus next) {
+        VehicleStatus current = getStatus();
+        if (!current.canTransitionTo(next)) {
+            throw new IllegalStateException(getVehicleType() + " " + vehicleId + " cannot go from "
+                                            + current + " to " + next);
+        }
+        changeStatus(current, next);
+    }
+    
+    // Moves to next only if the vehicle is still in expected, so concurrent dispatchers cannot claim it twice
+    public synchronized boolean compareAndTransition(VehicleStatus expected, VehicleStatus next) {
+        if (getStatus() != expected || !expected.canTransitionTo(next)) {
+            return false;
+        }
+        changeStatus(expected, next);
+        return true;
+    }
+    
+    // Recovery support: applies a persisted status without checking the transition; listeners
+    // still hear of the change, so the indexes built from events follow recovery
+    public synchronized void restoreStatus(VehicleStatus status) {
+        changeStatus(getStatus(), status);
+    }
+    
+    private void changeStatus(VehicleStatus oldStatus, VehicleStatus newStatus) {
+        if (oldStatus == newStatus) {
+            return;
+        }
+        slot.store().setStatus(slot.handle(), FleetStore.statusCode(newStatus));
+        publish(listener -> listener.onStatusChanged(vehicleId, oldStatus, newStatus));
+    }
+    
+    public VehicleStatus getStatus() {
+        return FleetStore.statusOf((byte) readInt(FleetStore::getStatus));
+    }
+    
+    // Legacy entry point taking a label such as "Available". Unlike transitionTo it never throws:
+    // an unknown label or a move the lifecycle does not allow is refused with a message
+    @Override
+    public synchronized void setScheduleStatus(String status) {
+        VehicleStatus next;
+        try {
+            next = VehicleStatus.fromLabel(status);
+        } catch (IllegalArgumentException e) {
+            System.out.println("Status change refused for " + describe() + ": unknown status " + status);
+            return;
+        }
+        VehicleStatus current = getStatus();
+        if (current != next && !current.canTransitionTo(next)) {
+            System.out.println("Status change refused for " + describe() + ": cannot go from "
+                               + current + " to " + next);
+            return;
+        }
+        changeStatus(current, next);
+    }
+    
+    @Override
+    public String getScheduleStatus() {
+        return getStatus().getLabel();
+    }
+    
+    @Override
+    public synchronized int getScheduledTripsCount() {
+        return readSchedule().size();
+    }
+    
+    // Trips in departure order, for persistence and planning
+    public synchronized List<ScheduledTrip> getTrips() {
+        return tripSchedule == null ? List.of() : tripSchedule.getTrips();
+    }
+    
+    // Recovery support: re-inserts a persisted trip without logging or notifying listeners
+    public synchronized boolean restoreTrip(ScheduledTrip trip) {
+        return schedule().restore(trip);
+    }
+    
+    public synchronized boolean removeTrip(String tripId) {
+        return tripSchedule != null && tripSchedule.remove(tripId) != null;
+    }
+    
+    // Recovery support: restores persisted service and tracking state without logging;
+    // the status and position are published like any other change
+    public synchronized void restoreState(String status, Date lastServiceDate, double latitude, double longitude,
+                                          double distanceTraveled, boolean trackingEnabled) {
+        FleetStore store = slot.store();
+        int handle = slot.handle();
+        setLastService(lastServiceDate.getTime());
+        store.setPosition(handle, latitude, longitude);
+        store.setDistance(handle, distanceTraveled);
+        store.setFlag(handle, FleetStore.TRACKING, trackingEnabled);
+        changeStatus(getStatus(), VehicleStatus.fromLabel(status));
+        publishLocation(latitude, longitude);
+    }
+    
+    public synchronized void restoreLastServiceDate(Date serviceDate) {
+        setLastService(serviceDate.getTime());
+    }
+    
+    public Date getLastServiceDate() {
+        return new Date(getLastServiceTime());
+    }
+    
+    private long getLastServiceTime() {
+        return readLong(FleetStore::getLastService);
+    }
+    
+    // Great-circle distance between two fixes
+    private double calculateDistance(double lat1, double lon1, double lat2, double lon2) {
+        return GeoDistance.distanceKm(lat1, lon1, lat2, lon2);
+    }
+}
@@ -0,0 +1,95 @@
+package vehicle;
+
+import java.util.Arrays;
+
+/**
+ * VehicleEventBus class delivering vehicle change events to subscribers
+ * Every vehicle in a FleetStore publishes here, so a service subscribes each of its
+ * indexes once instead of registering a listener on every vehicle.
+ * Events are delivered synchronously on the publishing thread, which still holds the
+ * vehicle's monitor, so subscribers only update their own state and must not block.
+ * Subscribers are kept in an array replaced on every change, so delivering an event
+ * walks it without allocating
+ */
+public class VehicleEventBus implements VehicleListener {
+    
+    // Private attributes (Encapsulation)
+    private volatile VehicleListener[] subscribers;
+    
+    // Constructor
+    public VehicleEventBus() {
+        this.subscribers = new VehicleListener[0];
+    }
+    
+    public synchronized void subscribe(VehicleListener subscriber) {
+        VehicleListener[] current = subscribers;
+        VehicleListener[] grown = Arrays.copyOf(current, current.length + 1);
+        grown[current.length] = subscriber;
+        subscribers = grown;
+    }
+    
+    public synchronized void unsubscribe(VehicleListener subscriber) {
+        VehicleListener[] current = subscribers;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i].equals(subscriber)) {
+                VehicleListener[] shrunk = Arrays.copyOf(current, current.length - 1);
+                System.arraycopy(current, i + 1, shrunk, i, current.length - i - 1);
+                subscribers = shrunk;
+                return;
+            }
+        }
+    }
+    
+    public boolean hasSubscribers() {
+        return subscribers.length > 0;
+    }
+    
+    @Override
+    public void onStatusChanged(String vehicleId, VehicleStatus oldStatus, VehicleStatus newStatus) {
+        for (VehicleListener subscriber : subscribers) {
+            subscriber.onStatusChanged(vehicleId, oldStatus, newStatus);
+        }
+    }
+    
+    @Override
+    public void onLocationChanged(String vehicleId, double latitude, double longitude) {
+        for (VehicleListener subscriber : subscribers) {
+            subscriber.onLocationChanged(vehicleId, latitude, longitude);
+        }
+    }
+    
+    @Override
+    public void onServiced(String vehicleId, long serviceTime) {
+        for (VehicleListener subscriber : subscribers) {
+            subscriber.onServiced(vehicleId, serviceTime);
+        }
+    }
+    
+    @Override
+    public void onServiceDueChanged(String vehicleId, long serviceDueTime) {
+        for (VehicleListener subscriber : subscribers) {
+            subscriber.onServiceDueChanged(vehicleId, serviceDueTime);
+        }
+    }
+    
+    @Override
+    public void onTripScheduled(String vehicleId, ScheduledTrip trip) {
+        for (VehicleListener subscriber : subscribers) {
+            subscriber.onTripScheduled(vehicleId, trip);
+        }
+    }
+    
+    @Override
+    public void onTripUpdated(String vehicleId, ScheduledTrip trip) {
+        for (VehicleListener subscriber : subscribers) {
+            subscriber.onTripUpdated(vehicleId, trip);
+        }
+    }
+    
+    @Override
+    public void onTripCancelled(String vehicleId, String tripId) {
+        for (VehicleListener subscriber : subscribers) {
+            subscriber.onTripCancelled(vehicleId, tripId);
+        }
+    }
+}
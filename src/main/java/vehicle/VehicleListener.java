@@ -0,0 +1,36 @@
+package vehicle;
+
+/**
+ * Listener interface for vehicle state changes
+ * Lets services keep their indexes current without rescanning the fleet
+ */
+public interface VehicleListener {
+    
+    // Called after the schedule status of a vehicle changes
+    default void onStatusChanged(String vehicleId, VehicleStatus oldStatus, VehicleStatus newStatus) {
+    }
+    
+    // Called after a vehicle reports a new position
+    default void onLocationChanged(String vehicleId, double latitude, double longitude) {
+    }
+    
+    // Called after maintenance is performed on the vehicle
+    default void onServiced(String vehicleId, long serviceTime) {
+    }
+    
+    // Called after a change to the service interval moves the next service due time
+    default void onServiceDueChanged(String vehicleId, long serviceDueTime) {
+    }
+    
+    // Called after a trip is added to the vehicle's timetable
+    default void onTripScheduled(String vehicleId, ScheduledTrip trip) {
+    }
+    
+    // Called after a trip is moved to a new time window
+    default void onTripUpdated(String vehicleId, ScheduledTrip trip) {
+    }
+    
+    // Called after a trip is removed from the vehicle's timetable
+    default void onTripCancelled(String vehicleId, String tripId) {
+    }
+}
@@ -0,0 +1,63 @@
+package vehicle;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * VehicleStatus enum for the lifecycle of a bus or van
+ * Only the transitions listed per status are allowed; the label is the form
+ * shown to users and written to snapshots and the journal
+ */
+public enum VehicleStatus {
+    AVAILABLE("Available"),
+    SCHEDULED("Scheduled"),
+    IN_TRIP("In Trip"),
+    IN_MAINTENANCE("Maintenance"),
+    EMERGENCY("Emergency");
+    
+    private final String label;
+    
+    VehicleStatus(String label) {
+        this.label = label;
+    }
+    
+    public String getLabel() {
+        return label;
+    }
+    
+    // Statuses this one may move to; staying in the same status is always allowed
+    public Set<VehicleStatus> getNextStatuses() {
+        return switch (this) {
+            case AVAILABLE -> EnumSet.of(SCHEDULED, IN_TRIP, IN_MAINTENANCE, EMERGENCY);
+            case SCHEDULED -> EnumSet.of(AVAILABLE, IN_TRIP, IN_MAINTENANCE, EMERGENCY);
+            // A vehicle is not taken off the road for maintenance mid-trip
+            case IN_TRIP -> EnumSet.of(AVAILABLE, SCHEDULED, EMERGENCY);
+            case IN_MAINTENANCE -> EnumSet.of(AVAILABLE);
+            case EMERGENCY -> EnumSet.of(AVAILABLE, IN_MAINTENANCE);
+        };
+    }
+    
+    public boolean canTransitionTo(VehicleStatus next) {
+        return next == this || getNextStatuses().contains(next);
+    }
+    
+    // Only available vehicles are offered to new requests
+    public boolean isDispatchable() {
+        return this == AVAILABLE;
+    }
+    
+    // Accepts the label or the constant name, ignoring case
+    public static VehicleStatus fromLabel(String label) {
+        for (VehicleStatus status : values()) {
+            if (status.label.equalsIgnoreCase(label) || status.name().equalsIgnoreCase(label)) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("Unknown vehicle status: " + label);
+    }
+    
+    @Override
+    public String toString() {
+        return label;
+    }
+}
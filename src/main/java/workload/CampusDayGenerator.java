@@ -0,0 +1,272 @@
+package workload;
+
+import workload.WorkloadEvent.Kind;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * CampusDayGenerator class for synthetic campus days
+ * The same profile and seed always give the same day: a registered population and fleet,
+ * transport requests bunched around lectures, a GPS stream for every vehicle, each
+ * vehicle's trip plan with its status changes, cancellations and emergencies
+ */
+public class CampusDayGenerator {
+    
+    private static final long SECOND_MILLIS = 1_000L;
+    private static final long MINUTE_MILLIS = 60 * SECOND_MILLIS;
+    private static final long HOUR_MILLIS = 60 * MINUTE_MILLIS;
+    private static final int FIRST_HOUR = 6;
+    private static final int LAST_HOUR = 22;
+    private static final double CAMPUS_LATITUDE = 0.3476;
+    private static final double CAMPUS_LONGITUDE = 32.5825;
+    
+    // Relative request volume for each hour from 06:00; peaks before lectures, at lunch and after
+    private static final int[] HOURLY_WEIGHTS = {2, 8, 10, 7, 4, 4, 6, 6, 4, 4, 7, 9, 8, 4, 2, 1};
+    
+    private static final String[] PLACES = {
+        "Library", "Science Block", "Engineering Block", "Main Hall", "Sports Ground", "Medical Centre",
+        "Hostel A", "Hostel B", "Hostel C", "Staff Quarters", "Business School", "Law School",
+        "City Center", "Bus Park", "Market", "Shopping Mall", "Railway Station", "Hospital",
+        "North Campus", "South Campus", "Research Park", "Innovation Hub", "Stadium", "Airport Road",
+        "Lakeside", "Old Town", "Industrial Area", "Embassy Row", "Conference Centre", "Teaching Hospital"
+    };
+    private static final String[] PROGRAMS = {"Computer Science", "Engineering", "Business", "Law", "Medicine", "Education"};
+    private static final String[] POSITIONS = {"Assistant Lecturer", "Lecturer", "Senior Lecturer", "Professor"};
+    private static final String[] EMERGENCY_TYPES = {"Medical", "Security", "Fire", "Accident"};
+    
+    // Size of the day; requestsPerUser is the daily average, gpsIntervalSeconds the fix period of each vehicle
+    public record Profile(long seed, int users, int buses, int vans, int routes, double requestsPerUser,
+                          int gpsIntervalSeconds, int emergencies) {
+        
+        public static final Profile DEFAULT = new Profile(42, 5000, 40, 80, 20, 2.0, 30, 8);
+    }
+    
+    private record PlannedRoute(String routeId, List<String> stops, int minutes) {}
+    
+    private record Trip(long departure, long arrival) {}
+    
+    // Private attributes (Encapsulation)
+    private final Profile profile;
+    private final Random random;
+    private final List<WorkloadEvent> events;
+    
+    // Constructor
+    public CampusDayGenerator(Profile profile) {
+        this.profile = profile;
+        this.random = new Random(profile.seed());
+        this.events = new ArrayList<>();
+    }
+    
+    // Events of the whole day in replay order; setup events come first at offset zero
+    public List<WorkloadEvent> generate() {
+        events.clear();
+        random.setSeed(profile.seed());
+        
+        List<PlannedRoute> routes = addRoutes();
+        List<String> vehicles = addVehicles(routes);
+        List<String> users = registerUsers();
+        
+        addRequests(users, routes);
+        for (int v = 0; v < vehicles.size(); v++) {
+            addLocationFixes(vehicles.get(v));
+            addTrips(vehicles.get(v), routes.get(v % routes.size()));
+        }
+        addEmergencies(users);
+        
+        // The sort is stable, so events at the same offset keep the order they were added in
+        List<WorkloadEvent> day = new ArrayList<>(events);
+        day.sort(Comparator.comparingLong(WorkloadEvent::offsetMillis));
+        return day;
+    }
+    
+    private List<PlannedRoute> addRoutes() {
+        List<PlannedRoute> routes = new ArrayList<>();
+        for (int r = 1; r <= Math.max(1, profile.routes()); r++) {
+            String routeId = String.format("R%03d", r);
+            List<String> stops = new ArrayList<>();
+            while (stops.size() < 5) {
+                String place = PLACES[random.nextInt(PLACES.length)];
+                if (!stops.contains(place)) {
+                    stops.add(place);
+                }
+            }
+            double distance = 2 + random.nextInt(180) / 10.0;
+            int minutes = 10 + (int) (distance * 2.5);
+            List<String> fields = new ArrayList<>(List.of(routeId, "Route " + r + " - " + stops.get(4), "Main Gate",
+                    stops.get(4), Double.toString(distance), Integer.toString(minutes),
+                    r % 5 == 0 ? "Express" : "Regular"));
+            fields.addAll(stops);
+            events.add(new WorkloadEvent(0, Kind.ADD_ROUTE, fields));
+            routes.add(new PlannedRoute(routeId, stops, minutes));
+        }
+        return routes;
+    }
+    
+    private List<String> addVehicles(List<PlannedRoute> routes) {
+        List<String> vehicles = new ArrayList<>();
+        for (int b = 1; b <= profile.buses(); b++) {
+            String vehicleId = String.format("B%03d", b);
+            String routeId = routes.get(vehicles.size() % routes.size()).routeId();
+            events.add(new WorkloadEvent(0, Kind.ADD_BUS, List.of(vehicleId, random.nextBoolean() ? "Toyota" : "Isuzu",
+                    Integer.toString(40 + 5 * random.nextInt(5)), "Driver " + vehicleId, "UB" + vehicleId, routeId)));
+            vehicles.add(vehicleId);
+        }
+        for (int v = 1; v <= profile.vans(); v++) {
+            String vehicleId = String.format("V%03d", v);
+            String routeId = routes.get(vehicles.size() % routes.size()).routeId();
+            boolean special = v % 8 == 0;
+            events.add(new WorkloadEvent(0, Kind.ADD_VAN, List.of(vehicleId, random.nextBoolean() ? "Nissan" : "Ford",
+                    Integer.toString(8 + random.nextInt(8)), "Driver " + vehicleId, "UB" + vehicleId,
+                    special ? "Ambulance" : "Passenger", Boolean.toString(special), routeId)));
+            vehicles.add(vehicleId);
+        }
+        return vehicles;
+    }
+    
+    // 85% students, 12% lecturers and the rest transport officers
+    private List<String> registerUsers() {
+        List<String> users = new ArrayList<>();
+        for (int u = 1; u <= profile.users(); u++) {
+            String userId = String.format("U%05d", u);
+            int draw = random.nextInt(100);
+            if (draw < 85) {
+                events.add(new WorkloadEvent(0, Kind.REGISTER_STUDENT, List.of(userId, "Student " + u,
+                        PROGRAMS[random.nextInt(PROGRAMS.length)], Integer.toString(1 + random.nextInt(4)))));
+            } else if (draw < 97) {
+                events.add(new WorkloadEvent(0, Kind.REGISTER_LECTURER, List.of(userId, "Lecturer " + u,
+                        PROGRAMS[random.nextInt(PROGRAMS.length)], POSITIONS[random.nextInt(POSITIONS.length)])));
+            } else {
+                events.add(new WorkloadEvent(0, Kind.REGISTER_OFFICER, List.of(userId, "Officer " + u,
+                        "Transport Dept", Integer.toString(1 + random.nextInt(20)))));
+            }
+            users.add(userId);
+        }
+        return users;
+    }
+    
+    private void addRequests(List<String> users, List<PlannedRoute> routes) {
+        if (users.isEmpty()) {
+            return;
+        }
+        int totalWeight = 0;
+        for (int weight : HOURLY_WEIGHTS) {
+            totalWeight += weight;
+        }
+        long requests = Math.round(users.size() * profile.requestsPerUser());
+        for (long n = 0; n < requests; n++) {
+            int pick = random.nextInt(totalWeight);
+            int hour = 0;
+            while (pick >= HOURLY_WEIGHTS[hour]) {
+                pick -= HOURLY_WEIGHTS[hour];
+                hour++;
+            }
+            // Most of an hour's requests arrive just before the hour, when lectures change over
+            long hourStart = (FIRST_HOUR + hour) * HOUR_MILLIS;
+            long offset = random.nextInt(10) < 4
+                    ? hourStart + HOUR_MILLIS - 10 * MINUTE_MILLIS + random.nextInt((int) (10 * MINUTE_MILLIS))
+                    : hourStart + random.nextInt((int) HOUR_MILLIS);
+            
+            String userId = users.get(random.nextInt(users.size()));
+            PlannedRoute route = routes.get(random.nextInt(routes.size()));
+            String destination = route.stops().get(random.nextInt(route.stops().size()));
+            long wanted = offset + (10 + random.nextInt(30)) * MINUTE_MILLIS;
+            String time = String.format("%02d:%02d", wanted / HOUR_MILLIS % 24, wanted / MINUTE_MILLIS % 60);
+            // One request in twenty is for a group
+            int passengers = random.nextInt(20) == 0 ? 2 + random.nextInt(20) : 1;
+            events.add(new WorkloadEvent(offset, Kind.TRANSPORT_REQUEST,
+                    List.of(userId, destination, time, Integer.toString(passengers))));
+            if (random.nextInt(10) < 3) {
+                events.add(new WorkloadEvent(offset + random.nextInt(5_000), Kind.FIND_VEHICLE,
+                        List.of(userId, route.routeId(), Integer.toString(passengers))));
+            }
+        }
+    }
+    
+    // A random walk around the campus, one fix per interval with a little clock jitter
+    private void addLocationFixes(String vehicleId) {
+        long interval = Math.max(1, profile.gpsIntervalSeconds()) * SECOND_MILLIS;
+        double latitude = CAMPUS_LATITUDE + (random.nextDouble() - 0.5) * 0.05;
+        double longitude = CAMPUS_LONGITUDE + (random.nextDouble() - 0.5) * 0.05;
+        long phase = random.nextInt((int) interval);
+        for (long offset = FIRST_HOUR * HOUR_MILLIS + phase; offset < LAST_HOUR * HOUR_MILLIS; offset += interval) {
+            latitude = clamp(latitude + random.nextGaussian() * 0.0015, CAMPUS_LATITUDE, 0.1);
+            longitude = clamp(longitude + random.nextGaussian() * 0.0015, CAMPUS_LONGITUDE, 0.1);
+            events.add(new WorkloadEvent(offset + random.nextInt(2_000), Kind.LOCATION_FIX,
+                    List.of(vehicleId, coordinate(latitude), coordinate(longitude))));
+        }
+    }
+    
+    // The day's plan is loaded at 05:30; about one trip in ten is cancelled during the day
+    // and half of those are replaced by a later departure on the same route
+    private void addTrips(String vehicleId, PlannedRoute route) {
+        long plannedAt = FIRST_HOUR * HOUR_MILLIS - 30 * MINUTE_MILLIS;
+        long duration = route.minutes() * MINUTE_MILLIS;
+        List<Trip> trips = new ArrayList<>();
+        long departure = FIRST_HOUR * HOUR_MILLIS + (30 + random.nextInt(60)) * MINUTE_MILLIS;
+        while (departure + duration < (LAST_HOUR - 1) * HOUR_MILLIS && trips.size() < 8) {
+            trips.add(new Trip(departure, departure + duration));
+            departure += duration + (30 + random.nextInt(90)) * MINUTE_MILLIS;
+        }
+        
+        long previousArrival = FIRST_HOUR * HOUR_MILLIS;
+        for (int t = 0; t < trips.size(); t++) {
+            Trip trip = trips.get(t);
+            events.add(scheduleEvent(plannedAt, vehicleId, route, trip));
+            long nextDeparture = t + 1 < trips.size() ? trips.get(t + 1).departure() : Long.MAX_VALUE;
+            if (random.nextInt(10) == 0) {
+                long cancelledAt = Math.max(previousArrival + MINUTE_MILLIS, trip.departure() - HOUR_MILLIS);
+                events.add(new WorkloadEvent(cancelledAt, Kind.CANCEL_TRIP,
+                        List.of(vehicleId, Long.toString(trip.departure()))));
+                Trip replacement = new Trip(trip.departure() + 15 * MINUTE_MILLIS, trip.arrival() + 15 * MINUTE_MILLIS);
+                if (random.nextBoolean() && replacement.arrival() + 30 * MINUTE_MILLIS <= nextDeparture) {
+                    events.add(scheduleEvent(cancelledAt + SECOND_MILLIS, vehicleId, route, replacement));
+                    addTripStatuses(vehicleId, replacement);
+                    previousArrival = replacement.arrival();
+                }
+                continue;
+            }
+            addTripStatuses(vehicleId, trip);
+            previousArrival = trip.arrival();
+        }
+    }
+    
+    private WorkloadEvent scheduleEvent(long offset, String vehicleId, PlannedRoute route, Trip trip) {
+        return new WorkloadEvent(offset, Kind.SCHEDULE_TRIP, List.of(vehicleId, route.routeId(),
+                Long.toString(trip.departure()), Long.toString(trip.arrival())));
+    }
+    
+    private void addTripStatuses(String vehicleId, Trip trip) {
+        events.add(new WorkloadEvent(trip.departure(), Kind.VEHICLE_STATUS, List.of(vehicleId, "In Trip")));
+        events.add(new WorkloadEvent(trip.arrival(), Kind.VEHICLE_STATUS, List.of(vehicleId, "Available")));
+    }
+    
+    // Each emergency is cleared 30 to 90 minutes later, which frees the vehicle that took it
+    private void addEmergencies(List<String> users) {
+        if (users.isEmpty()) {
+            return;
+        }
+        for (int e = 1; e <= profile.emergencies(); e++) {
+            String emergencyId = "E" + e;
+            long offset = 7 * HOUR_MILLIS + (long) (random.nextDouble() * 13 * HOUR_MILLIS);
+            double latitude = clamp(CAMPUS_LATITUDE + random.nextGaussian() * 0.01, CAMPUS_LATITUDE, 0.1);
+            double longitude = clamp(CAMPUS_LONGITUDE + random.nextGaussian() * 0.01, CAMPUS_LONGITUDE, 0.1);
+            events.add(new WorkloadEvent(offset, Kind.EMERGENCY, List.of(emergencyId,
+                    users.get(random.nextInt(users.size())), random.nextBoolean() ? "Hospital" : "Medical Centre",
+                    EMERGENCY_TYPES[random.nextInt(EMERGENCY_TYPES.length)], coordinate(latitude), coordinate(longitude))));
+            events.add(new WorkloadEvent(offset + (30 + random.nextInt(60)) * MINUTE_MILLIS, Kind.EMERGENCY_CLEARED,
+                    List.of(emergencyId)));
+        }
+    }
+    
+    private static double clamp(double value, double centre, double radius) {
+        return Math.max(centre - radius, Math.min(centre + radius, value));
+    }
+    
+    private static String coordinate(double value) {
+        return String.format(Locale.ROOT, "%.6f", value);
+    }
+}
@@ -0,0 +1,88 @@
+package workload;
+
+import services.TransportService;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * LoadHarness class with the command line for the synthetic workload
+ * generate writes a seeded campus day to a file (gzip-compressed when the name ends in .gz),
+ * replay runs a file against a fresh TransportService and prints throughput and latency
+ * percentiles, for sizing the hardware a real campus needs
+ */
+public class LoadHarness {
+    
+    private static final String USAGE = """
+            Usage:
+              generate <file> [seed=42] [users=5000] [buses=40] [vans=80] [routes=20]
+                              [requests=2.0] [gps=30] [emergencies=8]
+              replay <file> [speedup=600] [lanes=4] [dispatchers=2]
+            speedup=0 replays as fast as possible""";
+    
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 2) {
+            System.out.println(USAGE);
+            return;
+        }
+        Path file = Path.of(args[1]);
+        Map<String, String> options = options(args);
+        switch (args[0]) {
+            case "generate" -> generate(file, options);
+            case "replay" -> replay(file, options);
+            default -> System.out.println(USAGE);
+        }
+    }
+    
+    private static void generate(Path file, Map<String, String> options) throws IOException {
+        CampusDayGenerator.Profile defaults = CampusDayGenerator.Profile.DEFAULT;
+        CampusDayGenerator.Profile profile = new CampusDayGenerator.Profile(
+                Long.parseLong(options.getOrDefault("seed", Long.toString(defaults.seed()))),
+                Integer.parseInt(options.getOrDefault("users", Integer.toString(defaults.users()))),
+                Integer.parseInt(options.getOrDefault("buses", Integer.toString(defaults.buses()))),
+                Integer.parseInt(options.getOrDefault("vans", Integer.toString(defaults.vans()))),
+                Integer.parseInt(options.getOrDefault("routes", Integer.toString(defaults.routes()))),
+                Double.parseDouble(options.getOrDefault("requests", Double.toString(defaults.requestsPerUser()))),
+                Integer.parseInt(options.getOrDefault("gps", Integer.toString(defaults.gpsIntervalSeconds()))),
+                Integer.parseInt(options.getOrDefault("emergencies", Integer.toString(defaults.emergencies()))));
+        List<WorkloadEvent> events = new CampusDayGenerator(profile).generate();
+        WorkloadFile.write(file, events, profile.toString());
+        System.out.println("Wrote " + events.size() + " events to " + file);
+    }
+    
+    // Console output from the service is switched off while the replay runs
+    private static void replay(Path file, Map<String, String> options) throws IOException, InterruptedException {
+        List<WorkloadEvent> events = WorkloadFile.read(file);
+        WorkloadReplayer replayer = new WorkloadReplayer(new TransportService(),
+                Double.parseDouble(options.getOrDefault("speedup", "600")),
+                Integer.parseInt(options.getOrDefault("lanes", "4")),
+                Integer.parseInt(options.getOrDefault("dispatchers", "2")),
+                WorkloadReplayer.tomorrow());
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        ReplayReport report;
+        try {
+            report = replayer.replay(events);
+        } finally {
+            System.setOut(console);
+        }
+        System.out.print(report.format());
+    }
+    
+    private static Map<String, String> options(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 2; i < args.length; i++) {
+            int equals = args[i].indexOf('=');
+            if (equals < 0) {
+                throw new IllegalArgumentException("Expected name=value, got " + args[i]);
+            }
+            options.put(args[i].substring(0, equals), args[i].substring(equals + 1));
+        }
+        return options;
+    }
+}
@@ -0,0 +1,54 @@
+package workload;
+
+import metrics.LatencyHistogram;
+import workload.WorkloadEvent.Kind;
+
+import java.util.Map;
+
+/**
+ * ReplayReport record with the outcome of one workload replay
+ * Service time is how long the call took; response time also counts the wait behind
+ * earlier events on the same lane and is measured from when the event was due, so a
+ * stalled service shows up in the percentiles instead of slowing the replay down
+ */
+public record ReplayReport(int setupEvents, long setupMillis, long events, long elapsedNanos, double speedUp,
+                           int lanes, long errors, long maxLagNanos, Map<Kind, KindStats> kinds) {
+    
+    public record KindStats(long count, long errors, LatencyHistogram.Snapshot serviceTime,
+                            LatencyHistogram.Snapshot responseTime) {}
+    
+    public ReplayReport {
+        kinds = Map.copyOf(kinds);
+    }
+    
+    // Timed events per second of wall clock
+    public double getThroughput() {
+        return elapsedNanos == 0 ? 0 : events * 1e9 / elapsedNanos;
+    }
+    
+    public String format() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("Setup: %,d events in %,d ms%n", setupEvents, setupMillis));
+        report.append(String.format("Replay: %,d events in %.1f s on %d lanes at %s, %,.0f events/s, %,d errors%n",
+                                    events, elapsedNanos / 1e9, lanes,
+                                    speedUp > 0 ? String.format("%.0fx", speedUp) : "full speed",
+                                    getThroughput(), errors));
+        report.append(String.format("Largest pacing lag: %.3f ms%n", maxLagNanos / 1e6));
+        report.append(String.format("%-18s %9s %7s %9s %9s %9s %9s %9s %11s %11s%n", "Event", "Count", "Errors",
+                                    "p50 us", "p90 us", "p99 us", "p99.9 us", "max us", "resp p99", "resp max"));
+        for (Kind kind : Kind.values()) {
+            KindStats stats = kinds.get(kind);
+            if (stats == null || stats.count() == 0) {
+                continue;
+            }
+            LatencyHistogram.Snapshot service = stats.serviceTime();
+            LatencyHistogram.Snapshot response = stats.responseTime();
+            report.append(String.format("%-18s %,9d %7d %9.1f %9.1f %9.1f %9.1f %9.1f %11.1f %11.1f%n",
+                                        kind, stats.count(), stats.errors(),
+                                        service.valueAt(0.5) / 1e3, service.valueAt(0.9) / 1e3,
+                                        service.valueAt(0.99) / 1e3, service.valueAt(0.999) / 1e3,
+                                        service.max() / 1e3, response.valueAt(0.99) / 1e3, response.max() / 1e3));
+        }
+        return report.toString();
+    }
+}
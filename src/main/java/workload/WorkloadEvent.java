@@ -0,0 +1,51 @@
+package workload;
+
+import java.util.List;
+
+/**
+ * WorkloadEvent record for one recorded action in a synthetic workload
+ * offsetMillis is the time since the start of the day; the fields depend on the kind
+ * and are listed next to each kind. Setup events build the model before the clock starts
+ */
+public record WorkloadEvent(long offsetMillis, Kind kind, List<String> fields) {
+    
+    public enum Kind {
+        ADD_ROUTE(true),          // routeId, name, start, end, distanceKm, minutes, type, stop...
+        ADD_BUS(true),            // vehicleId, model, capacity, driver, license, routeId
+        ADD_VAN(true),            // vehicleId, model, capacity, driver, license, vanType, specialPurpose, routeId
+        REGISTER_STUDENT(true),   // userId, name, program, year
+        REGISTER_LECTURER(true),  // userId, name, department, position
+        REGISTER_OFFICER(true),   // userId, name, department, yearsOfExperience
+        TRANSPORT_REQUEST(false), // userId, destination, time, passengers
+        FIND_VEHICLE(false),      // userId, routeId, passengers
+        LOCATION_FIX(false),      // vehicleId, latitude, longitude
+        SCHEDULE_TRIP(false),     // vehicleId, routeId, departureOffsetMillis, arrivalOffsetMillis
+        CANCEL_TRIP(false),       // vehicleId, departureOffsetMillis
+        VEHICLE_STATUS(false),    // vehicleId, status label
+        EMERGENCY(false),         // emergencyId, userId, destination, emergencyType, latitude, longitude
+        EMERGENCY_CLEARED(false); // emergencyId
+        
+        private final boolean setup;
+        
+        Kind(boolean setup) {
+            this.setup = setup;
+        }
+        
+        public boolean isSetup() {
+            return setup;
+        }
+    }
+    
+    public WorkloadEvent {
+        fields = List.copyOf(fields);
+    }
+    
+    public String field(int index) {
+        return fields.get(index);
+    }
+    
+    // Events with the same key are replayed in order on the same lane
+    public String key() {
+        return kind == Kind.EMERGENCY || kind == Kind.EMERGENCY_CLEARED ? "emergency" : fields.get(0);
+    }
+}
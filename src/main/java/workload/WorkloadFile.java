@@ -0,0 +1,122 @@
+package workload;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * WorkloadFile class reading and writing recorded workloads
+ * One event per line: offset in milliseconds, kind, then the fields, separated by tabs.
+ * Tabs, newlines and backslashes inside fields are escaped with a backslash.
+ * Lines starting with '#' are comments; files ending in .gz are compressed
+ */
+public final class WorkloadFile {
+    
+    static final String FORMAT_LINE = "# campus workload v1";
+    
+    private WorkloadFile() {
+    }
+    
+    public static void write(Path file, List<WorkloadEvent> events, String description) throws IOException {
+        try (OutputStream raw = Files.newOutputStream(file);
+             OutputStream out = file.toString().endsWith(".gz") ? new GZIPOutputStream(raw) : raw;
+             BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+            writer.write(FORMAT_LINE);
+            writer.newLine();
+            writer.write("# " + escape(description) + ", " + events.size() + " events");
+            writer.newLine();
+            StringBuilder line = new StringBuilder();
+            for (WorkloadEvent event : events) {
+                line.setLength(0);
+                line.append(event.offsetMillis()).append('\t').append(event.kind().name());
+                for (String field : event.fields()) {
+                    line.append('\t').append(escape(field));
+                }
+                writer.write(line.toString());
+                writer.newLine();
+            }
+        }
+    }
+    
+    public static List<WorkloadEvent> read(Path file) throws IOException {
+        List<WorkloadEvent> events = new ArrayList<>();
+        try (InputStream raw = Files.newInputStream(file);
+             InputStream in = file.toString().endsWith(".gz") ? new GZIPInputStream(raw) : raw;
+             BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] parts = line.split("\t", -1);
+                if (parts.length < 2) {
+                    throw new IOException(file + ":" + lineNumber + ": expected an offset and a kind");
+                }
+                try {
+                    List<String> fields = new ArrayList<>(parts.length - 2);
+                    for (int i = 2; i < parts.length; i++) {
+                        fields.add(unescape(parts[i]));
+                    }
+                    events.add(new WorkloadEvent(Long.parseLong(parts[0]), WorkloadEvent.Kind.valueOf(parts[1]), fields));
+                } catch (IllegalArgumentException e) {
+                    throw new IOException(file + ":" + lineNumber + ": " + e.getMessage(), e);
+                }
+            }
+        }
+        return events;
+    }
+    
+    private static String escape(String value) {
+        if (value.indexOf('\t') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0
+                && value.indexOf('\\') < 0) {
+            return value;
+        }
+        StringBuilder escaped = new StringBuilder(value.length() + 8);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\t' -> escaped.append("\\t");
+                case '\n' -> escaped.append("\\n");
+                case '\r' -> escaped.append("\\r");
+                case '\\' -> escaped.append("\\\\");
+                default -> escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+    
+    private static String unescape(String value) {
+        if (value.indexOf('\\') < 0) {
+            return value;
+        }
+        StringBuilder plain = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c != '\\' || i + 1 == value.length()) {
+                plain.append(c);
+                continue;
+            }
+            char next = value.charAt(++i);
+            switch (next) {
+                case 't' -> plain.append('\t');
+                case 'n' -> plain.append('\n');
+                case 'r' -> plain.append('\r');
+                default -> plain.append(next);
+            }
+        }
+        return plain.toString();
+    }
+}
@@ -0,0 +1,273 @@
+package workload;
+
+import metrics.LatencyHistogram;
+import services.EmergencyDispatch;
+import services.Route;
+import services.TransportService;
+import tracking.LocationIngestionPipeline;
+import user.Lecturer;
+import user.Student;
+import user.TransportOfficer;
+import vehicle.Bus;
+import vehicle.ScheduledTrip;
+import vehicle.Van;
+import vehicle.Vehicle;
+import vehicle.VehicleStatus;
+import workload.WorkloadEvent.Kind;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * WorkloadReplayer class driving a recorded workload against a TransportService
+ * Setup events run first and untimed; the rest are released at their recorded offset,
+ * divided by the speed-up, whether or not earlier events have finished. Events with the
+ * same key go to the same lane, so one vehicle's or user's events keep their order while
+ * different vehicles run in parallel. The replayer starts GPS ingestion and request
+ * dispatch on the service and stops them when the replay ends. Status changes only move a
+ * vehicle out of the status they expect: the end of a planned trip does not release a vehicle
+ * an emergency holds, and clearing an emergency does not touch a vehicle that has left it since
+ */
+public class WorkloadReplayer {
+    
+    private static final int LOCATION_BUFFER = 1 << 16;
+    
+    // Private attributes (Encapsulation)
+    private final TransportService service;
+    private final double speedUp;
+    private final int laneCount;
+    private final int dispatchWorkers;
+    private final long dayStart;
+    private final Map<Kind, LatencyHistogram> serviceTimes;
+    private final Map<Kind, LatencyHistogram> responseTimes;
+    private final Map<Kind, LongAdder> errors;
+    // Vehicle claimed by each open emergency; only read and written on the emergency lane
+    private final Map<String, String> emergencyVehicles;
+    private volatile LocationIngestionPipeline locationPipeline;
+    
+    // Constructor
+    public WorkloadReplayer(TransportService service, double speedUp, int lanes) {
+        this(service, speedUp, lanes, 2, tomorrow());
+    }
+    
+    // speedUp of zero or less replays as fast as possible; trip times are offsets from dayStart,
+    // which defaults to tomorrow so that recorded trips are never in the past
+    public WorkloadReplayer(TransportService service, double speedUp, int lanes, int dispatchWorkers, long dayStart) {
+        this.service = service;
+        this.speedUp = speedUp;
+        this.laneCount = Math.max(1, lanes);
+        this.dispatchWorkers = dispatchWorkers;
+        this.dayStart = dayStart;
+        this.serviceTimes = new EnumMap<>(Kind.class);
+        this.responseTimes = new EnumMap<>(Kind.class);
+        this.errors = new EnumMap<>(Kind.class);
+        for (Kind kind : Kind.values()) {
+            serviceTimes.put(kind, new LatencyHistogram());
+            responseTimes.put(kind, new LatencyHistogram());
+            errors.put(kind, new LongAdder());
+        }
+        this.emergencyVehicles = new HashMap<>();
+    }
+    
+    // Local midnight at the start of tomorrow
+    public static long tomorrow() {
+        return LocalDate.now().plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+    
+    public ReplayReport replay(List<WorkloadEvent> events) throws InterruptedException {
+        long setupStart = System.nanoTime();
+        int setupEvents = 0;
+        List<WorkloadEvent> timed = new ArrayList<>();
+        for (WorkloadEvent event : events) {
+            if (event.kind().isSetup()) {
+                setUp(event);
+                setupEvents++;
+            } else {
+                timed.add(event);
+            }
+        }
+        long setupMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - setupStart);
+        
+        locationPipeline = service.startLocationIngestion(LOCATION_BUFFER);
+        if (dispatchWorkers > 0) {
+            service.startRequestDispatch(dispatchWorkers);
+        }
+        ExecutorService[] lanes = new ExecutorService[laneCount];
+        for (int l = 0; l < laneCount; l++) {
+            String name = "workload-lane-" + l;
+            lanes[l] = Executors.newSingleThreadExecutor(task -> {
+                Thread thread = new Thread(task, name);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        
+        long firstOffset = timed.isEmpty() ? 0 : timed.get(0).offsetMillis();
+        long maxLag = 0;
+        long start = System.nanoTime();
+        try {
+            for (WorkloadEvent event : timed) {
+                long now = System.nanoTime();
+                long due = now;
+                if (speedUp > 0) {
+                    due = start + (long) ((event.offsetMillis() - firstOffset) * 1e6 / speedUp);
+                    while (now < due) {
+                        LockSupport.parkNanos(due - now);
+                        now = System.nanoTime();
+                    }
+                }
+                maxLag = Math.max(maxLag, now - due);
+                long dueAt = due;
+                lanes[Math.floorMod(event.key().hashCode(), laneCount)].execute(() -> run(event, dueAt));
+            }
+        } finally {
+            for (ExecutorService lane : lanes) {
+                lane.shutdown();
+            }
+            for (ExecutorService lane : lanes) {
+                lane.awaitTermination(1, TimeUnit.HOURS);
+            }
+            service.stopRequestDispatch();
+            service.stopLocationIngestion();
+        }
+        long elapsed = System.nanoTime() - start;
+        
+        Map<Kind, ReplayReport.KindStats> kinds = new EnumMap<>(Kind.class);
+        long errorCount = 0;
+        for (Kind kind : Kind.values()) {
+            LatencyHistogram.Snapshot serviceTime = serviceTimes.get(kind).snapshot();
+            long kindErrors = errors.get(kind).sum();
+            errorCount += kindErrors;
+            if (serviceTime.count() > 0) {
+                kinds.put(kind, new ReplayReport.KindStats(serviceTime.count(), kindErrors, serviceTime,
+                                                           responseTimes.get(kind).snapshot()));
+            }
+        }
+        return new ReplayReport(setupEvents, setupMillis, timed.size(), elapsed, speedUp, laneCount, errorCount,
+                                maxLag, kinds);
+    }
+    
+    // Errors are exceptions; refusals the service reports in its reply are normal outcomes
+    private void run(WorkloadEvent event, long due) {
+        Kind kind = event.kind();
+        long start = System.nanoTime();
+        try {
+            apply(event);
+        } catch (RuntimeException e) {
+            errors.get(kind).increment();
+        }
+        long end = System.nanoTime();
+        serviceTimes.get(kind).record(end - start);
+        responseTimes.get(kind).record(end - due);
+    }
+    
+    private void apply(WorkloadEvent event) {
+        switch (event.kind()) {
+            case TRANSPORT_REQUEST -> service.processTransportRequest(event.field(0), event.field(1), event.field(2),
+                                                                      Integer.parseInt(event.field(3)));
+            case FIND_VEHICLE -> service.findBestVehicle(event.field(1), Integer.parseInt(event.field(2)));
+            case LOCATION_FIX -> {
+                int handle = locationPipeline.getHandle(event.field(0));
+                if (handle < 0) {
+                    throw new IllegalArgumentException("Unknown vehicle " + event.field(0));
+                }
+                locationPipeline.publish(handle, Double.parseDouble(event.field(1)), Double.parseDouble(event.field(2)),
+                                         dayStart + event.offsetMillis());
+            }
+            case SCHEDULE_TRIP -> service.scheduleTransport(event.field(0), event.field(1),
+                                                            new Date(dayStart + Long.parseLong(event.field(2))),
+                                                            new Date(dayStart + Long.parseLong(event.field(3))));
+            case CANCEL_TRIP -> {
+                Bus bus = service.getBus(event.field(0));
+                Vehicle vehicle = bus != null ? bus : service.getVan(event.field(0));
+                long departure = dayStart + Long.parseLong(event.field(1));
+                if (vehicle != null) {
+                    for (ScheduledTrip trip : vehicle.getTrips()) {
+                        if (trip.departureTime() == departure) {
+                            vehicle.cancelScheduledTrip(trip.tripId());
+                            break;
+                        }
+                    }
+                }
+            }
+            case VEHICLE_STATUS -> {
+                VehicleStatus status = VehicleStatus.fromLabel(event.field(1));
+                if (status == VehicleStatus.AVAILABLE) {
+                    // Ends the trip only; a vehicle taken by an emergency meanwhile stays with it
+                    service.updateVehicleStatus(event.field(0), VehicleStatus.IN_TRIP, status);
+                } else {
+                    service.updateVehicleStatus(event.field(0), status);
+                }
+            }
+            case EMERGENCY -> {
+                EmergencyDispatch dispatch = service.dispatchEmergency(event.field(1), event.field(2), event.field(3),
+                                                                       Double.parseDouble(event.field(4)),
+                                                                       Double.parseDouble(event.field(5)));
+                if (dispatch.isArranged()) {
+                    emergencyVehicles.put(event.field(0), dispatch.vehicleId());
+                }
+            }
+            case EMERGENCY_CLEARED -> {
+                String vehicleId = emergencyVehicles.remove(event.field(0));
+                if (vehicleId != null) {
+                    service.updateVehicleStatus(vehicleId, VehicleStatus.EMERGENCY, VehicleStatus.AVAILABLE);
+                }
+            }
+            default -> throw new IllegalArgumentException("Setup event in the timed part: " + event.kind());
+        }
+    }
+    
+    private void setUp(WorkloadEvent event) {
+        List<String> fields = event.fields();
+        switch (event.kind()) {
+            case ADD_ROUTE -> {
+                Route route = new Route(fields.get(0), fields.get(1), fields.get(2), fields.get(3),
+                                        Double.parseDouble(fields.get(4)), Integer.parseInt(fields.get(5)), fields.get(6));
+                service.addRoute(route);
+                for (String stop : fields.subList(7, fields.size())) {
+                    route.addStopPoint(stop);
+                }
+            }
+            case ADD_BUS -> {
+                service.addBus(new Bus(fields.get(0), fields.get(1), Integer.parseInt(fields.get(2)), fields.get(3),
+                                       fields.get(4)));
+                assignToRoute(fields.get(0), fields.get(5));
+            }
+            case ADD_VAN -> {
+                service.addVan(new Van(fields.get(0), fields.get(1), Integer.parseInt(fields.get(2)), fields.get(3),
+                                       fields.get(4), fields.get(5), Boolean.parseBoolean(fields.get(6))));
+                assignToRoute(fields.get(0), fields.get(7));
+            }
+            case REGISTER_STUDENT -> service.registerUser(new Student(fields.get(0), fields.get(1), email(fields.get(0)),
+                    "", "", "S" + fields.get(0), fields.get(2), Integer.parseInt(fields.get(3))));
+            case REGISTER_LECTURER -> service.registerUser(new Lecturer(fields.get(0), fields.get(1), email(fields.get(0)),
+                    "", "", "L" + fields.get(0), fields.get(2), fields.get(3)));
+            case REGISTER_OFFICER -> service.registerUser(new TransportOfficer(fields.get(0), fields.get(1),
+                    email(fields.get(0)), "", "", "T" + fields.get(0), fields.get(2),
+                    new String[]{"ASSIGN_VEHICLE"}, Integer.parseInt(fields.get(3))));
+            default -> throw new IllegalArgumentException("Not a setup event: " + event.kind());
+        }
+    }
+    
+    private void assignToRoute(String vehicleId, String routeId) {
+        Route route = service.getRoute(routeId);
+        if (route != null) {
+            route.assignVehicle(vehicleId);
+        }
+    }
+    
+    private static String email(String userId) {
+        return userId.toLowerCase() + "@vu.edu";
+    }
+}
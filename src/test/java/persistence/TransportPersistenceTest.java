@@ -0,0 +1,141 @@
+package persistence;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import services.Route;
+import services.TransportService;
+import user.Student;
+import user.User;
+import vehicle.Bus;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * TransportPersistenceTest class checking recovery when the journal's last write was torn
+ */
+class TransportPersistenceTest {
+    
+    // A frame header promising a payload that never made it to disk
+    private static final byte[] TORN_FRAME = {0, 0, 0, 64, 1, 2, 3, 4, 1, 0, 0, 0};
+    
+    @TempDir
+    Path directory;
+    
+    @Test
+    void replaysEntriesBeforeATornTailAndKeepsWritingAfterIt() throws IOException {
+        TransportService service = new TransportService();
+        try (TransportPersistence persistence = open(service)) {
+            populate(service);
+        }
+        appendToLastSegment(TORN_FRAME);
+    
+        TransportService recovered = new TransportService();
+        try (TransportPersistence persistence = open(recovered)) {
+            assertRecovered(recovered);
+            assertEquals(1, recovered.getRequestQueue().size());
+            recovered.addBus(new Bus("B2", "Rosa", 25, "Driver Two", "DL-2"));
+        }
+    
+        TransportService restarted = new TransportService();
+        try (TransportPersistence persistence = open(restarted)) {
+            assertRecovered(restarted);
+            assertNotNull(restarted.getBus("B2"));
+        }
+    }
+    
+    @Test
+    void dropsOnlyTheEntryWhoseFrameWasCutShort() throws IOException {
+        TransportService service = new TransportService();
+        try (TransportPersistence persistence = open(service)) {
+            populate(service);
+        }
+        Path last = lastSegment();
+        try (FileChannel channel = FileChannel.open(last, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+    
+        TransportService recovered = new TransportService();
+        try (TransportPersistence persistence = open(recovered)) {
+            assertRecovered(recovered);
+            // The queued request was the last entry written
+            assertEquals(0, recovered.getRequestQueue().size());
+        }
+    }
+    
+    @Test
+    void replaysTheJournalWrittenAfterTheLatestSnapshot() throws IOException {
+        TransportService service = new TransportService();
+        try (TransportPersistence persistence = open(service)) {
+            populate(service);
+            persistence.snapshot();
+            service.addBus(new Bus("B2", "Rosa", 25, "Driver Two", "DL-2"));
+        }
+        appendToLastSegment(TORN_FRAME);
+    
+        TransportService recovered = new TransportService();
+        try (TransportPersistence persistence = open(recovered)) {
+            assertRecovered(recovered);
+            assertNotNull(recovered.getBus("B2"));
+            assertEquals(1, recovered.getRequestQueue().size());
+        }
+    }
+    
+    @Test
+    void recoversNothingFromAJournalTornInItsFirstFrame() throws IOException {
+        Files.createDirectories(directory);
+        Files.write(directory.resolve(TransportJournal.segmentName(1)), TORN_FRAME);
+    
+        TransportService recovered = new TransportService();
+        try (TransportPersistence persistence = open(recovered)) {
+            assertEquals(0, persistence.getRecoveredEntries());
+            assertNull(recovered.getBus("B1"));
+        }
+    }
+    
+    private TransportPersistence open(TransportService service) throws IOException {
+        return TransportPersistence.open(directory, service, 0, TimeUnit.SECONDS);
+    }
+    
+    private static void populate(TransportService service) {
+        service.registerUser(new Student("S1", "Amina", "amina@example.com", "0700000001",
+                                         "secret", "2024/001", "Computer Science", 2));
+        service.addBus(new Bus("B1", "Coaster", 30, "Driver One", "DL-1"));
+        service.addRoute(new Route("R1", "Campus Loop", "Main Gate", "Library", 4.5, 20, "Regular"));
+        service.processTransportRequest("S1", "Library", "09:00 AM", 2);
+    }
+    
+    private static void assertRecovered(TransportService service) {
+        assertNotNull(service.getBus("B1"));
+        assertNotNull(service.getRoute("R1"));
+        User user = null;
+        for (User registered : service.getRegisteredUsers()) {
+            if (registered.getUserId().equals("S1")) {
+                user = registered;
+            }
+        }
+        assertNotNull(user);
+        assertTrue(user.validatePassword("secret"));
+    }
+    
+    private void appendToLastSegment(byte[] bytes) throws IOException {
+        Files.write(lastSegment(), bytes, StandardOpenOption.APPEND);
+    }
+    
+    private Path lastSegment() throws IOException {
+        List<Path> segments = TransportJournal.listSegments(directory);
+        assertFalse(segments.isEmpty(), "no journal segment written");
+        return segments.get(segments.size() - 1);
+    }
+}
@@ -0,0 +1,122 @@
+package services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import user.Student;
+import vehicle.Bus;
+import vehicle.Van;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * BatchDispatchSolverTest class checking how a window of requests is packed onto vehicles
+ */
+class BatchDispatchSolverTest {
+    
+    private TransportService service;
+    private Route route;
+    
+    @BeforeEach
+    void setUp() {
+        service = new TransportService();
+        service.registerUser(new Student("S1", "Amina", "amina@example.com", "0700000001",
+                                         "secret", "2024/001", "Computer Science", 2));
+        service.addBus(new Bus("B1", "Coaster", 30, "Driver One", "DL-1"));
+        service.addVan(new Van("V1", "Hiace", 12, "Driver Two", "DL-2", "Standard", false));
+        service.addVan(new Van("V2", "Noah", 8, "Driver Three", "DL-3", "Standard", false));
+        route = new Route("R1", "Campus Loop", "Main Gate", "Library", 4.5, 20, "Regular");
+        service.addRoute(route);
+    }
+    
+    @Test
+    void packsSmallPartiesOntoOneTightlyFittingVehicle() {
+        request("Library", 4);
+        request("Library", 4);
+    
+        DispatchPlan plan = service.planBatchDispatch(service.getRequestQueue().snapshot());
+    
+        // The smallest vehicle that fits the first party is opened, and the second party fills it
+        assertEquals(Map.of("V2", 8), plan.seatsUsedByVehicle());
+        assertEquals(new DispatchPlan.Outcome(8, 8, 1, 0), plan.optimised());
+        for (RequestAssignment assignment : plan.assignments()) {
+            assertEquals("V2", assignment.vehicleId());
+            assertEquals("R1", assignment.routeId());
+        }
+        // One request per vehicle, buses first
+        assertEquals(new DispatchPlan.Outcome(8, 38, 2, 0), plan.firstFit());
+        assertTrue(plan.optimised().utilisation() > plan.firstFit().utilisation());
+    }
+    
+    @Test
+    void placesLargerPartiesFirstAndNeverOverfillsAVehicle() {
+        request("Library", 3);
+        request("Library", 10);
+        request("Library", 6);
+        request("Library", 7);
+    
+        DispatchPlan plan = service.planBatchDispatch(service.getRequestQueue().snapshot());
+    
+        assertEquals(0, plan.optimised().unassigned());
+        assertEquals(26, plan.optimised().passengers());
+        Map<String, Integer> capacities = Map.of("B1", 30, "V1", 12, "V2", 8);
+        int seats = 0;
+        for (Map.Entry<String, Integer> used : plan.seatsUsedByVehicle().entrySet()) {
+            assertTrue(used.getValue() <= capacities.get(used.getKey()), used.getKey() + " overfilled");
+            seats += used.getValue();
+        }
+        assertEquals(26, seats);
+        assertEquals(plan.seatsUsedByVehicle().size(), plan.optimised().vehiclesUsed());
+        assertTrue(plan.optimised().vehiclesUsed() <= plan.firstFit().vehiclesUsed());
+    }
+    
+    @Test
+    void prefersVehiclesAlreadyAssignedToTheRoute() {
+        route.assignVehicle("B1");
+        request("Library", 4);
+        request("Library", 4);
+    
+        DispatchPlan plan = service.planBatchDispatch(service.getRequestQueue().snapshot());
+    
+        assertEquals(Map.of("B1", 8), plan.seatsUsedByVehicle());
+    }
+    
+    @Test
+    void reportsPartiesThatFitNowhereAndDestinationsWithoutRoute() {
+        request("Library", 40);
+        request("Airport", 2);
+    
+        DispatchPlan plan = service.planBatchDispatch(service.getRequestQueue().snapshot());
+    
+        assertEquals(2, plan.optimised().unassigned());
+        assertTrue(plan.seatsUsedByVehicle().isEmpty());
+        for (RequestAssignment assignment : plan.assignments()) {
+            assertFalse(assignment.isAssigned());
+            if (assignment.request().destination().equals("Airport")) {
+                assertNull(assignment.routeId());
+            } else {
+                assertEquals("R1", assignment.routeId());
+            }
+        }
+    }
+    
+    @Test
+    void planningLeavesTheQueueAndVehiclesUntouched() {
+        request("Library", 4);
+    
+        service.planBatchDispatch(service.getRequestQueue().snapshot());
+    
+        assertEquals(1, service.getRequestQueue().size());
+        assertEquals(List.of(), service.getBus("B1").getTrips());
+        assertEquals(List.of(), service.getVan("V1").getTrips());
+    }
+    
+    private void request(String destination, int passengers) {
+        service.processTransportRequest("S1", destination, "09:00 AM", passengers);
+    }
+}
@@ -0,0 +1,138 @@
+package services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import user.Student;
+import vehicle.Bus;
+import vehicle.Van;
+import vehicle.VehicleStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * RequestDispatchTest class checking that dispatch claims trip windows, not whole vehicles
+ */
+class RequestDispatchTest {
+    
+    private final List<Long> taken = new ArrayList<>();
+    private TransportService service;
+    
+    @BeforeEach
+    void setUp() {
+        service = new TransportService(4);
+        service.registerUser(new Student("S1", "Amina", "amina@example.com", "0700000001",
+                                         "secret", "2024/001", "Computer Science", 2));
+        service.addBus(new Bus("B1", "Coaster", 30, "Driver One", "DL-1"));
+        service.addVan(new Van("V1", "Hiace", 12, "Driver Two", "DL-2", "Standard", false));
+        service.addRoute(new Route("R1", "Campus Loop", "Main Gate", "Library", 4.5, 20, "Regular"));
+        service.setJournal(new ServiceJournal() {
+            @Override
+            public void requestsTaken(List<Long> requestIds) {
+                taken.addAll(requestIds);
+            }
+        });
+    }
+    
+    @Test
+    void claimBooksATripAndLeavesTheVehicleAvailable() {
+        TransportRequest request = next("Library", 4);
+    
+        RequestAssignment assignment = service.dispatchRequest(request, 0);
+    
+        // Smallest vehicle that fits the group
+        assertEquals("V1", assignment.vehicleId());
+        assertEquals("R1", assignment.routeId());
+        assertEquals(1, service.getVan("V1").getScheduledTripsCount());
+        assertEquals(VehicleStatus.AVAILABLE, service.getVan("V1").getStatus());
+        assertTrue(service.getVehiclesInStatus(VehicleStatus.AVAILABLE).contains("V1"));
+        assertEquals(List.of(request.requestId()), taken);
+    }
+    
+    @Test
+    void sameWindowGoesToAnotherVehicleUntilNoneIsLeft() {
+        RequestAssignment first = service.dispatchRequest(next("Library", 4), 0);
+        RequestAssignment second = service.dispatchRequest(next("Library", 4), 0);
+        TransportRequest third = next("Library", 4);
+        RequestAssignment unassigned = service.dispatchRequest(third, 0);
+    
+        assertNotEquals(first.vehicleId(), second.vehicleId());
+        assertFalse(unassigned.isAssigned());
+        assertEquals("R1", unassigned.routeId());
+        assertFalse(taken.contains(third.requestId()));
+        assertEquals(1, service.getBus("B1").getScheduledTripsCount());
+        assertEquals(1, service.getVan("V1").getScheduledTripsCount());
+    }
+    
+    @Test
+    void requestWithoutRouteIsNeitherAssignedNorTaken() {
+        RequestAssignment assignment = service.dispatchRequest(next("Airport", 1), 0);
+    
+        assertFalse(assignment.isAssigned());
+        assertNull(assignment.routeId());
+        assertTrue(taken.isEmpty());
+        assertEquals(0, service.getBus("B1").getScheduledTripsCount());
+    }
+    
+    @Test
+    void cancellingTheClaimedTripReleasesTheWindow() {
+        RequestAssignment first = service.dispatchRequest(next("Library", 4), 0);
+        String tripId = service.getVan(first.vehicleId()).getTrips().get(0).tripId();
+        service.getVan(first.vehicleId()).cancelScheduledTrip(tripId);
+    
+        RequestAssignment again = service.dispatchRequest(next("Library", 4), 0);
+    
+        assertEquals(first.vehicleId(), again.vehicleId());
+    }
+    
+    @Test
+    void requeuedRequestIsDispatchedAgainOrDroppedWhenTheQueueIsFull() {
+        TransportRequest request = next("Library", 4);
+        TransportRequest overflow = next("Library", 1);
+    
+        assertTrue(service.requeueRequest(request));
+        assertEquals(List.of(request), service.getRequestQueue().snapshot());
+        assertTrue(taken.isEmpty());
+    
+        for (int i = 0; i < 3; i++) {
+            service.processTransportRequest("S1", "Library", "09:00 AM", 1);
+        }
+        assertFalse(service.requeueRequest(overflow));
+        assertEquals(List.of(overflow.requestId()), taken);
+    }
+    
+    @Test
+    void batchDispatchTakesOnlyWhatItClaimedAndLeavesTheRestQueued() {
+        service.processTransportRequest("S1", "Library", "09:00 AM", 10);
+        service.processTransportRequest("S1", "Library", "09:00 AM", 20);
+        service.processTransportRequest("S1", "Library", "09:00 AM", 25);
+        service.processTransportRequest("S1", "Airport", "09:00 AM", 1);
+    
+        DispatchPlan plan = service.dispatchPendingRequests(10);
+    
+        // 25 takes the bus and 10 the van; 20 fits in neither and Airport has no route
+        assertEquals(2, plan.optimised().vehiclesUsed());
+        assertEquals(35, plan.optimised().passengers());
+        assertEquals(2, plan.optimised().unassigned());
+        assertEquals(2, taken.size());
+        List<TransportRequest> left = service.getRequestQueue().snapshot();
+        assertEquals(2, left.size());
+        for (TransportRequest request : left) {
+            assertFalse(taken.contains(request.requestId()));
+        }
+        assertEquals(VehicleStatus.AVAILABLE, service.getBus("B1").getStatus());
+        assertEquals(1, service.getBus("B1").getScheduledTripsCount());
+    }
+    
+    // Queues a request and takes it straight back out, as a dispatch worker would
+    private TransportRequest next(String destination, int passengers) {
+        service.processTransportRequest("S1", destination, "09:00 AM", passengers);
+        return service.getRequestQueue().drain(1).get(0);
+    }
+}
@@ -0,0 +1,100 @@
+package services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * SpatialIndexTest class checking nearest-vehicle search and its ring bound
+ */
+class SpatialIndexTest {
+    
+    private final SpatialIndex index = new SpatialIndex(0.01);
+    
+    @Test
+    void returnsNearestFirst() {
+        index.update("near", 0.3200, 32.5800);
+        index.update("middle", 0.3300, 32.5800);
+        index.update("far", 0.4000, 32.5800);
+    
+        List<SpatialIndex.Neighbor> nearest = index.findNearest(0.3190, 32.5800, 2, id -> true);
+    
+        assertEquals(List.of("near", "middle"), ids(nearest));
+        assertTrue(nearest.get(0).distanceKm() < nearest.get(1).distanceKm());
+    }
+    
+    @Test
+    void returnsFewerThanKWhenFewerVehiclesQualify() {
+        index.update("V1", 0.3200, 32.5800);
+        index.update("V2", 0.3500, 32.6000);
+        index.update("V3", 1.2000, 33.4000);
+        index.update("V4", 0.3210, 32.5810);
+    
+        List<SpatialIndex.Neighbor> nearest = index.findNearest(0.3200, 32.5800, 10, id -> !id.equals("V4"));
+    
+        // The search stops once the grid's occupied extent is covered instead of widening forever
+        assertEquals(List.of("V1", "V2", "V3"), ids(nearest));
+    }
+    
+    @Test
+    void findsAVehicleManyCellsAway() {
+        index.update("lonely", 10.0, 40.0);
+    
+        List<SpatialIndex.Neighbor> nearest = index.findNearest(-10.0, -40.0, 1, id -> true);
+    
+        assertEquals(List.of("lonely"), ids(nearest));
+    }
+    
+    @Test
+    void returnsNothingWhenNoVehicleQualifies() {
+        index.update("V1", 0.3200, 32.5800);
+    
+        assertTrue(index.findNearest(0.3200, 32.5800, 3, id -> false).isEmpty());
+        assertTrue(index.findNearest(0.3200, 32.5800, 0, id -> true).isEmpty());
+    }
+    
+    @Test
+    void agreesWithABruteForceScan() {
+        Random random = new Random(42);
+        List<double[]> positions = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            double latitude = 0.2 + random.nextDouble() * 0.3;
+            double longitude = 32.4 + random.nextDouble() * 0.3;
+            positions.add(new double[]{latitude, longitude});
+            index.update("V" + i, latitude, longitude);
+        }
+    
+        for (int query = 0; query < 20; query++) {
+            double latitude = 0.2 + random.nextDouble() * 0.3;
+            double longitude = 32.4 + random.nextDouble() * 0.3;
+            List<SpatialIndex.Neighbor> expected = new ArrayList<>();
+            for (int i = 0; i < positions.size(); i++) {
+                if (i % 3 != 0) {
+                    double[] position = positions.get(i);
+                    expected.add(new SpatialIndex.Neighbor("V" + i,
+                            SpatialIndex.distanceKm(latitude, longitude, position[0], position[1])));
+                }
+            }
+            expected.sort(Comparator.comparingDouble(SpatialIndex.Neighbor::distanceKm));
+    
+            List<SpatialIndex.Neighbor> nearest = index.findNearest(latitude, longitude, 5,
+                    id -> Integer.parseInt(id.substring(1)) % 3 != 0);
+    
+            assertEquals(ids(expected.subList(0, 5)), ids(nearest));
+        }
+    }
+    
+    private static List<String> ids(List<SpatialIndex.Neighbor> neighbors) {
+        List<String> ids = new ArrayList<>();
+        for (SpatialIndex.Neighbor neighbor : neighbors) {
+            ids.add(neighbor.vehicleId());
+        }
+        return ids;
+    }
+}
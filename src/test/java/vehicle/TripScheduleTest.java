@@ -0,0 +1,99 @@
+package vehicle;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * TripScheduleTest class checking the overlap, gap and daily limit rules
+ */
+class TripScheduleTest {
+    
+    private static final long MINUTE = 60_000L;
+    // 2030-01-01T06:00Z
+    private static final long MORNING = 1_893_477_600_000L;
+    
+    private final TripSchedule schedule = new TripSchedule("B1", new SchedulingRules(30, 3, 24, ZoneOffset.UTC));
+    
+    private static Date at(long minutes) {
+        return new Date(MORNING + minutes * MINUTE);
+    }
+    
+    @Test
+    void rejectsOverlappingWindows() {
+        assertNotNull(schedule.add("R1", at(0), at(60)));
+    
+        ScheduleCheck inside = schedule.add("R1", at(30), at(45), false);
+        assertFalse(inside.isAccepted());
+        assertEquals(Set.of(ScheduleViolation.OVERLAP), inside.violations());
+        assertEquals(Set.of(ScheduleViolation.OVERLAP), schedule.add("R1", at(-30), at(1), false).violations());
+        assertTrue(schedule.overlaps(MORNING + 59 * MINUTE, MORNING + 90 * MINUTE));
+        assertEquals(1, schedule.size());
+    }
+    
+    @Test
+    void tripsTouchingAtTheEdgeDoNotOverlap() {
+        assertNotNull(schedule.add("R1", at(0), at(60)));
+    
+        assertFalse(schedule.overlaps(MORNING + 60 * MINUTE, MORNING + 120 * MINUTE));
+        assertFalse(schedule.overlaps(MORNING - 60 * MINUTE, MORNING));
+    }
+    
+    @Test
+    void requiresTheMinimumGapOnBothSides() {
+        assertNotNull(schedule.add("R1", at(120), at(180)));
+    
+        assertEquals(Set.of(ScheduleViolation.MIN_GAP), schedule.violations(
+                MORNING + 200 * MINUTE, MORNING + 240 * MINUTE, false));
+        assertEquals(Set.of(ScheduleViolation.MIN_GAP), schedule.violations(
+                MORNING + 60 * MINUTE, MORNING + 100 * MINUTE, false));
+        assertNotNull(schedule.add("R1", at(210), at(240)));
+        assertNotNull(schedule.add("R1", at(60), at(90)));
+        assertEquals(3, schedule.size());
+    }
+    
+    @Test
+    void emergencyTripsSkipGapAndDailyLimitButNotOverlap() {
+        assertNotNull(schedule.add("R1", at(0), at(60)));
+    
+        ScheduleCheck close = schedule.add("R2", at(65), at(90), true);
+        assertTrue(close.isAccepted());
+        assertEquals(Set.of(ScheduleViolation.OVERLAP),
+                     schedule.add("R2", at(80), at(100), true).violations());
+    }
+    
+    @Test
+    void enforcesTheDailyLimit() {
+        for (int trip = 0; trip < 3; trip++) {
+            assertNotNull(schedule.add("R1", at(trip * 120), at(trip * 120 + 60)));
+        }
+    
+        ScheduleCheck fourth = schedule.add("R1", at(360), at(420), false);
+        assertEquals(Set.of(ScheduleViolation.DAILY_LIMIT), fourth.violations());
+        assertNull(fourth.trip());
+        // The count resets on the next day in the rules' zone
+        assertNotNull(schedule.add("R1", at(24 * 60), at(24 * 60 + 60)));
+    }
+    
+    @Test
+    void cancellingATripFreesItsWindowAndDailyCount() {
+        ScheduledTrip trip = schedule.add("R1", at(0), at(60));
+    
+        assertEquals(trip, schedule.remove(trip.tripId()));
+        assertEquals(0, schedule.tripsOnDay(schedule.dayOf(MORNING)));
+        assertTrue(schedule.isFree(at(0), at(60)));
+    }
+    
+    @Test
+    void rejectsEmptyWindows() {
+        assertEquals(Set.of(ScheduleViolation.INVALID_WINDOW), schedule.violations(MORNING, MORNING, false));
+    }
+}